@@ -0,0 +1,54 @@
+package com.project.backend.benchmarks;
+
+import com.project.backend.BackendApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application against an in-memory H2 database (MySQL mode), so repository benchmarks
+ * and load runs are reproducible on any machine without a MySQL instance.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the application without a web server.
+     *
+     * @param databaseName Name of the in-memory database (one per benchmark state)
+     * @return The started application context; close it in the benchmark's tear-down
+     */
+    public static ConfigurableApplicationContext start(String databaseName) {
+        return start(databaseName, WebApplicationType.NONE);
+    }
+
+    /**
+     * Starts the application with its web server on a random free port
+     * (read it from the "local.server.port" property).
+     *
+     * @param databaseName Name of the in-memory database
+     * @return The started application context; close it when the run is over
+     */
+    public static ConfigurableApplicationContext startServer(String databaseName) {
+        return start(databaseName, WebApplicationType.SERVLET);
+    }
+
+    private static ConfigurableApplicationContext start(String databaseName, WebApplicationType webApplicationType) {
+        // Only read as a system property: otherwise devtools restarts a caller's main method with the
+        // arguments below instead of the caller's own
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .web(webApplicationType)
+                // Passed as command-line arguments so they take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+    }
+}
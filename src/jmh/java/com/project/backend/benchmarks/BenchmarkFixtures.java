@@ -0,0 +1,69 @@
+package com.project.backend.benchmarks;
+
+import com.project.backend.model.DietPlanDto;
+import com.project.backend.model.DietPlanResponse;
+import com.project.backend.model.ExercisePlan;
+import com.project.backend.model.ExercisePlanTemplate;
+import com.project.backend.model.ExerciseSetDto;
+import com.project.backend.model.NutritionPlan;
+import com.project.backend.model.UserInfo;
+import com.project.backend.planning.ComputedPlan;
+import com.project.backend.services.PlanEntityMapper;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deterministic sample data shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static UserInfo user(String email) {
+        UserInfo user = new UserInfo();
+        user.setName("Benchmark User");
+        user.setEmail(email);
+        user.setAge(30);
+        user.setGender("MALE");
+        user.setHeight(178);
+        user.setCurrWeight(82);
+        user.setDesiredWeight(75);
+        user.setTargetDays(90);
+        return user;
+    }
+
+    /**
+     * Builds a plan pair as it looks after being saved (ids and timestamps assigned),
+     * and links it back to the user so UserInfo serialization walks the plan collections too.
+     */
+    static DietPlanResponse savedDietPlan(UserInfo user) {
+        ComputedPlan plan = PlanEntityMapper.computePlan(user);
+        ExercisePlanTemplate exerciseTemplate = PlanEntityMapper.toExercisePlanTemplate(plan.goal(), plan.exercises());
+        for (int i = 0; i < exerciseTemplate.getExerciseSets().size(); i++) {
+            exerciseTemplate.getExerciseSets().get(i).setId((long) i + 1);
+        }
+        ExercisePlan exercisePlan = PlanEntityMapper.toExercisePlan(user, plan, exerciseTemplate);
+        NutritionPlan nutritionPlan = PlanEntityMapper.toNutritionPlan(user, plan,
+                PlanEntityMapper.toMealPlanTemplate(plan.meals()));
+
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 8, 0);
+        exercisePlan.setId(1L);
+        exercisePlan.setCreatedAt(createdAt);
+        nutritionPlan.setId(1L);
+        nutritionPlan.setCreatedAt(createdAt);
+
+        user.getExercisePlans().add(exercisePlan);
+        user.getNutritionPlans().add(nutritionPlan);
+        return new DietPlanResponse(exercisePlan, nutritionPlan);
+    }
+
+    /**
+     * The API representation of a plan built by savedDietPlan.
+     */
+    static DietPlanDto dietPlanDto(DietPlanResponse dietPlan) {
+        return DietPlanDto.from(dietPlan,
+                dietPlan.getExercisePlan().getTemplate().getExerciseSets().stream().map(ExerciseSetDto::from).toList(),
+                PlanEntityMapper.toMealTemplate(dietPlan.getNutritionPlan().getMealTemplate()));
+    }
+}
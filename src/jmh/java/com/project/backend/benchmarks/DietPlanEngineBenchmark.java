@@ -0,0 +1,46 @@
+package com.project.backend.benchmarks;
+
+import com.project.backend.planning.ComputedPlan;
+import com.project.backend.planning.DietPlanEngine;
+import com.project.backend.planning.DietaryTag;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the plan computation alone (goal detection, calorie math, exercise scheduling and meal composition
+ * from the food catalog), without any entity mapping or persistence.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DietPlanEngineBenchmark {
+
+    // Current/desired weight pairs covering the three goals
+    @Param({"82:75", "60:68", "70:70.2"})
+    public String weights;
+
+    // Dietary exclusions narrow the candidate foods per meal
+    @Param({"", "VEGAN,GLUTEN"})
+    public String exclusions;
+
+    private double currWeight;
+    private double desiredWeight;
+    private long excludedTags;
+
+    @Setup
+    public void setUp() {
+        String[] parts = weights.split(":");
+        currWeight = Double.parseDouble(parts[0]);
+        desiredWeight = Double.parseDouble(parts[1]);
+        excludedTags = DietaryTag.parseMask(exclusions);
+    }
+
+    @Benchmark
+    public ComputedPlan compute() {
+        return DietPlanEngine.compute(currWeight, desiredWeight, 90, 178, 30, true, excludedTags);
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.backend.benchmarks;
+
+import com.project.backend.model.DietPlanDto;
+import com.project.backend.model.DietPlanResponse;
+import com.project.backend.model.UserInfo;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the API payloads, including the @JsonIgnoreProperties
+ * cycle handling between UserInfo, ExercisePlan and NutritionPlan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DietPlanSerializationBenchmark {
+
+    private JsonMapper jsonMapper;
+    private DietPlanResponse dietPlan;
+    private DietPlanDto dietPlanDto;
+    private UserInfo userWithPlans;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        userWithPlans = BenchmarkFixtures.user("serialization@example.com");
+        userWithPlans.setUserId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        dietPlan = BenchmarkFixtures.savedDietPlan(userWithPlans);
+        dietPlanDto = BenchmarkFixtures.dietPlanDto(dietPlan);
+    }
+
+    @Benchmark
+    public byte[] serializeDietPlanResponse() {
+        return jsonMapper.writeValueAsBytes(dietPlan);
+    }
+
+    @Benchmark
+    public byte[] serializeDietPlanDto() {
+        return jsonMapper.writeValueAsBytes(dietPlanDto);
+    }
+
+    @Benchmark
+    public byte[] serializeUserWithPlans() {
+        return jsonMapper.writeValueAsBytes(userWithPlans);
+    }
+}
@@ -0,0 +1,413 @@
+package com.project.backend.benchmarks;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Mixed-workload load test of the /api/user endpoints. Boots the application with its web server
+ * against an in-memory H2 database (or targets a running instance with url=...), seeds users through
+ * the import endpoint, then sends requests at a fixed average rate regardless of how fast responses
+ * come back (open model, Poisson arrivals from a seeded random source). Latency is measured from the
+ * request's scheduled start, so queueing behind a slow server is included rather than hidden.
+ *
+ * Run with:
+ *   ./mvnw -Pbenchmark test-compile exec:exec@load -Dload.args="users=2000 rate=300 duration=60s"
+ * Options (key=value): users, rate (requests/s), warmup, duration, seed, arrivals (poisson|constant),
+ * mix (e.g. save:10,user:35,plan:50,delete:5), url, out (default target/load-result.json).
+ * The JSON result holds throughput and p50/p95/p99/p999 latencies per operation, for diffing runs.
+ */
+public final class LoadHarness {
+
+    private static final JsonMapper JSON = JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build();
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final String[] GENDERS = {"MALE", "FEMALE"};
+    private static final String[] EXCLUSIONS = {"", "", "", "VEGETARIAN", "VEGAN", "GLUTEN", "NUTS"};
+
+    enum Action { SAVE, USER, PLAN, DELETE }
+
+    private static final Set<String> OPTIONS =
+            Set.of("users", "rate", "warmup", "duration", "seed", "arrivals", "mix", "url", "out");
+
+    /**
+     * The run settings, echoed into the result so runs can be compared like for like.
+     */
+    record Config(int users, double rate, Duration warmup, Duration duration, long seed, String arrivals,
+                  Map<Action, Integer> mix, String url, String out) {
+
+        static Config parse(String[] args) {
+            Map<String, String> options = new LinkedHashMap<>();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 1 || !OPTIONS.contains(arg.substring(0, eq))) {
+                    throw new IllegalArgumentException("Expected key=value with a key of " + OPTIONS + ", got: " + arg);
+                }
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+            Map<Action, Integer> mix = new LinkedHashMap<>();
+            for (String entry : options.getOrDefault("mix", "save:10,user:35,plan:50,delete:5").split(",")) {
+                String[] parts = entry.split(":");
+                mix.put(Action.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+            }
+            return new Config(Integer.parseInt(options.getOrDefault("users", "1000")),
+                    Double.parseDouble(options.getOrDefault("rate", "200")),
+                    duration(options.getOrDefault("warmup", "10s")),
+                    duration(options.getOrDefault("duration", "30s")),
+                    Long.parseLong(options.getOrDefault("seed", "42")),
+                    options.getOrDefault("arrivals", "poisson"),
+                    mix,
+                    options.get("url"),
+                    options.getOrDefault("out", "target/load-result.json"));
+        }
+
+        private static Duration duration(String value) {
+            return Duration.parse("PT" + value.toUpperCase());
+        }
+    }
+
+    record LatencyMillis(double p50, double p95, double p99, double p999, double max, double mean) {
+    }
+
+    record OperationResult(long count, long errors, double throughput, LatencyMillis latencyMs,
+                           Map<String, Long> statuses) {
+    }
+
+    record LoadResult(Config config, Instant startedAt, double durationSeconds, long requests, double throughput,
+                      long errors, long droppedAtEnd, Map<String, OperationResult> operations) {
+    }
+
+    /**
+     * Latency histogram and status counts of one operation.
+     */
+    private static final class Operation {
+        final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder errors = new LongAdder();
+
+        void record(long latencyNanos, String status, boolean error) {
+            latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            if (error) {
+                errors.increment();
+            }
+        }
+
+        OperationResult result(double seconds) {
+            Map<String, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return new OperationResult(latencies.getTotalCount(), errors.sum(), latencies.getTotalCount() / seconds,
+                    new LatencyMillis(millis(latencies.getValueAtPercentile(50)),
+                            millis(latencies.getValueAtPercentile(95)),
+                            millis(latencies.getValueAtPercentile(99)),
+                            millis(latencies.getValueAtPercentile(99.9)),
+                            millis(latencies.getMaxValue()),
+                            Math.round(latencies.getMean()) / 1000.0),
+                    counts);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    private final Config config;
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Random random;
+    private final UserPool pool = new UserPool();
+    private final Set<UUID> withPlan = ConcurrentHashMap.newKeySet();
+    private final AtomicLong emails = new AtomicLong();
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    private LoadHarness(Config config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.random = new Random(config.seed());
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = config.url();
+        if (baseUrl == null) {
+            context = BenchmarkApplication.startServer("load_harness");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadResult result = new LoadHarness(config, baseUrl).run();
+            JSON.writeValue(new File(config.out()), result);
+            print(result);
+            System.out.println("Result written to " + config.out());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private LoadResult run() throws Exception {
+        seed();
+
+        phase(config.warmup());
+        operations.clear();
+        recording = true;
+        Instant startedAt = Instant.now();
+        long dropped = phase(config.duration());
+        recording = false;
+
+        double seconds = config.duration().toNanos() / 1e9;
+        Map<String, OperationResult> results = new TreeMap<>();
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, Operation> entry : operations.entrySet()) {
+            OperationResult result = entry.getValue().result(seconds);
+            results.put(entry.getKey(), result);
+            requests += result.count();
+            errors += result.errors();
+        }
+        return new LoadResult(config, startedAt, seconds, requests, requests / seconds, errors, dropped, results);
+    }
+
+    /**
+     * Imports config.users users in one CSV request and collects their ids from the NDJSON stream.
+     */
+    private void seed() throws Exception {
+        StringBuilder csv = new StringBuilder("name,email,age,gender,height,currWeight,desiredWeight,targetDays,dietaryExclusions\n");
+        for (int i = 0; i < config.users(); i++) {
+            csv.append(String.join(",", newUser())).append('\n');
+        }
+        HttpResponse<String> imported = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/user/import"))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (imported.statusCode() != 200) {
+            throw new IllegalStateException("Import failed with " + imported.statusCode() + ": " + imported.body());
+        }
+
+        HttpResponse<Stream<String>> users = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/user/stream")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = users.body()) {
+            lines.filter(line -> !line.isBlank())
+                    .map(line -> UUID.fromString(JSON.readTree(line).get("userId").asString()))
+                    .forEach(pool::add);
+        }
+        System.out.printf("Seeded %d users at %s%n", pool.size(), baseUrl);
+    }
+
+    /**
+     * Sends requests for the given time at the configured rate, each on its own virtual thread,
+     * then waits for the stragglers.
+     *
+     * @return The number of requests still in flight when the grace period ran out
+     */
+    private long phase(Duration length) throws InterruptedException {
+        int totalWeight = config.mix().values().stream().mapToInt(Integer::intValue).sum();
+        double meanIntervalNanos = 1e9 / config.rate();
+        boolean poisson = "poisson".equalsIgnoreCase(config.arrivals());
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+        double next = start;
+        while (next < end) {
+            long intendedStart = (long) next;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Action action = pick(totalWeight);
+            UUID userId = action == Action.SAVE ? null
+                    : action == Action.DELETE ? pool.takeRandom(random) : pool.random(random);
+            executor.execute(() -> send(action, userId, intendedStart));
+            next += poisson ? -Math.log(1 - random.nextDouble()) * meanIntervalNanos : meanIntervalNanos;
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            return executor.shutdownNow().size();
+        }
+        return 0;
+    }
+
+    private Action pick(int totalWeight) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Action, Integer> entry : config.mix().entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private void send(Action action, UUID userId, long intendedStart) {
+        if (action != Action.SAVE && userId == null) {
+            return; // every user was deleted; nothing to read
+        }
+        String name;
+        HttpRequest request;
+        switch (action) {
+            case SAVE -> {
+                name = "save";
+                String[] user = newUser();
+                String body = String.format("{\"name\":\"%s\",\"email\":\"%s\",\"age\":%s,\"gender\":\"%s\",\"height\":%s,"
+                                + "\"currWeight\":%s,\"desiredWeight\":%s,\"targetDays\":%s,\"dietaryExclusions\":\"%s\"}",
+                        (Object[]) user);
+                request = request("/api/user/save")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+            case USER -> {
+                name = "get-user";
+                request = request("/api/user/" + userId).build();
+            }
+            case PLAN -> {
+                // The first plan read of a user generates and stores the plan
+                name = withPlan.contains(userId) ? "diet-plan-read" : "diet-plan-generate";
+                request = request("/api/user/" + userId + "/diet-plan").build();
+            }
+            case DELETE -> {
+                name = "delete";
+                request = request("/api/user/" + userId).DELETE().build();
+            }
+            default -> throw new IllegalStateException("Unknown action " + action);
+        }
+
+        String status;
+        boolean error;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            status = Integer.toString(response.statusCode());
+            error = response.statusCode() >= 400;
+            if (!error) {
+                if (action == Action.SAVE) {
+                    JsonNode saved = JSON.readTree(response.body());
+                    pool.add(UUID.fromString(saved.get("userId").asString()));
+                } else if (action == Action.PLAN) {
+                    withPlan.add(userId);
+                }
+            }
+        } catch (Exception e) {
+            status = e.getClass().getSimpleName();
+            error = true;
+        }
+        if (recording) {
+            operations.computeIfAbsent(name, key -> new Operation()).record(System.nanoTime() - intendedStart, status, error);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    /**
+     * A new user's CSV/JSON fields, in the order of the import header.
+     */
+    private String[] newUser() {
+        long n = emails.incrementAndGet();
+        UserFields fields = new UserFields(config.seed() * 1_000_003 + n);
+        double currWeight = fields.between(50, 120);
+        return new String[]{
+                "Load User " + n,
+                "load-" + n + "@example.com",
+                Integer.toString((int) fields.between(18, 70)),
+                GENDERS[fields.index(GENDERS.length)],
+                Integer.toString((int) fields.between(150, 195)),
+                Integer.toString((int) currWeight),
+                Integer.toString((int) (currWeight + fields.between(-15, 10))),
+                Integer.toString((int) fields.between(30, 365)),
+                EXCLUSIONS[fields.index(EXCLUSIONS.length)]};
+    }
+
+    /**
+     * Per-user random source, so a user's fields depend only on the seed and its sequence number.
+     */
+    private static final class UserFields {
+        private final Random random;
+
+        UserFields(long seed) {
+            this.random = new Random(seed);
+        }
+
+        double between(double min, double max) {
+            return min + random.nextDouble() * (max - min);
+        }
+
+        int index(int length) {
+            return random.nextInt(length);
+        }
+    }
+
+    /**
+     * Ids of the users that currently exist, with O(1) random pick and removal.
+     */
+    private static final class UserPool {
+        private final List<UUID> ids = new ArrayList<>();
+
+        synchronized void add(UUID id) {
+            ids.add(id);
+        }
+
+        synchronized int size() {
+            return ids.size();
+        }
+
+        synchronized UUID random(Random random) {
+            return ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+        }
+
+        synchronized UUID takeRandom(Random random) {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            int index = random.nextInt(ids.size());
+            UUID id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return id;
+        }
+    }
+
+    private static void print(LoadResult result) {
+        System.out.printf("%n%-20s %8s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms");
+        result.operations().forEach((name, op) -> System.out.printf("%-20s %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, op.count(), op.errors(), op.throughput(), op.latencyMs().p50(), op.latencyMs().p95(),
+                op.latencyMs().p99(), op.latencyMs().p999()));
+        System.out.printf("%-20s %8d %8d %9.1f%n", "total", result.requests(), result.errors(), result.throughput());
+    }
+}
@@ -0,0 +1,81 @@
+package com.project.backend.benchmarks;
+
+import com.project.backend.model.DietPlanResponse;
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.UserSummary;
+import com.project.backend.services.PayloadFormat;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode time of the API payloads per wire format (PayloadFormat), with and without the gzip
+ * step that server.compression adds for large enough responses. The encoded and gzipped sizes
+ * are printed once per trial ("payload size: ...").
+ *
+ * DIET_PLAN is the body of GET /api/user/{id}/diet-plan (the DietPlanResponse as DietPlanDto),
+ * USER_SUMMARY the body of GET /api/user/{id}; DIET_PLAN_RESPONSE and USER_INFO are the entities
+ * as the API used to send them, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadEncodingBenchmark {
+
+    public enum Payload { DIET_PLAN, DIET_PLAN_RESPONSE, USER_SUMMARY, USER_INFO }
+
+    @Param({"DIET_PLAN", "DIET_PLAN_RESPONSE", "USER_SUMMARY", "USER_INFO"})
+    public Payload payload;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public PayloadFormat format;
+
+    private ObjectMapper mapper;
+    private Object value;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case JSON -> JsonMapper.builder().build();
+            case CBOR -> CBORMapper.builder().build();
+            case SMILE -> SmileMapper.builder().build();
+        };
+        UserInfo user = BenchmarkFixtures.user("payload@example.com");
+        user.setUserId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        user.setDietaryExclusions("VEGETARIAN");
+        DietPlanResponse dietPlan = BenchmarkFixtures.savedDietPlan(user);
+        value = switch (payload) {
+            case DIET_PLAN -> BenchmarkFixtures.dietPlanDto(dietPlan);
+            case DIET_PLAN_RESPONSE -> dietPlan;
+            case USER_SUMMARY -> UserSummary.from(user);
+            case USER_INFO -> user;
+        };
+        System.out.printf("%npayload size: %s %s %d bytes, %d gzipped%n",
+                payload, format, encode().length, encodeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public byte[] encodeGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(mapper.writeValueAsBytes(value));
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+package com.project.backend.benchmarks;
+
+import com.project.backend.model.ExercisePlan;
+import com.project.backend.model.NutritionPlan;
+import com.project.backend.model.UserInfo;
+import com.project.backend.planning.ComputedPlan;
+import com.project.backend.repositories.ExercisePlanRepository;
+import com.project.backend.repositories.NutritionPlanRepository;
+import com.project.backend.repositories.UserInfoRepository;
+import com.project.backend.services.PlanEntityMapper;
+import com.project.backend.services.PlanTemplateStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end repository paths (Hibernate + JDBC) against an embedded H2 database:
+ * saving a plan pair and loading the latest plan pair of a user.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlanRepositoryBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private ExercisePlanRepository exercisePlanRepository;
+    private NutritionPlanRepository nutritionPlanRepository;
+    private PlanTemplateStore planTemplateStore;
+    private UserInfo user;
+    private ComputedPlan plan;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("plan_repository_benchmark");
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        exercisePlanRepository = context.getBean(ExercisePlanRepository.class);
+        nutritionPlanRepository = context.getBean(NutritionPlanRepository.class);
+        planTemplateStore = context.getBean(PlanTemplateStore.class);
+
+        user = context.getBean(UserInfoRepository.class).save(BenchmarkFixtures.user("repository@example.com"));
+        plan = PlanEntityMapper.computePlan(user);
+        savePlanPair();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public NutritionPlan savePlanPair() {
+        return transactionTemplate.execute(status -> {
+            exercisePlanRepository.save(PlanEntityMapper.toExercisePlan(user, plan,
+                    planTemplateStore.exerciseTemplate(plan.goal(), plan.exercises())));
+            return nutritionPlanRepository.save(PlanEntityMapper.toNutritionPlan(user, plan,
+                    planTemplateStore.mealTemplate(plan.meals())));
+        });
+    }
+
+    @Benchmark
+    public Object loadLatestPlanPair() {
+        return transactionTemplate.execute(status -> {
+            List<ExercisePlan> exercisePlans = exercisePlanRepository.findLatestByUserId(user.getUserId());
+            Optional<NutritionPlan> nutritionPlan = nutritionPlanRepository
+                    .findFirstByUser_UserIdOrderByCreatedAtDesc(user.getUserId());
+            return nutritionPlan.isPresent() ? exercisePlans : null;
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.project.backend.benchmarks;
+
+import com.project.backend.model.Uuids;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched primary-key inserts into a table that keeps growing during the trial:
+ * random UUID strings (the old user_info.user_id) against time-ordered UUIDv7 BINARY(16).
+ * H2 uses its own B-tree rather than InnoDB's clustered index, so only the relative
+ * difference is meaningful; confirm absolute numbers against MySQL.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserIdInsertBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"random_varchar", "v7_binary"})
+    public String keyType;
+
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:user_id_insert_" + keyType + ";MODE=MySQL");
+        String keyColumn = keyType.equals("v7_binary") ? "BINARY(16)" : "VARCHAR(36)";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE user_key (user_id " + keyColumn + " PRIMARY KEY, name VARCHAR(255))");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("INSERT INTO user_key (user_id, name) VALUES (?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        insert.close();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            if (keyType.equals("v7_binary")) {
+                insert.setBytes(1, Uuids.toBytes(Uuids.v7()));
+            } else {
+                insert.setString(1, UUID.randomUUID().toString());
+            }
+            insert.setString(2, "user");
+            insert.addBatch();
+        }
+        int[] counts = insert.executeBatch();
+        connection.commit();
+        return counts;
+    }
+}
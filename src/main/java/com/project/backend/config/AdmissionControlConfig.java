@@ -0,0 +1,43 @@
+package com.project.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Registers the AdmissionControlFilter for the REST API.
+ * By default the concurrency limit equals the Hikari pool size, so every admitted request
+ * can get a connection without waiting inside the pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(
+            @Value("${app.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${app.admission.queue-timeout:5s}") Duration queueTimeout,
+            MeterRegistry meterRegistry) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(maxConcurrent, queueTimeout);
+        Gauge.builder("http.server.admission.in.flight", filter, AdmissionControlFilter::inFlight)
+                .register(meterRegistry);
+        Gauge.builder("http.server.admission.queued", filter, AdmissionControlFilter::queued)
+                .register(meterRegistry);
+        return filter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+            AdmissionControlFilter admissionControlFilter) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(admissionControlFilter);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,83 @@
+package com.project.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Splits database traffic between the primary and a read replica when
+ * app.datasource.replica.jdbc-url is set (otherwise Spring Boot's single pool is used).
+ * 
+ * Read-only transactions (Spring Data's query methods, the readOnlyTransactionTemplate) run on
+ * the replica pool, everything else on the primary. The application DataSource is a
+ * LazyConnectionDataSourceProxy: it only fetches a physical connection at the first statement,
+ * when the transaction's read-only flag is known, and picks the pool from that flag.
+ * ReplicaRouting.onPrimary sends read-only transactions to the primary for read-your-writes.
+ * 
+ * The primary pool is configured through spring.datasource.*, the replica pool through
+ * app.datasource.replica.* (Hikari property names, e.g. jdbc-url, username, maximum-pool-size).
+ * Ignored when sharding is configured (ShardingDataSourceConfig).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.jdbc-url")
+@Conditional(ShardingDataSourceConfig.NotSharded.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        ReadOnlyRoutingDataSource readOnlyDataSource = new ReadOnlyRoutingDataSource(primaryDataSource, replicaDataSource);
+        readOnlyDataSource.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        return dataSource;
+    }
+
+    /**
+     * The pool for read-only transactions: the replica, unless the thread is pinned to the primary.
+     */
+    private static final class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+        private static final String PRIMARY = "primary";
+        private static final String REPLICA = "replica";
+
+        ReadOnlyRoutingDataSource(DataSource primary, DataSource replica) {
+            setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+            setDefaultTargetDataSource(replica);
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return ReplicaRouting.isPinnedToPrimary() ? PRIMARY : REPLICA;
+        }
+    }
+}
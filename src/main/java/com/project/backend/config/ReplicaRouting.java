@@ -0,0 +1,40 @@
+package com.project.backend.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override of the read-only routing set up by DataSourceRoutingConfig.
+ * Read-only transactions normally use the replica pool; inside onPrimary they use the
+ * primary, e.g. to read a user's own write before the replica has applied it.
+ * Without a configured replica every transaction uses the single pool and this has no effect.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    /**
+     * Runs the action with read-only transactions routed to the primary. The routing is decided
+     * when a transaction first uses its connection, so the transaction must start inside the action.
+     *
+     * @param action The reads to run
+     * @return The action's result
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (isPinnedToPrimary()) {
+            return action.get();
+        }
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PINNED_TO_PRIMARY.remove();
+        }
+    }
+
+    static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+}
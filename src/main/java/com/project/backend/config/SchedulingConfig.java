@@ -0,0 +1,13 @@
+package com.project.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background tasks (e.g. PlanHistoryCompactor). The scheduler's pool size
+ * (spring.task.scheduling.pool.size) gives each task its own thread.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,39 @@
+package com.project.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * The connection pools of the shards (app.sharding.shards[i]), in shard index order.
+ * Closed with the application context.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> pools;
+
+    ShardDataSources(List<HikariDataSource> pools) {
+        this.pools = List.copyOf(pools);
+    }
+
+    /**
+     * @return Number of configured shards
+     */
+    public int count() {
+        return pools.size();
+    }
+
+    /**
+     * @param shard The shard index
+     * @return The shard's pool
+     */
+    public DataSource get(int shard) {
+        return pools.get(shard);
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.backend.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread choice of the shard used by the application DataSource when sharding is
+ * configured (see ShardingDataSourceConfig). Without sharding there is a single database
+ * and this has no effect.
+ *
+ * Services do not call this directly but go through ShardRouter, which picks the shard
+ * of a user.
+ */
+public final class ShardRouting {
+
+    /**
+     * The shard used outside onShard. It also holds the data that is not per user
+     * (e.g. the shard rebalancing checkpoints).
+     */
+    public static final int DEFAULT_SHARD = 0;
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardRouting() {
+    }
+
+    /**
+     * Runs the action against one shard. The shard is picked when a transaction (or a JDBC
+     * call outside one) takes its connection, so a transaction must start inside the action;
+     * one already running keeps its connection. To write to another shard from within a
+     * transaction, start a new one (PROPAGATION_REQUIRES_NEW) inside the action.
+     *
+     * @param shard  The shard index
+     * @param action The statements to run
+     * @return The action's result
+     */
+    public static <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = SHARD.get();
+        if (previous != null && previous == shard) {
+            return action.get();
+        }
+        SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return The shard of the calling thread, DEFAULT_SHARD outside onShard
+     */
+    public static int currentShard() {
+        Integer shard = SHARD.get();
+        return shard == null ? DEFAULT_SHARD : shard;
+    }
+}
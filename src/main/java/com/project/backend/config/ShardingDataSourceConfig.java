@@ -0,0 +1,129 @@
+package com.project.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads the per-user tables over several databases ("shards") when
+ * app.sharding.shards[0].jdbc-url is set (otherwise Spring Boot's single pool is used).
+ *
+ * Every shard has the full schema. The application DataSource routes each connection to the
+ * shard chosen by ShardRouting for the calling thread, so JPA repositories, JdbcTemplate and
+ * transactions work unchanged; ShardRouter picks a user's shard by consistent hashing of the
+ * userId and fans queries over all users out to every shard.
+ *
+ * Flyway migrates every shard (Hibernate's ddl-auto would only reach the default shard), so
+ * spring.flyway.enabled must be true. Each shard's sequence tables start at its own id range
+ * (placeholder id-range-start), so plan and exercise set ids stay unique across shards and
+ * a user's rows keep their ids when ShardRebalancer moves them to another shard.
+ *
+ * Each pool is configured through app.sharding.shards[i].* (Hikari property names, e.g.
+ * jdbc-url, username, maximum-pool-size). A read replica (DataSourceRoutingConfig) is not
+ * used together with sharding.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.shards[0].jdbc-url")
+public class ShardingDataSourceConfig {
+
+    /**
+     * Size of each shard's id range: shard i hands out ids from i * ID_RANGE + 1.
+     */
+    public static final long ID_RANGE = 1_000_000_000_000_000L;
+
+    static final String ID_RANGE_START_PLACEHOLDER = "id-range-start";
+
+    @Bean
+    public ShardDataSources shardDataSources(Environment environment,
+                                             @Value("${spring.flyway.enabled:true}") boolean flywayEnabled) {
+        if (!flywayEnabled) {
+            throw new IllegalStateException("Sharding needs spring.flyway.enabled=true: "
+                    + "Flyway creates the schema on every shard, ddl-auto only on the default one");
+        }
+        List<HikariDataSource> pools = Binder.get(environment)
+                .bind("app.sharding.shards", Bindable.listOf(HikariDataSource.class))
+                .get();
+        for (int shard = 0; shard < pools.size(); shard++) {
+            pools.get(shard).setPoolName("shard-" + shard);
+        }
+        return new ShardDataSources(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource(shardDataSources);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    /**
+     * Runs the migrations (configured through spring.flyway.*) on every shard instead of
+     * only on the application DataSource.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardDataSources shardDataSources) {
+        return flyway -> {
+            for (int shard = 0; shard < shardDataSources.count(); shard++) {
+                Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put(ID_RANGE_START_PLACEHOLDER, Long.toString(shard * ID_RANGE + 1));
+                Flyway.configure(flyway.getConfiguration().getClassLoader())
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardDataSources.get(shard))
+                        .placeholders(placeholders)
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+
+    /**
+     * The pool of the shard selected by ShardRouting; an unknown shard index is an error.
+     */
+    private static final class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+        ShardRoutingDataSource(ShardDataSources shardDataSources) {
+            Map<Object, Object> targets = new HashMap<>();
+            for (int shard = 0; shard < shardDataSources.count(); shard++) {
+                targets.put(shard, shardDataSources.get(shard));
+            }
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(shardDataSources.get(ShardRouting.DEFAULT_SHARD));
+            setLenientFallback(false);
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return ShardRouting.currentShard();
+        }
+    }
+
+    /**
+     * Matches when sharding is not configured; guards the single-database DataSource setups.
+     */
+    static class NotSharded extends NoneNestedConditions {
+
+        NotSharded() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(name = "app.sharding.shards[0].jdbc-url")
+        static class Sharded {
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.project.backend.controllers;
+
+import com.project.backend.model.CacheStatistics;
+import com.project.backend.model.ExportResult;
+import com.project.backend.model.JobProgress;
+import com.project.backend.model.PlanCompactionResult;
+import com.project.backend.services.DietPlanCache;
+import com.project.backend.services.PlanHistoryCompactor;
+import com.project.backend.services.PlanRegenerationJob;
+import com.project.backend.services.ShardRebalancer;
+import com.project.backend.services.UserPlanExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * REST Controller for operational endpoints (caches, background jobs).
+ * All endpoints are prefixed with "/api/admin"
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private DietPlanCache dietPlanCache;
+
+    @Autowired
+    private PlanRegenerationJob planRegenerationJob;
+
+    @Autowired
+    private PlanHistoryCompactor planHistoryCompactor;
+
+    @Autowired
+    private UserPlanExportService userPlanExportService;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    /**
+     * Returns the hit, miss and eviction counters of the diet-plan cache.
+     * 
+     * @return ResponseEntity containing the cache statistics
+     */
+    @GetMapping("/cache/diet-plan")
+    public ResponseEntity<CacheStatistics> getDietPlanCacheStatistics() {
+        return ResponseEntity.ok(dietPlanCache.statistics());
+    }
+
+    /**
+     * Empties the diet-plan cache.
+     * 
+     * @return ResponseEntity with no content (204 status)
+     */
+    @DeleteMapping("/cache/diet-plan")
+    public ResponseEntity<Void> clearDietPlanCache() {
+        dietPlanCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Starts regenerating the diet plan of every user in the background.
+     * Does nothing but report progress if a run is already in progress.
+     * 
+     * @param resume true (default) to continue an interrupted run after its last completed chunk
+     *               (a finished run is started over), false to start over
+     * @return ResponseEntity (202 status) containing the job progress
+     */
+    @PostMapping("/jobs/plan-regeneration")
+    public ResponseEntity<JobProgress> startPlanRegeneration(@RequestParam(defaultValue = "true") boolean resume) {
+        return ResponseEntity.accepted().body(planRegenerationJob.start(resume));
+    }
+
+    /**
+     * Returns progress and throughput of the current (or last) plan regeneration run.
+     * 
+     * @return ResponseEntity containing the job progress
+     */
+    @GetMapping("/jobs/plan-regeneration")
+    public ResponseEntity<JobProgress> getPlanRegenerationProgress() {
+        return ResponseEntity.ok(planRegenerationJob.progress());
+    }
+
+    /**
+     * Runs a plan history compaction pass now (it also runs on a schedule) and waits for it.
+     * 
+     * @return ResponseEntity containing the deleted plan counts, or 409 status if a pass is
+     *         already running or no retention rule is configured
+     */
+    @PostMapping("/jobs/plan-history-compaction")
+    public ResponseEntity<PlanCompactionResult> compactPlanHistory() {
+        PlanCompactionResult result = planHistoryCompactor.compact();
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Starts moving users to the shards added beyond app.sharding.active-shards, in the
+     * background. Does nothing but report progress if a run is already in progress.
+     * 
+     * @return ResponseEntity (202 status) containing the job progress, or 409 status if no
+     *         shards were added
+     */
+    @PostMapping("/jobs/shard-rebalance")
+    public ResponseEntity<JobProgress> startShardRebalance() {
+        JobProgress progress = shardRebalancer.start();
+        if (progress == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().body(progress);
+    }
+
+    /**
+     * Returns progress and throughput of the current (or last) shard rebalance run.
+     * 
+     * @return ResponseEntity containing the job progress
+     */
+    @GetMapping("/jobs/shard-rebalance")
+    public ResponseEntity<JobProgress> getShardRebalanceProgress() {
+        return ResponseEntity.ok(shardRebalancer.progress());
+    }
+
+    /**
+     * Streams every user with its current exercise and nutrition plan as gzip-compressed
+     * newline-delimited JSON (one user per line), for analytics.
+     * 
+     * @return ResponseEntity whose body is written while users are read from the database
+     */
+    @GetMapping(value = "/exports/user-plans", produces = "application/gzip")
+    public ResponseEntity<StreamingResponseBody> streamUserPlanExport() {
+        StreamingResponseBody body = out -> userPlanExportService.export(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("user-plans.ndjson.gz").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Writes the same export to a file in app.export.directory on the server.
+     * 
+     * @return ResponseEntity containing the file name, row count and size
+     * @throws IOException if the file cannot be written
+     */
+    @PostMapping("/exports/user-plans")
+    public ResponseEntity<ExportResult> exportUserPlans() throws IOException {
+        return ResponseEntity.ok(userPlanExportService.exportToFile());
+    }
+}
@@ -1,13 +1,36 @@
 package com.project.backend.controllers;
 
-import com.project.backend.model.DietPlanResponse;
+import com.project.backend.model.ImportReport;
 import com.project.backend.model.UserInfo;
+import com.project.backend.model.UserSummary;
+import com.project.backend.model.WeighInPeriod;
+import com.project.backend.model.WeighInRequest;
+import com.project.backend.model.WeighInSummary;
+import com.project.backend.services.EncodedDietPlan;
+import com.project.backend.services.PayloadEncoder;
+import com.project.backend.services.PayloadFormat;
+import com.project.backend.services.UserImportService;
+import com.project.backend.services.UserNotFoundException;
 import com.project.backend.services.UserService;
+import com.project.backend.services.WeighInService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * REST Controller for handling user-related API endpoints.
@@ -19,6 +42,15 @@ public class UserController {
     
     @Autowired
     private UserService userService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private WeighInService weighInService;
+
+    @Autowired
+    private PayloadEncoder payloadEncoder;
     
     /**
      * Creates a new user or updates an existing user.
@@ -27,42 +59,106 @@ public class UserController {
      * @return ResponseEntity containing the saved user information
      */
     @PostMapping("/save")
-    public ResponseEntity<UserInfo> saveUser(@RequestBody UserInfo userInfo){
-        return ResponseEntity.ok(userService.saveUser(userInfo));
+    public ResponseEntity<UserSummary> saveUser(@RequestBody UserInfo userInfo){
+        return ResponseEntity.ok(UserSummary.from(userService.saveUser(userInfo)));
+    }
+
+    /**
+     * Imports many users from a partner file in one request.
+     * Accepts CSV (text/csv, header row with UserInfo field names such as
+     * name,email,age,gender,height,currWeight,desiredWeight,targetDays,dietaryExclusions)
+     * or newline-delimited JSON (application/x-ndjson, one UserInfo per line).
+     * The userId of each imported user is assigned by the server; rows that carry one are rejected.
+     * 
+     * @param contentType The Content-Type of the request body
+     * @param body The file contents, read incrementally
+     * @return ResponseEntity containing the import counts and per-row errors
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportReport> importUsers(@RequestHeader("Content-Type") String contentType,
+                                                    InputStream body) throws IOException {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        return ResponseEntity.ok(userImportService.importUsers(body, csv));
     }
 
     /**
      * Retrieves a user by their unique user ID.
      * 
+     * The body is JSON, or CBOR / Smile when the Accept header prefers application/cbor or
+     * application/x-jackson-smile. Responds with an ETag (hash of the body); a request whose
+     * If-None-Match matches it gets 304 Not Modified without the body.
+     * 
      * @param userId The unique identifier of the user
      * @return ResponseEntity containing the user information
-     * @throws RuntimeException if user is not found
+     * @throws UserNotFoundException if user is not found (404)
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<UserInfo> getUser(@PathVariable String userId) {
-        return ResponseEntity.ok(userService.getUser(userId));
+    public ResponseEntity<byte[]> getUser(@PathVariable UUID userId, WebRequest request) {
+        PayloadFormat format = PayloadFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        byte[] user = userService.getEncodedUser(userId, format);
+        String etag = format.etag(DigestUtils.md5DigestAsHex(user));
+        if (request.checkNotModified(etag)) {
+            return null; // 304 and ETag header already set
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.mediaType())
+                .body(user);
     }
 
     /**
-     * Retrieves all users from the database.
+     * Retrieves one page of users, ordered by userId.
+     * When the page is full, the "X-Next-Cursor" response header carries the userId
+     * to pass as "after" to fetch the next page. A limit above app.users.page.max-size
+     * is lowered to it, so a page may hold fewer users than asked for and still have a cursor.
      * 
-     * @return ResponseEntity containing a list of all users
+     * @param after The last userId of the previous page (omit for the first page)
+     * @param limit The maximum number of users to return (at least 1)
+     * @return ResponseEntity containing a page of users
+     * @throws ResponseStatusException (400) if limit is less than 1
      */
     @GetMapping()
-    public ResponseEntity<List<UserInfo>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<UserSummary>> getAllUsers(@RequestParam(required = false) UUID after,
+                                                         @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1");
+        }
+        List<UserSummary> page = userService.getAllUsers(after, limit);
+        if (!page.isEmpty() && page.size() >= userService.pageSize(limit)) {
+            return ResponseEntity.ok()
+                    .header("X-Next-Cursor", page.get(page.size() - 1).getUserId().toString())
+                    .body(page);
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Streams every user as newline-delimited JSON (application/x-ndjson).
+     * Intended for exports and back-office tools that need the full user list.
+     * 
+     * @return ResponseEntity whose body is written while users are read from the database
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = out -> userService.streamAllUsers(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
      * Deletes a user by their unique user ID.
-     * This will also cascade delete all associated exercise plans and nutrition plans.
+     * The user is gone for all reads immediately; its plans and weigh-ins are removed in
+     * the background.
      * 
      * @param userId The unique identifier of the user to be deleted
      * @return ResponseEntity with no content (204 status)
-     * @throws RuntimeException if user is not found
+     * @throws UserNotFoundException if user is not found (404)
      */
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Void> deleteUser(@PathVariable String userId) {
+    public ResponseEntity<Void> deleteUser(@PathVariable UUID userId) {
         userService.deleteUser(userId);
         return ResponseEntity.noContent().build();
     }
@@ -72,11 +168,61 @@ public class UserController {
      * If a diet plan already exists for the user, it returns the existing plan.
      * Otherwise, it creates a new personalized diet plan (exercise and nutrition) based on user's goals.
      * 
+     * The body is the plan's pre-encoded JSON, or CBOR / Smile when the Accept header prefers
+     * application/cbor or application/x-jackson-smile; the ETag identifies the plan version and format;
+     * a request whose If-None-Match matches it gets 304 Not Modified, which for a cached
+     * plan involves neither the database nor the serializer.
+     * 
      * @param userId The unique identifier of the user
      * @return ResponseEntity containing the diet plan (exercise plan and nutrition plan)
      */
     @GetMapping("/{userId}/diet-plan")
-    public ResponseEntity<DietPlanResponse> getDietPlan(@PathVariable String userId) {
-        return ResponseEntity.ok(userService.generateDietPlan(userId));
+    public ResponseEntity<byte[]> getDietPlan(@PathVariable UUID userId, WebRequest request) {
+        PayloadFormat format = PayloadFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        EncodedDietPlan dietPlan = userService.generateDietPlan(userId);
+        String etag = dietPlan.etag(format);
+        if (request.checkNotModified(etag)) {
+            return null; // 304 and ETag header already set
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.mediaType())
+                .body(dietPlan.encoded(format, payloadEncoder));
+    }
+
+    /**
+     * Logs a weigh-in for the user. The entry is written asynchronously in a batch (within
+     * app.weigh-ins.flush-interval); the user's plan is regenerated only if the new weight
+     * moves the goal or the daily calorie target significantly.
+     * 
+     * @param userId The unique identifier of the user
+     * @param request The weight and optionally when it was measured (defaults to now)
+     * @return ResponseEntity with no content (202 status)
+     */
+    @PostMapping("/{userId}/weigh-ins")
+    public ResponseEntity<Void> logWeighIn(@PathVariable UUID userId, @Valid @RequestBody WeighInRequest request) {
+        weighInService.record(userId, request);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Returns the user's weigh-ins aggregated per day or per week (count, average, min, max, latest).
+     * 
+     * @param userId The unique identifier of the user
+     * @param period DAY (default) or WEEK
+     * @param from Earliest date to include (defaults to 90 days before to)
+     * @param to Latest date to include (defaults to today)
+     * @return ResponseEntity containing the aggregates in chronological order
+     */
+    @GetMapping("/{userId}/weigh-ins")
+    public ResponseEntity<List<WeighInSummary>> getWeighIns(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "DAY") WeighInPeriod period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(90);
+        return ResponseEntity.ok(weighInService.getSummaries(userId, period, start, end));
     }
 }
@@ -0,0 +1,42 @@
+package com.project.backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Timers for the phases of diet-plan generation ("diet.plan.phase", tagged by phase),
+ * published with percentile histograms so p99 regressions of a single phase are visible.
+ */
+@Component
+public class DietPlanMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> phaseTimers = new ConcurrentHashMap<>();
+
+    public DietPlanMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the work and records its duration under the given phase.
+     *
+     * @param phase e.g. "user_lookup", "existing_plan_lookup", "computation", "save"
+     * @param work  The work to time
+     * @return The result of the work
+     */
+    public <T> T recordPhase(String phase, Supplier<T> work) {
+        return phaseTimers.computeIfAbsent(phase, this::phaseTimer).record(work);
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder("diet.plan.phase")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.project.backend.metrics;
+
+import jakarta.persistence.PostLoad;
+
+/**
+ * JPA entity listener counting entities loaded from the database on the current thread.
+ * Attached to the entities with @EntityListeners.
+ */
+public class EntityLoadCounter {
+
+    @PostLoad
+    public void onLoad(Object entity) {
+        RequestQueryStats.entityLoaded();
+    }
+}
@@ -0,0 +1,68 @@
+package com.project.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Publishes the per-request SQL statement and loaded-entity counts as distribution summaries
+ * ("http.server.requests.sql.statements" / "http.server.requests.entities.loaded"),
+ * tagged with the matched URI pattern, e.g. /api/user/{userId}/diet-plan.
+ * 
+ * The counters are kept in a request attribute, so a request that continues asynchronously
+ * (StreamingResponseBody) is published once, with the statements of its async part, when
+ * its async dispatch completes.
+ */
+public class QueryStatsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COUNTERS = QueryStatsInterceptor.class.getName() + ".counters";
+
+    private final MeterRegistry meterRegistry;
+
+    public QueryStatsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+                && request.getAttribute(COUNTERS) instanceof RequestQueryStats.Counters counters) {
+            RequestQueryStats.attach(counters);
+        } else {
+            request.setAttribute(COUNTERS, RequestQueryStats.start());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // The request goes on elsewhere (its tasks carry the counters); this thread serves other requests now
+        RequestQueryStats.detach();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestQueryStats.detach();
+        if (!(request.getAttribute(COUNTERS) instanceof RequestQueryStats.Counters counters)) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        summary("http.server.requests.sql.statements", uri).record(counters.statements());
+        summary("http.server.requests.entities.loaded", uri).record(counters.entitiesLoaded());
+    }
+
+    private DistributionSummary summary(String name, String uri) {
+        return DistributionSummary.builder(name)
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
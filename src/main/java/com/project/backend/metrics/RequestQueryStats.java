@@ -0,0 +1,134 @@
+package com.project.backend.metrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counters of the SQL statements executed (StatementCountingDataSource) and the entities
+ * loaded for one request, which makes N+1 patterns show up as a high statement count for a
+ * single endpoint. QueryStatsInterceptor starts them for each API request; work the request
+ * hands to other threads (shard fan-out, streaming response bodies) is counted into the same
+ * counters through propagate. Threads that do not work for a request (background jobs,
+ * schedulers) have no counters and are not counted.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<Counters> CURRENT = new ThreadLocal<>();
+
+    private RequestQueryStats() {
+    }
+
+    /**
+     * The counts of one request, possibly updated by several threads.
+     */
+    public static final class Counters {
+
+        private final AtomicInteger statements = new AtomicInteger();
+        private final AtomicInteger entitiesLoaded = new AtomicInteger();
+
+        public int statements() {
+            return statements.get();
+        }
+
+        public int entitiesLoaded() {
+            return entitiesLoaded.get();
+        }
+    }
+
+    /**
+     * Starts counting on the calling thread into new counters.
+     *
+     * @return The new counters
+     */
+    public static Counters start() {
+        Counters counters = new Counters();
+        CURRENT.set(counters);
+        return counters;
+    }
+
+    /**
+     * Continues counting on the calling thread into counters started elsewhere.
+     *
+     * @param counters The counters of the request the thread now works for
+     */
+    public static void attach(Counters counters) {
+        CURRENT.set(counters);
+    }
+
+    /**
+     * Stops counting on the calling thread.
+     */
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @param task Work handed to another thread
+     * @return The task, counting into the calling thread's counters (if any) wherever it runs
+     */
+    public static Runnable propagate(Runnable task) {
+        Counters counters = CURRENT.get();
+        if (counters == null) {
+            return task;
+        }
+        return () -> {
+            Counters previous = CURRENT.get();
+            CURRENT.set(counters);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @param task Work handed to another thread
+     * @return The task, counting into the calling thread's counters (if any) wherever it runs
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Counters counters = CURRENT.get();
+        if (counters == null) {
+            return task;
+        }
+        return () -> {
+            Counters previous = CURRENT.get();
+            CURRENT.set(counters);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    static void statementExecuted() {
+        Counters counters = CURRENT.get();
+        if (counters != null) {
+            counters.statements.incrementAndGet();
+        }
+    }
+
+    static void entityLoaded() {
+        Counters counters = CURRENT.get();
+        if (counters != null) {
+            counters.entitiesLoaded.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return Statements executed so far for the calling thread's request (0 outside a request)
+     */
+    public static int statements() {
+        Counters counters = CURRENT.get();
+        return counters == null ? 0 : counters.statements();
+    }
+
+    /**
+     * @return Entities loaded so far for the calling thread's request (0 outside a request)
+     */
+    public static int entitiesLoaded() {
+        Counters counters = CURRENT.get();
+        return counters == null ? 0 : counters.entitiesLoaded();
+    }
+}
@@ -0,0 +1,17 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatistics {
+
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate; // hits / (hits + misses), 1.0 when nothing was requested yet
+}
@@ -0,0 +1,20 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * The goal and daily calorie target of a user's current plan, without loading the plans.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrentPlanTarget {
+
+    private UUID userId;
+    private String goal;
+    private double dailyCaloriesToEat;
+}
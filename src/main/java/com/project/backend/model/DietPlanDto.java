@@ -0,0 +1,31 @@
+package com.project.backend.model;
+
+import com.project.backend.planning.MealTemplate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * API representation of a diet plan. Built from the entities once, so serializing it
+ * never walks Hibernate proxies or lazy collections.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DietPlanDto {
+
+    private ExercisePlanDto exercisePlan;
+    private NutritionPlanDto nutritionPlan;
+
+    /**
+     * @param exerciseSets The sets of the exercise plan's template
+     * @param meals        The food lists of the nutrition plan's template
+     */
+    public static DietPlanDto from(DietPlanResponse dietPlan, List<ExerciseSetDto> exerciseSets, MealTemplate meals) {
+        return new DietPlanDto(
+                ExercisePlanDto.from(dietPlan.getExercisePlan(), exerciseSets),
+                NutritionPlanDto.from(dietPlan.getNutritionPlan(), meals));
+    }
+}
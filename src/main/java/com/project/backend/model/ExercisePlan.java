@@ -1,6 +1,7 @@
 package com.project.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.project.backend.metrics.EntityLoadCounter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,19 +9,21 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
-@Table(name = "exercise_plan")
+@EntityListeners(EntityLoadCounter.class)
+// (user_id, created_at) serves the latest-plan fallback and the history compactor
+@Table(name = "exercise_plan", indexes = @Index(name = "idx_exercise_plan_user_created", columnList = "user_id, created_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "user"})
 public class ExercisePlan {
 
+    // Pooled sequence (a exercise_plan_seq table on MySQL) instead of IDENTITY, so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exercise_plan_seq")
+    @SequenceGenerator(name = "exercise_plan_seq", sequenceName = "exercise_plan_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,8 +37,11 @@ public class ExercisePlan {
     @Column(name = "goal", nullable = false)
     private String goal; // "LOSE_WEIGHT" or "GAIN_WEIGHT" or "MAINTAIN"
 
-    @OneToMany(mappedBy = "exercisePlan", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
-    private List<ExerciseSet> exerciseSets = new ArrayList<>();
+    // Shared exercise sets, addressed by content hash; the plan row only adds the user-specific numbers.
+    // Nullable so ddl-auto can add the column to existing tables (see db/manual/plan-templates.sql)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "template_hash")
+    private ExercisePlanTemplate template;
 
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -0,0 +1,32 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExercisePlanDto {
+
+    private Long id;
+    private double dailyCalorieChange;
+    private String goal;
+    private List<ExerciseSetDto> exerciseSets;
+    private LocalDateTime createdAt;
+
+    /**
+     * @param exerciseSets The sets of the plan's template (shared, immutable)
+     */
+    public static ExercisePlanDto from(ExercisePlan exercisePlan, List<ExerciseSetDto> exerciseSets) {
+        return new ExercisePlanDto(
+                exercisePlan.getId(),
+                exercisePlan.getDailyCalorieChange(),
+                exercisePlan.getGoal(),
+                exerciseSets,
+                exercisePlan.getCreatedAt());
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.backend.model;
+
+import com.project.backend.metrics.EntityLoadCounter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The exercise sets shared by every plan with the same contents, stored once and addressed by
+ * TemplateHashes.exerciseHash. Immutable once written.
+ */
+@Entity
+@EntityListeners(EntityLoadCounter.class)
+@Table(name = "exercise_plan_template")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExercisePlanTemplate {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "goal", nullable = false)
+    private String goal; // the goal the template was created for; informational
+
+    @OneToMany(mappedBy = "template", cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
+    @OrderBy("id")
+    private List<ExerciseSet> exerciseSets = new ArrayList<>();
+}
@@ -1,27 +1,31 @@
 package com.project.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.project.backend.metrics.EntityLoadCounter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@EntityListeners(EntityLoadCounter.class)
 @Table(name = "exercise_set")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "exercisePlan"})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "template"})
 public class ExerciseSet {
 
+    // Pooled sequence (a exercise_set_seq table on MySQL) instead of IDENTITY, so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exercise_set_seq")
+    @SequenceGenerator(name = "exercise_set_seq", sequenceName = "exercise_set_seq", allocationSize = 50)
     private Long id;
 
+    // Sets belong to a shared template, not to a user's plan
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "exercise_plan_id", nullable = false)
-    @JsonIgnoreProperties({"exerciseSets"})
-    private ExercisePlan exercisePlan;
+    @JoinColumn(name = "template_hash", nullable = false)
+    private ExercisePlanTemplate template;
 
     @Column(name = "name", nullable = false)
     private String name; // e.g. "Push Ups"
@@ -34,5 +38,11 @@ public class ExerciseSet {
 
     @Column(name = "sessions_per_week", nullable = false)
     private int sessionsPerWeek; // frequency
+
+    @Column(name = "days", length = 27)
+    private String days; // e.g. "MON,WED,FRI"; null in templates from before weekly schedules
+
+    @Column(name = "calories_per_session")
+    private Integer caloriesPerSession; // expected burn; null in templates from before weekly schedules
 }
 
@@ -0,0 +1,30 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExerciseSetDto {
+
+    private Long id;
+    private String name;
+    private String equipment;
+    private int durationMinutes;
+    private int sessionsPerWeek;
+    private String days;
+    private Integer caloriesPerSession;
+
+    public static ExerciseSetDto from(ExerciseSet exerciseSet) {
+        return new ExerciseSetDto(
+                exerciseSet.getId(),
+                exerciseSet.getName(),
+                exerciseSet.getEquipment(),
+                exerciseSet.getDurationMinutes(),
+                exerciseSet.getSessionsPerWeek(),
+                exerciseSet.getDays(),
+                exerciseSet.getCaloriesPerSession());
+    }
+}
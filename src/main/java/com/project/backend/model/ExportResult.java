@@ -0,0 +1,20 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportResult {
+
+    private String file;
+    private long rows;
+    private long bytes; // compressed size on disk
+    private double rowsPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
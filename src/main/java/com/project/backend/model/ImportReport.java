@@ -0,0 +1,19 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+
+    private long totalRows;
+    private long imported;
+    private long rejected;
+    private double rowsPerSecond;
+    private List<ImportRowError> errors; // capped at app.import.max-reported-errors
+}
@@ -0,0 +1,15 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+
+    private long row; // 1-based data row (the CSV header is not counted)
+    private String email;
+    private String message;
+}
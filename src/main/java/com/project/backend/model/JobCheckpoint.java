@@ -0,0 +1,38 @@
+package com.project.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress marker of a long-running background job, committed together with each chunk
+ * of work so the job can resume after a restart from the last completed key.
+ */
+@Entity
+@Table(name = "job_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "last_key")
+    private String lastKey; // last key fully processed, null = start from the beginning
+
+    @Column(name = "processed", nullable = false)
+    private long processed; // items processed since the job was last started from scratch
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt; // set when the job reached the last key, null while it is unfinished
+}
@@ -0,0 +1,23 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobProgress {
+
+    private String jobName;
+    private boolean running;
+    private long processedThisRun;
+    private long processedTotal; // including runs this one resumed from
+    private String lastKey;
+    private double itemsPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,49 @@
+package com.project.backend.model;
+
+import com.project.backend.metrics.EntityLoadCounter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The food lists shared by every nutrition plan with the same contents, stored once and
+ * addressed by TemplateHashes.mealHash. Immutable once written.
+ */
+@Entity
+@EntityListeners(EntityLoadCounter.class)
+@Table(name = "meal_plan_template")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealPlanTemplate {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    // Stored inline, one food per line (see StringListConverter)
+
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "breakfast_foods", length = 1000)
+    private List<String> breakfastFoods = new ArrayList<>();
+
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "lunch_foods", length = 1000)
+    private List<String> lunchFoods = new ArrayList<>();
+
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "dinner_foods", length = 1000)
+    private List<String> dinnerFoods = new ArrayList<>();
+
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "pre_workout_foods", length = 1000)
+    private List<String> preWorkoutFoods = new ArrayList<>();
+
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "post_workout_foods", length = 1000)
+    private List<String> postWorkoutFoods = new ArrayList<>();
+}
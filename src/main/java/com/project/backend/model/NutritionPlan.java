@@ -1,6 +1,7 @@
 package com.project.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.project.backend.metrics.EntityLoadCounter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,19 +9,21 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
-@Table(name = "nutrition_plan")
+@EntityListeners(EntityLoadCounter.class)
+// (user_id, created_at) serves the latest-plan fallback and the history compactor
+@Table(name = "nutrition_plan", indexes = @Index(name = "idx_nutrition_plan_user_created", columnList = "user_id, created_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "user"})
 public class NutritionPlan {
 
+    // Pooled sequence (a nutrition_plan_seq table on MySQL) instead of IDENTITY, so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "nutrition_plan_seq")
+    @SequenceGenerator(name = "nutrition_plan_seq", sequenceName = "nutrition_plan_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,30 +49,11 @@ public class NutritionPlan {
     @Column(name = "post_workout_calories")
     private Double postWorkoutCalories;
 
-    @ElementCollection
-    @CollectionTable(name = "nutrition_plan_breakfast_foods", joinColumns = @JoinColumn(name = "nutrition_plan_id"))
-    @Column(name = "food")
-    private List<String> breakfastFoods = new ArrayList<>();
-
-    @ElementCollection
-    @CollectionTable(name = "nutrition_plan_lunch_foods", joinColumns = @JoinColumn(name = "nutrition_plan_id"))
-    @Column(name = "food")
-    private List<String> lunchFoods = new ArrayList<>();
-
-    @ElementCollection
-    @CollectionTable(name = "nutrition_plan_dinner_foods", joinColumns = @JoinColumn(name = "nutrition_plan_id"))
-    @Column(name = "food")
-    private List<String> dinnerFoods = new ArrayList<>();
-
-    @ElementCollection
-    @CollectionTable(name = "nutrition_plan_pre_workout_foods", joinColumns = @JoinColumn(name = "nutrition_plan_id"))
-    @Column(name = "food")
-    private List<String> preWorkoutFoods = new ArrayList<>();
-
-    @ElementCollection
-    @CollectionTable(name = "nutrition_plan_post_workout_foods", joinColumns = @JoinColumn(name = "nutrition_plan_id"))
-    @Column(name = "food")
-    private List<String> postWorkoutFoods = new ArrayList<>();
+    // Shared food lists, addressed by content hash; the plan row only adds the user-specific calories.
+    // Nullable so ddl-auto can add the column to existing tables (see db/manual/plan-templates.sql)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "meal_template_hash")
+    private MealPlanTemplate mealTemplate;
 
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -0,0 +1,49 @@
+package com.project.backend.model;
+
+import com.project.backend.planning.MealTemplate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NutritionPlanDto {
+
+    private Long id;
+    private double dailyCaloriesToEat;
+    private double breakfastCalories;
+    private double lunchCalories;
+    private double dinnerCalories;
+    private Double preWorkoutCalories;
+    private Double postWorkoutCalories;
+    private List<String> breakfastFoods;
+    private List<String> lunchFoods;
+    private List<String> dinnerFoods;
+    private List<String> preWorkoutFoods;
+    private List<String> postWorkoutFoods;
+    private LocalDateTime createdAt;
+
+    /**
+     * @param meals The food lists of the plan's template (shared, immutable)
+     */
+    public static NutritionPlanDto from(NutritionPlan nutritionPlan, MealTemplate meals) {
+        return new NutritionPlanDto(
+                nutritionPlan.getId(),
+                nutritionPlan.getDailyCaloriesToEat(),
+                nutritionPlan.getBreakfastCalories(),
+                nutritionPlan.getLunchCalories(),
+                nutritionPlan.getDinnerCalories(),
+                nutritionPlan.getPreWorkoutCalories(),
+                nutritionPlan.getPostWorkoutCalories(),
+                meals.breakfastFoods(),
+                meals.lunchFoods(),
+                meals.dinnerFoods(),
+                meals.preWorkoutFoods(),
+                meals.postWorkoutFoods(),
+                nutritionPlan.getCreatedAt());
+    }
+}
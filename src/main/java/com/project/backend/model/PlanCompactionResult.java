@@ -0,0 +1,19 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanCompactionResult {
+
+    private long usersScanned;
+    private long exercisePlansDeleted;
+    private long nutritionPlansDeleted;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -1,28 +1,42 @@
 package com.project.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.project.backend.metrics.EntityLoadCounter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "user_info")
+@EntityListeners(EntityLoadCounter.class)
+// Deleted users are invisible to every entity load and query; UserReaper removes their rows later
+@SQLRestriction("deleted_at is null")
+@Table(name = "user_info",
+        indexes = @Index(name = "idx_user_info_deleted_at", columnList = "deleted_at"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_info_email", columnNames = "email"))
 @Data
 @DynamicUpdate
 @NoArgsConstructor
 public class UserInfo {
+    // Time-ordered UUID (version 7) stored as BINARY(16); serialized as the usual string form in the API
     @Id
-    private String userId;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "user_id", length = 16)
+    private UUID userId;
     @NotBlank(message = "Name is required")
     @Column(name = "name")
     private String name;
     @Email(message = "Invalid email address")
-    @Column(name = "email", unique = true)  // Ensures email is unique in the database
+    @Column(name = "email")  // unique: uk_user_info_email
     @NotBlank(message = "Email is required")
     private String email;
     @Min(1)
@@ -43,24 +57,43 @@ public class UserInfo {
     @Positive
     @Column(name = "target_days",nullable = false)
     private int targetDays;
+    // Ingredients left out of the user's meals, e.g. "VEGETARIAN, NUTS" (see DietaryTag)
+    @Pattern(regexp = "(?i)\\s*((MEAT|FISH|EGG|DAIRY|GLUTEN|NUTS|SOY|VEGETARIAN|VEGAN)\\s*([,;]\\s*|$))*",
+            message = "Dietary exclusions must be a list of MEAT, FISH, EGG, DAIRY, GLUTEN, NUTS, SOY, VEGETARIAN, VEGAN")
+    @Column(name = "dietary_exclusions", length = 100)
+    private String dietaryExclusions;
     //CascadeType.ALL means that when the user is deleted, all the exercise plans and nutrition plans will be deleted
     //orphanRemoval = true means that when the user is deleted, the exercise plans and nutrition plans will be deleted
     //mappedBy = "user" means that the exercise plans and nutrition plans are mapped by the user
-    //@JsonIgnoreProperties({"user", "exerciseSets"}) means that the user and exercise sets are ignored when the user is serialized
-    //@JsonIgnoreProperties({"user"}) means that the user is ignored when the nutrition plan is serialized
+    //@JsonIgnoreProperties({"user", "template"}) means that the user and the shared exercise template are ignored when the user is serialized
+    //@JsonIgnoreProperties({"user", "mealTemplate"}) means that the user and the shared food lists are ignored when the nutrition plan is serialized
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
-    @JsonIgnoreProperties({"user", "exerciseSets"})
+    @JsonIgnoreProperties({"user", "template"})
     private List<ExercisePlan> exercisePlans = new ArrayList<>();
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
-    @JsonIgnoreProperties({"user"})
+    @JsonIgnoreProperties({"user", "mealTemplate"})
     private List<NutritionPlan> nutritionPlans = new ArrayList<>();
+    // Ids of the user's current (latest) plans, so the diet-plan read is a primary-key lookup instead of
+    // an ORDER BY over the plan history. Plain id columns, not foreign keys, to avoid a user <-> plan cycle.
+    // Written only by UserInfoBatchRepository.updateCurrentPlans/clearCurrentPlans, never by save/merge of a
+    // request body. NULL after a profile change until the plans for the new profile are saved.
+    @JsonIgnore
+    @Column(name = "current_exercise_plan_id", insertable = false, updatable = false)
+    private Long currentExercisePlanId;
+    @JsonIgnore
+    @Column(name = "current_nutrition_plan_id", insertable = false, updatable = false)
+    private Long currentNutritionPlanId;
+    // Set by UserInfoBatchRepository.markDeleted; the row and its plans stay until the reaper removes them
+    @JsonIgnore
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
     //@PrePersist means that the userId is generated before the user is persisted
     //@GeneratedValue(strategy = GenerationType.IDENTITY) means that the userId is generated by the database
    
     @PrePersist
     protected void generateUserId() {
-        if (userId == null || userId.isEmpty()) {
-            userId = UUID.randomUUID().toString();
+        if (userId == null) {
+            userId = Uuids.v7();
         }
     }
 
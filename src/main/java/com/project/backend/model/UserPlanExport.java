@@ -0,0 +1,19 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the user/plan export: a user with its current plan pair.
+ * The plans are null for users that have no plan yet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPlanExport {
+
+    private UserSummary user;
+    private ExercisePlanDto exercisePlan;
+    private NutritionPlanDto nutritionPlan;
+}
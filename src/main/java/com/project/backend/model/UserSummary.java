@@ -0,0 +1,42 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.UUID;
+
+/**
+ * Flat, plan-free view of a user returned by the user endpoints.
+ * Unlike UserInfo it never touches the exercisePlans / nutritionPlans collections,
+ * so it can be serialized without loading anything else from the database.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+
+    private UUID userId;
+    private String name;
+    private String email;
+    private int age;
+    private String gender;
+    private double height;
+    private double currWeight;
+    private double desiredWeight;
+    private int targetDays;
+    private String dietaryExclusions;
+
+    public static UserSummary from(UserInfo user) {
+        return new UserSummary(
+                user.getUserId(),
+                user.getName(),
+                user.getEmail(),
+                user.getAge(),
+                user.getGender(),
+                user.getHeight(),
+                user.getCurrWeight(),
+                user.getDesiredWeight(),
+                user.getTargetDays(),
+                user.getDietaryExclusions());
+    }
+}
@@ -0,0 +1,74 @@
+package com.project.backend.model;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * UUID helpers for primary keys.
+ * 
+ * New ids are version 7 UUIDs (RFC 9562): the first 48 bits are the Unix time in
+ * milliseconds, the rest is random. Stored as BINARY(16) they are inserted in roughly
+ * ascending order, so InnoDB appends to the clustered index instead of splitting pages
+ * at random positions as it does for random (version 4) UUID strings.
+ */
+public final class Uuids {
+
+    /**
+     * The smallest UUID (all zero bytes); used as the keyset cursor before the first page.
+     */
+    public static final UUID MIN = new UUID(0, 0);
+
+    /**
+     * The largest UUID (all one bytes).
+     */
+    public static final UUID MAX = new UUID(-1, -1);
+
+    /**
+     * The order of the BINARY(16) column (unsigned, byte by byte). UUID.compareTo compares the
+     * halves as signed longs, which puts ids with the top bit set before all others.
+     */
+    public static final Comparator<UUID> ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private Uuids() {
+    }
+
+    /**
+     * @return A new time-ordered version 7 UUID
+     */
+    public static UUID v7() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+
+        long millis = System.currentTimeMillis();
+        bytes[0] = (byte) (millis >>> 40);
+        bytes[1] = (byte) (millis >>> 32);
+        bytes[2] = (byte) (millis >>> 24);
+        bytes[3] = (byte) (millis >>> 16);
+        bytes[4] = (byte) (millis >>> 8);
+        bytes[5] = (byte) millis;
+        bytes[6] = (byte) ((bytes[6] & 0x0f) | 0x70); // version 7
+        bytes[8] = (byte) ((bytes[8] & 0x3f) | 0x80); // IETF variant
+        return fromBytes(bytes);
+    }
+
+    /**
+     * @return The 16-byte big-endian form, as stored in BINARY(16) columns
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
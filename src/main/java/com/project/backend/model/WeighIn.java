@@ -0,0 +1,39 @@
+package com.project.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One logged weight of a user. Append-only; rows are written in batches by
+ * WeighInRepository and never updated. Mapped as an entity so the schema is managed
+ * together with the other tables.
+ */
+@Entity
+@Table(name = "weigh_in", indexes = @Index(name = "idx_weigh_in_user_measured", columnList = "user_id, measured_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeighIn {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain column rather than a foreign key; rows of deleted users are removed by UserReaper
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "user_id", length = 16, nullable = false)
+    private UUID userId;
+
+    @Column(name = "weight", nullable = false)
+    private double weight;
+
+    @Column(name = "measured_at", nullable = false)
+    private LocalDateTime measuredAt;
+}
@@ -0,0 +1,71 @@
+package com.project.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Running totals of a user's weigh-ins per day and per (ISO, Monday-based) week.
+ * Maintained incrementally by WeighInRepository.upsertAggregates when weigh-ins are
+ * flushed, so reads never scan the weigh_in table.
+ */
+@Entity
+// Hibernate's DDL orders the key columns by type (period_start first), which serves no lookup; the index
+// matches the reads and upserts, which always fix the user and period type. Migrations key the table this way.
+@Table(name = "weigh_in_aggregate",
+        indexes = @Index(name = "idx_weigh_in_aggregate_user_period", columnList = "user_id, period_type, period_start"))
+@IdClass(WeighInAggregate.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeighInAggregate {
+
+    @Id
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "user_id", length = 16)
+    private UUID userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period_type", length = 8)
+    private WeighInPeriod period;
+
+    @Id
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+
+    @Column(name = "entries", nullable = false)
+    private int entries;
+
+    @Column(name = "weight_sum", nullable = false)
+    private double weightSum;
+
+    @Column(name = "weight_min", nullable = false)
+    private double weightMin;
+
+    @Column(name = "weight_max", nullable = false)
+    private double weightMax;
+
+    @Column(name = "last_weight", nullable = false)
+    private double lastWeight;
+
+    @Column(name = "last_measured_at", nullable = false)
+    private LocalDateTime lastMeasuredAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID userId;
+        private WeighInPeriod period;
+        private LocalDate periodStart;
+    }
+}
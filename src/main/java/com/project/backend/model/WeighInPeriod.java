@@ -0,0 +1,17 @@
+package com.project.backend.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum WeighInPeriod {
+    DAY,
+    WEEK;
+
+    /**
+     * @return The first day of the period that contains the date (weeks start on Monday)
+     */
+    public LocalDate startOf(LocalDate date) {
+        return this == DAY ? date : date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.backend.model;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeighInRequest {
+
+    @Positive
+    private double weight;
+    private LocalDateTime measuredAt; // optional, defaults to now
+}
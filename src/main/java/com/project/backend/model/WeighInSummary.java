@@ -0,0 +1,23 @@
+package com.project.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeighInSummary {
+
+    private WeighInPeriod period;
+    private LocalDate periodStart;
+    private int entries;
+    private double averageWeight;
+    private double minWeight;
+    private double maxWeight;
+    private double lastWeight;
+    private LocalDateTime lastMeasuredAt;
+}
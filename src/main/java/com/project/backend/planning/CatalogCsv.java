@@ -0,0 +1,69 @@
+package com.project.backend.planning;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reader for the bundled catalog files (foods/catalog.csv, exercises/catalog.csv): a header line,
+ * then one record per line with a fixed number of comma-separated columns. Blank lines and lines
+ * starting with '#' are skipped; values are trimmed. Catalog values never contain commas, so no
+ * quoting is supported.
+ */
+final class CatalogCsv {
+
+    private CatalogCsv() {
+    }
+
+    /**
+     * @param in      The CSV content (UTF-8)
+     * @param columns The number of columns every record must have
+     * @return The records, without the header
+     * @throws IllegalArgumentException if a record has a different number of columns
+     */
+    static List<String[]> read(InputStream in, int columns) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            boolean header = true;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                String[] row = line.split(",", -1);
+                if (row.length != columns) {
+                    throw new IllegalArgumentException("Catalog line " + lineNumber + ": expected "
+                            + columns + " columns, found " + row.length);
+                }
+                rows.add(Arrays.stream(row).map(String::trim).toArray(String[]::new));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Reads a catalog bundled on the classpath; a missing or unreadable file is a packaging error.
+     */
+    static List<String[]> readBundled(String resource, int columns) {
+        try (InputStream in = CatalogCsv.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + resource + " on the classpath");
+            }
+            return read(in, columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
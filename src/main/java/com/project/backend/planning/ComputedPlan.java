@@ -0,0 +1,24 @@
+package com.project.backend.planning;
+
+import java.util.List;
+
+/**
+ * Immutable result of DietPlanEngine: the goal, the calorie numbers and the
+ * (shared) exercise and meal templates of a plan. Carries no persistence state.
+ *
+ * @param goal               The detected fitness goal
+ * @param dailyCalorieChange Negative = deficit (lose), positive = surplus (gain)
+ * @param dailyCaloriesToEat BMR plus the daily calorie change plus the exercises' average daily burn,
+ *                           never below 1200
+ */
+public record ComputedPlan(Goal goal,
+                           double dailyCalorieChange,
+                           double dailyCaloriesToEat,
+                           double breakfastCalories,
+                           double lunchCalories,
+                           double dinnerCalories,
+                           double preWorkoutCalories,
+                           double postWorkoutCalories,
+                           List<ExerciseTemplate> exercises,
+                           MealTemplate meals) {
+}
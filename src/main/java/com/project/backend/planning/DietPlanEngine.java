@@ -0,0 +1,143 @@
+package com.project.backend.planning;
+
+import java.util.List;
+
+/**
+ * Stateless diet-plan calculator.
+ * Works on primitive profile values only (no entities, no Hibernate), so it can be
+ * called from the request path as well as from batch recomputation over every user.
+ * The exercises are scheduled from the exercise catalog to burn the daily calorie change
+ * (see ExerciseScheduler); the meals are composed from the food catalog to hit each meal's
+ * calorie target (see MealComposer).
+ * The exercises' expected burn is added to the calories to eat, so the plan's energy balance
+ * is exactly the daily calorie change: the deficit of a weight-loss plan is not counted twice, and
+ * the minimum weekly training of maintain and gain plans does not turn into an unplanned deficit.
+ */
+public final class DietPlanEngine {
+
+    // 1 kg of body weight = approximately 7700 calories
+    private static final double CALORIES_PER_KG = 7700;
+
+    // If the difference between desired and current weight is below this (kg), maintain current weight
+    private static final double MAINTAIN_THRESHOLD_KG = 0.5;
+
+    // Safety limit: minimum 1200 calories per day (below this is unsafe)
+    private static final double MIN_DAILY_CALORIES = 1200;
+
+    // Share of the daily calories per meal time
+    private static final double BREAKFAST_SHARE = 0.25;
+    private static final double LUNCH_SHARE = 0.35; // largest meal
+    private static final double DINNER_SHARE = 0.25;
+    private static final double PRE_WORKOUT_SHARE = 0.075;
+    private static final double POST_WORKOUT_SHARE = 0.075;
+
+    private DietPlanEngine() {
+    }
+
+    /**
+     * Computes a plan from a user's profile.
+     *
+     * @param currWeight    Current weight in kg
+     * @param desiredWeight Desired weight in kg
+     * @param targetDays    Days to reach the desired weight
+     * @param height        Height in cm
+     * @param age           Age in years
+     * @param male          true for the male BMR formula, false for the female one
+     * @return The computed plan
+     */
+    public static ComputedPlan compute(double currWeight, double desiredWeight, int targetDays,
+                                       double height, int age, boolean male) {
+        return compute(currWeight, desiredWeight, targetDays, height, age, male, 0);
+    }
+
+    /**
+     * Computes a plan from a user's profile, leaving the excluded ingredients out of the meals.
+     *
+     * @param excludedTags DietaryTag mask of the ingredients to leave out (0 for none)
+     * @return The computed plan
+     * @see #compute(double, double, int, double, int, boolean)
+     */
+    public static ComputedPlan compute(double currWeight, double desiredWeight, int targetDays,
+                                       double height, int age, boolean male, long excludedTags) {
+        Goal goal = detectGoal(currWeight, desiredWeight);
+        double dailyCalorieChange = dailyCalorieChange(goal, currWeight, desiredWeight, targetDays);
+        List<ExerciseTemplate> exercises = ExerciseScheduler.bundled().schedule(goal, currWeight, dailyCalorieChange);
+
+        // Calculate total daily calories: BMR + calorie change needed for goal + what the exercises burn
+        double dailyCaloriesToEat = Math.max(
+                bmr(currWeight, height, age, male) + dailyCalorieChange + dailyExerciseCalories(exercises),
+                MIN_DAILY_CALORIES);
+
+        double breakfastCalories = dailyCaloriesToEat * BREAKFAST_SHARE;
+        double lunchCalories = dailyCaloriesToEat * LUNCH_SHARE;
+        double dinnerCalories = dailyCaloriesToEat * DINNER_SHARE;
+        double preWorkoutCalories = dailyCaloriesToEat * PRE_WORKOUT_SHARE;
+        double postWorkoutCalories = dailyCaloriesToEat * POST_WORKOUT_SHARE;
+
+        return new ComputedPlan(
+                goal,
+                dailyCalorieChange,
+                dailyCaloriesToEat,
+                breakfastCalories,
+                lunchCalories,
+                dinnerCalories,
+                preWorkoutCalories,
+                postWorkoutCalories,
+                exercises,
+                MealComposer.bundled().composeDay(breakfastCalories, lunchCalories, dinnerCalories,
+                        preWorkoutCalories, postWorkoutCalories, excludedTags));
+    }
+
+    /**
+     * Determines the fitness goal based on the weight difference.
+     *
+     * @param currWeight    Current weight in kg
+     * @param desiredWeight Desired weight in kg
+     * @return MAINTAIN within 0.5 kg, otherwise LOSE_WEIGHT or GAIN_WEIGHT
+     */
+    public static Goal detectGoal(double currWeight, double desiredWeight) {
+        double weightDiff = desiredWeight - currWeight;
+        if (Math.abs(weightDiff) < MAINTAIN_THRESHOLD_KG) {
+            return Goal.MAINTAIN;
+        }
+        return weightDiff < 0 ? Goal.LOSE_WEIGHT : Goal.GAIN_WEIGHT;
+    }
+
+    /**
+     * Calculates the daily calorie change needed to reach the desired weight in the target days.
+     *
+     * @return Negative for a deficit (weight loss), positive for a surplus (weight gain)
+     */
+    public static double dailyCalorieChange(Goal goal, double currWeight, double desiredWeight, int targetDays) {
+        if (targetDays <= 0) {
+            return 0;
+        }
+        // Note: MAINTAIN still carries the (< 0.5 kg) difference as a small surplus, as before
+        double dailyChange = CALORIES_PER_KG * Math.abs(desiredWeight - currWeight) / targetDays;
+        return goal == Goal.LOSE_WEIGHT ? -dailyChange : dailyChange;
+    }
+
+    /**
+     * Calculates the expected burn of a week of exercises, averaged over the days of the week.
+     *
+     * @param exercises The scheduled exercises
+     * @return Calories burned per day on average
+     */
+    public static double dailyExerciseCalories(List<ExerciseTemplate> exercises) {
+        double weekly = 0;
+        for (ExerciseTemplate exercise : exercises) {
+            weekly += (double) exercise.sessionsPerWeek() * exercise.caloriesPerSession();
+        }
+        return weekly / 7;
+    }
+
+    /**
+     * Calculates BMR (Basal Metabolic Rate) using the Mifflin-St Jeor Equation,
+     * i.e. the number of calories the body burns at rest.
+     * Males: (10 × weight in kg) + (6.25 × height in cm) - (5 × age) + 5
+     * Females: (10 × weight in kg) + (6.25 × height in cm) - (5 × age) - 161
+     */
+    public static double bmr(double weight, double height, int age, boolean male) {
+        return (10 * weight) + (6.25 * height) - (5 * age) + (male ? 5 : -161);
+    }
+}
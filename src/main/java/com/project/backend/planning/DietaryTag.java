@@ -0,0 +1,55 @@
+package com.project.backend.planning;
+
+import java.util.Locale;
+
+/**
+ * Ingredients a user can exclude from their meals. Each tag is one bit of a long mask,
+ * which is what FoodCatalog stores per food and MealComposer filters on.
+ */
+public enum DietaryTag {
+    MEAT,
+    FISH,
+    EGG,
+    DAIRY,
+    GLUTEN,
+    NUTS,
+    SOY;
+
+    // Shorthands accepted in a user's exclusion list
+    private static final long VEGETARIAN = MEAT.mask() | FISH.mask();
+    private static final long VEGAN = VEGETARIAN | EGG.mask() | DAIRY.mask();
+
+    /**
+     * @return The bit of this tag
+     */
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Parses a comma- or semicolon-separated list of tags, e.g. "VEGETARIAN, NUTS".
+     * VEGETARIAN stands for MEAT and FISH, VEGAN additionally for EGG and DAIRY.
+     * 
+     * @param exclusions The list; null or blank means no exclusions
+     * @return The combined mask
+     * @throws IllegalArgumentException for an unknown tag
+     */
+    public static long parseMask(String exclusions) {
+        if (exclusions == null || exclusions.isBlank()) {
+            return 0;
+        }
+        long mask = 0;
+        for (String token : exclusions.split("[,;]")) {
+            String name = token.trim().toUpperCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            mask |= switch (name) {
+                case "VEGETARIAN" -> VEGETARIAN;
+                case "VEGAN" -> VEGAN;
+                default -> valueOf(name).mask();
+            };
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,174 @@
+package com.project.backend.planning;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, in-memory index of the exercises ExerciseScheduler can recommend.
+ * 
+ * Like FoodCatalog, exercises are identified by their position (id) and every value lives in a
+ * primitive array. The calories an exercise burns per minute (MET x 3.5 x kg / 200) are
+ * precomputed for every 5 kg weight band, so scheduling does a table lookup instead of any math
+ * on the user's weight, and every user in a band gets the same numbers.
+ */
+public final class ExerciseCatalog {
+
+    private static final String BUNDLED_RESOURCE = "/exercises/catalog.csv";
+    private static final int COLUMNS = 7;
+
+    // Weight bands: [40, 45), [45, 50), ... [160, 165); lighter and heavier users use the outer bands
+    static final double MIN_BAND_KG = 40;
+    static final double BAND_WIDTH_KG = 5;
+    static final int BANDS = 25;
+
+    private static final int KINDS = ExerciseKind.values().length;
+
+    private final String[] names;
+    private final String[] equipment;
+    private final byte[] kinds;
+    private final float[] mets;
+    private final short[] minMinutes;
+    private final short[] maxMinutes;
+
+    // kcal per minute, indexed by band * size() + id
+    private final float[] burnTable;
+
+    // Exercise ids per (goal, kind), indexed by goal.ordinal() * KINDS + kind.ordinal(), ordered by MET
+    private final int[][] candidates;
+
+    private ExerciseCatalog(List<String[]> rows) {
+        int size = rows.size();
+        names = new String[size];
+        equipment = new String[size];
+        kinds = new byte[size];
+        mets = new float[size];
+        minMinutes = new short[size];
+        maxMinutes = new short[size];
+        int[] goalMasks = new int[size];
+
+        for (int id = 0; id < size; id++) {
+            String[] row = rows.get(id);
+            names[id] = row[0];
+            equipment[id] = row[1];
+            kinds[id] = (byte) ExerciseKind.valueOf(row[2]).ordinal();
+            mets[id] = Float.parseFloat(row[3]);
+            for (String code : row[4].split(";")) {
+                goalMasks[id] |= 1 << goalFromCode(code.trim()).ordinal();
+            }
+            minMinutes[id] = Short.parseShort(row[5]);
+            maxMinutes[id] = Short.parseShort(row[6]);
+            if (mets[id] <= 0 || minMinutes[id] <= 0 || minMinutes[id] > maxMinutes[id]) {
+                throw new IllegalArgumentException("Exercise " + names[id] + " has invalid MET or minutes");
+            }
+        }
+
+        burnTable = new float[BANDS * size];
+        for (int band = 0; band < BANDS; band++) {
+            double bandMidKg = MIN_BAND_KG + (band + 0.5) * BAND_WIDTH_KG;
+            for (int id = 0; id < size; id++) {
+                burnTable[band * size + id] = (float) (mets[id] * 3.5 * bandMidKg / 200);
+            }
+        }
+
+        candidates = new int[Goal.values().length * KINDS][];
+        for (Goal goal : Goal.values()) {
+            for (int k = 0; k < KINDS; k++) {
+                int kind = k;
+                candidates[goal.ordinal() * KINDS + k] = IntStream.range(0, size)
+                        .filter(id -> (goalMasks[id] & (1 << goal.ordinal())) != 0 && kinds[id] == kind)
+                        .boxed()
+                        .sorted(Comparator.comparingDouble((Integer id) -> mets[id]).thenComparingInt(id -> id))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+    }
+
+    /**
+     * @return The catalog bundled with the application (exercises/catalog.csv), loaded on first use
+     */
+    public static ExerciseCatalog bundled() {
+        return Bundled.INSTANCE;
+    }
+
+    /**
+     * Reads a catalog in the format of exercises/catalog.csv: one exercise per line as
+     * name,equipment,kind,met,goals,min_minutes,max_minutes with goals (L, G, M) separated by ';'.
+     * 
+     * @param in The CSV content (UTF-8)
+     * @return The catalog
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static ExerciseCatalog read(InputStream in) throws IOException {
+        return new ExerciseCatalog(CatalogCsv.read(in, COLUMNS));
+    }
+
+    /**
+     * @param weightKg Body weight
+     * @return The weight band used for burn lookups
+     */
+    public static int band(double weightKg) {
+        return Math.clamp((long) Math.floor((weightKg - MIN_BAND_KG) / BAND_WIDTH_KG), 0, BANDS - 1);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return The ids of the exercises suited to this goal and kind, ordered from the lightest
+     * (lowest MET) to the most intense. The array is shared; callers must not modify it.
+     */
+    int[] candidates(Goal goal, ExerciseKind kind) {
+        return candidates[goal.ordinal() * KINDS + kind.ordinal()];
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public String equipment(int id) {
+        return equipment[id];
+    }
+
+    public ExerciseKind kind(int id) {
+        return ExerciseKind.values()[kinds[id]];
+    }
+
+    public float met(int id) {
+        return mets[id];
+    }
+
+    public int minMinutes(int id) {
+        return minMinutes[id];
+    }
+
+    public int maxMinutes(int id) {
+        return maxMinutes[id];
+    }
+
+    /**
+     * @param id   The exercise
+     * @param band The weight band (see band(double))
+     * @return Calories burned per minute of the exercise by a user in the band
+     */
+    public float kcalPerMinute(int id, int band) {
+        return burnTable[band * names.length + id];
+    }
+
+    private static Goal goalFromCode(String code) {
+        return switch (code) {
+            case "L" -> Goal.LOSE_WEIGHT;
+            case "G" -> Goal.GAIN_WEIGHT;
+            case "M" -> Goal.MAINTAIN;
+            default -> throw new IllegalArgumentException("Unknown goal code: " + code);
+        };
+    }
+
+    private static final class Bundled {
+        private static final ExerciseCatalog INSTANCE = new ExerciseCatalog(CatalogCsv.readBundled(BUNDLED_RESOURCE, COLUMNS));
+    }
+}
@@ -0,0 +1,21 @@
+package com.project.backend.planning;
+
+/**
+ * The kind of training an exercise is, with how often a week it may be scheduled.
+ * Strength work gets rest days in between, so it is limited to fewer sessions.
+ */
+public enum ExerciseKind {
+    CARDIO(6),
+    STRENGTH(3),
+    FLEXIBILITY(6);
+
+    private final int maxSessionsPerWeek;
+
+    ExerciseKind(int maxSessionsPerWeek) {
+        this.maxSessionsPerWeek = maxSessionsPerWeek;
+    }
+
+    public int maxSessionsPerWeek() {
+        return maxSessionsPerWeek;
+    }
+}
@@ -0,0 +1,171 @@
+package com.project.backend.planning;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a week of training whose expected calorie burn matches a plan's daily calorie change.
+ * 
+ * The weekly burn target (7 x |dailyCalorieChange|, at least 800 kcal and at most 3500 kcal for
+ * LOSE_WEIGHT or 1500 kcal otherwise, since a surplus is meant to build muscle rather than be burned
+ * off) is split over the kinds of training that suit the goal, e.g. mostly cardio for LOSE_WEIGHT
+ * and mostly strength for GAIN_WEIGHT. For each share the scheduler takes the lightest exercise that
+ * can burn it within its session limits, sizes sessions from the catalog's per-weight-band burn
+ * table, and spreads the sessions evenly over Monday to Saturday (Sunday is a rest day) at the
+ * offset that adds them to the least busy days.
+ * 
+ * DietPlanEngine adds the schedule's burn to the calories to eat, so the minimum applies to every
+ * goal as a level of activity without changing the plan's energy balance.
+ * 
+ * Everything works on ExerciseCatalog's primitive arrays, so a schedule takes a few microseconds.
+ * Targets are rounded to 250 kcal and weights to 5 kg bands, so users with similar plans share one
+ * exercise template.
+ */
+public final class ExerciseScheduler {
+
+    // Granularity of the weekly burn targets schedules are built for
+    static final double TARGET_STEP_KCAL = 250;
+
+    // Roughly the recommended 150 minutes of moderate activity a week, and about 500 kcal a day;
+    // the burn is eaten back (see DietPlanEngine), so neither adds to nor replaces the diet's deficit
+    static final double MIN_WEEKLY_KCAL = 800;
+    static final double MAX_WEEKLY_KCAL = 3500;
+    static final double MAX_WEEKLY_KCAL_WITHOUT_DEFICIT = 1500;
+
+    private static final String[] TRAINING_DAYS = {"MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private static final int SESSION_STEP_MINUTES = 5;
+
+    /**
+     * Share of the weekly burn target for one kind of training, spread over that many exercises.
+     */
+    private record Share(ExerciseKind kind, int percent, int exercises) {
+    }
+
+    private static final Share[] LOSE_WEIGHT_SHARES = {
+            new Share(ExerciseKind.CARDIO, 75, 2),
+            new Share(ExerciseKind.STRENGTH, 20, 1),
+            new Share(ExerciseKind.FLEXIBILITY, 5, 1)};
+    private static final Share[] GAIN_WEIGHT_SHARES = {
+            new Share(ExerciseKind.STRENGTH, 75, 2),
+            new Share(ExerciseKind.CARDIO, 15, 1),
+            new Share(ExerciseKind.FLEXIBILITY, 10, 1)};
+    private static final Share[] MAINTAIN_SHARES = {
+            new Share(ExerciseKind.CARDIO, 55, 1),
+            new Share(ExerciseKind.STRENGTH, 30, 1),
+            new Share(ExerciseKind.FLEXIBILITY, 15, 1)};
+
+    private final ExerciseCatalog catalog;
+
+    public ExerciseScheduler(ExerciseCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * @return A scheduler over the bundled exercise catalog
+     */
+    public static ExerciseScheduler bundled() {
+        return Bundled.INSTANCE;
+    }
+
+    /**
+     * @param goal               The plan's goal
+     * @param weightKg           The user's current weight
+     * @param dailyCalorieChange The plan's daily deficit (negative) or surplus (positive)
+     * @return The exercises of the week with their sessions, training days and expected burn
+     */
+    public List<ExerciseTemplate> schedule(Goal goal, double weightKg, double dailyCalorieChange) {
+        double weeklyTarget = Math.clamp(
+                Math.round(7 * Math.abs(dailyCalorieChange) / TARGET_STEP_KCAL) * TARGET_STEP_KCAL,
+                MIN_WEEKLY_KCAL, goal == Goal.LOSE_WEIGHT ? MAX_WEEKLY_KCAL : MAX_WEEKLY_KCAL_WITHOUT_DEFICIT);
+        int band = ExerciseCatalog.band(weightKg);
+        Share[] shares = switch (goal) {
+            case LOSE_WEIGHT -> LOSE_WEIGHT_SHARES;
+            case GAIN_WEIGHT -> GAIN_WEIGHT_SHARES;
+            case MAINTAIN -> MAINTAIN_SHARES;
+        };
+
+        int[] dayMinutes = new int[TRAINING_DAYS.length];
+        List<ExerciseTemplate> exercises = new ArrayList<>(4);
+        for (Share share : shares) {
+            double exerciseTarget = weeklyTarget * share.percent() / 100 / share.exercises();
+            int[] candidates = catalog.candidates(goal, share.kind());
+            int previous = -1;
+            for (int n = 0; n < share.exercises(); n++) {
+                int id = pick(candidates, previous, share.kind(), band, exerciseTarget);
+                if (id < 0) {
+                    break;
+                }
+                exercises.add(plan(id, share.kind(), band, exerciseTarget, dayMinutes));
+                previous = id;
+            }
+        }
+        return List.copyOf(exercises);
+    }
+
+    // The lightest exercise other than the previous pick that can burn the target within its limits,
+    // otherwise the most intense one; -1 when the goal has no (further) exercise of the kind
+    private int pick(int[] candidates, int previous, ExerciseKind kind, int band, double target) {
+        int fallback = -1;
+        for (int id : candidates) {
+            if (id == previous) {
+                continue;
+            }
+            double maxBurn = catalog.maxMinutes(id) * kind.maxSessionsPerWeek() * catalog.kcalPerMinute(id, band);
+            if (maxBurn >= target) {
+                return id;
+            }
+            fallback = id;
+        }
+        return fallback;
+    }
+
+    private ExerciseTemplate plan(int id, ExerciseKind kind, int band, double target, int[] dayMinutes) {
+        float kcalPerMinute = catalog.kcalPerMinute(id, band);
+        double minutes = target / kcalPerMinute;
+        int min = catalog.minMinutes(id);
+        int max = catalog.maxMinutes(id);
+
+        // As few sessions as fit the maximum length, but no session shorter than the minimum
+        int sessions = Math.clamp((long) Math.ceil(minutes / max), 1, kind.maxSessionsPerWeek());
+        if (minutes / sessions < min) {
+            sessions = Math.max(1, (int) (minutes / min));
+        }
+        int duration = Math.clamp(
+                Math.max(SESSION_STEP_MINUTES, Math.round(minutes / sessions / SESSION_STEP_MINUTES) * SESSION_STEP_MINUTES),
+                min, max);
+
+        // Spread the sessions evenly over the week, at the offset whose days have the least training so far
+        int start = 0;
+        int lowestLoad = Integer.MAX_VALUE;
+        for (int offset = 0; offset < dayMinutes.length; offset++) {
+            int load = 0;
+            for (int i = 0; i < sessions; i++) {
+                load += dayMinutes[(offset + i * dayMinutes.length / sessions) % dayMinutes.length];
+            }
+            if (load < lowestLoad) {
+                lowestLoad = load;
+                start = offset;
+            }
+        }
+        boolean[] scheduled = new boolean[dayMinutes.length];
+        for (int i = 0; i < sessions; i++) {
+            int day = (start + i * dayMinutes.length / sessions) % dayMinutes.length;
+            scheduled[day] = true;
+            dayMinutes[day] += duration;
+        }
+        StringBuilder days = new StringBuilder(4 * sessions);
+        for (int day = 0; day < scheduled.length; day++) {
+            if (scheduled[day]) {
+                days.append(days.isEmpty() ? "" : ",").append(TRAINING_DAYS[day]);
+            }
+        }
+
+        return new ExerciseTemplate(catalog.name(id), catalog.equipment(id), duration, sessions,
+                days.toString(), Math.round(duration * kcalPerMinute));
+    }
+
+    private static final class Bundled {
+        private static final ExerciseScheduler INSTANCE = new ExerciseScheduler(ExerciseCatalog.bundled());
+    }
+}
@@ -0,0 +1,22 @@
+package com.project.backend.planning;
+
+/**
+ * One recommended exercise of a plan, independent of any user or database row.
+ *
+ * @param name               e.g. "Push Ups"
+ * @param equipment          e.g. "Bodyweight", "Resistance band"
+ * @param durationMinutes    Minutes per session
+ * @param sessionsPerWeek    Frequency
+ * @param days               Training days, e.g. "MON,WED,FRI"; null for the fixed pre-scheduler templates
+ * @param caloriesPerSession Expected burn of one session; 0 for the fixed pre-scheduler templates
+ */
+public record ExerciseTemplate(String name, String equipment, int durationMinutes, int sessionsPerWeek,
+                               String days, int caloriesPerSession) {
+
+    /**
+     * An exercise without a weekly schedule (see PlanTemplates).
+     */
+    public ExerciseTemplate(String name, String equipment, int durationMinutes, int sessionsPerWeek) {
+        this(name, equipment, durationMinutes, sessionsPerWeek, null, 0);
+    }
+}
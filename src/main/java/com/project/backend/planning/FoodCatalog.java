@@ -0,0 +1,151 @@
+package com.project.backend.planning;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, in-memory index of the foods MealComposer can recommend.
+ * 
+ * Foods are identified by their position (id) in the catalog; every per-food value is kept in
+ * a primitive array indexed by that id, so lookups do no boxing and the whole catalog is a few
+ * kilobytes. For each meal slot and food group the ids of the eligible foods are precomputed,
+ * so composing a meal only scans the handful of candidates for that slot and group.
+ * 
+ * Nutrition values are per serving; the serving is described by servingSize and unit (e.g. 40 g).
+ */
+public final class FoodCatalog {
+
+    private static final String BUNDLED_RESOURCE = "/foods/catalog.csv";
+    private static final int COLUMNS = 10;
+    private static final int GROUPS = FoodGroup.values().length;
+
+    private final String[] names;
+    private final String[] units;
+    private final float[] servingSizes;
+    private final float[] kcal;
+    private final float[] protein;
+    private final float[] carbs;
+    private final float[] fat;
+    private final long[] tagMasks;
+
+    // Food ids per (slot, group), indexed by slot.ordinal() * GROUPS + group.ordinal(), ordered by kcal
+    private final int[][] candidates;
+
+    private FoodCatalog(List<String[]> rows) {
+        int size = rows.size();
+        names = new String[size];
+        units = new String[size];
+        servingSizes = new float[size];
+        kcal = new float[size];
+        protein = new float[size];
+        carbs = new float[size];
+        fat = new float[size];
+        tagMasks = new long[size];
+        int[] slotMasks = new int[size];
+        byte[] groups = new byte[size];
+
+        for (int id = 0; id < size; id++) {
+            String[] row = rows.get(id);
+            names[id] = row[0];
+            for (String code : row[1].split(";")) {
+                slotMasks[id] |= MealSlot.fromCode(code.trim()).mask();
+            }
+            groups[id] = (byte) FoodGroup.valueOf(row[2]).ordinal();
+            servingSizes[id] = Float.parseFloat(row[3]);
+            units[id] = row[4];
+            kcal[id] = Float.parseFloat(row[5]);
+            protein[id] = Float.parseFloat(row[6]);
+            carbs[id] = Float.parseFloat(row[7]);
+            fat[id] = Float.parseFloat(row[8]);
+            tagMasks[id] = DietaryTag.parseMask(row[9]);
+            if (kcal[id] <= 0) {
+                throw new IllegalArgumentException("Food " + names[id] + " must have positive calories");
+            }
+        }
+
+        candidates = new int[MealSlot.values().length * GROUPS][];
+        for (MealSlot slot : MealSlot.values()) {
+            for (int g = 0; g < GROUPS; g++) {
+                int group = g;
+                candidates[slot.ordinal() * GROUPS + g] = IntStream.range(0, size)
+                        .filter(id -> (slotMasks[id] & slot.mask()) != 0 && groups[id] == group)
+                        .boxed()
+                        .sorted(Comparator.comparingDouble((Integer id) -> kcal[id]).thenComparingInt(id -> id))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+    }
+
+    /**
+     * @return The catalog bundled with the application (foods/catalog.csv), loaded on first use
+     */
+    public static FoodCatalog bundled() {
+        return Bundled.INSTANCE;
+    }
+
+    /**
+     * Reads a catalog in the format of foods/catalog.csv: one food per line as
+     * name,slots,group,serving,unit,kcal,protein_g,carbs_g,fat_g,tags with slots and tags separated
+     * by ';' (see CatalogCsv for the general file format).
+     * 
+     * @param in The CSV content (UTF-8)
+     * @return The catalog
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static FoodCatalog read(InputStream in) throws IOException {
+        return new FoodCatalog(CatalogCsv.read(in, COLUMNS));
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return The ids of the foods eligible for this slot and group, ordered by calories per serving.
+     * The array is shared; callers must not modify it.
+     */
+    int[] candidates(MealSlot slot, FoodGroup group) {
+        return candidates[slot.ordinal() * GROUPS + group.ordinal()];
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public String unit(int id) {
+        return units[id];
+    }
+
+    public float servingSize(int id) {
+        return servingSizes[id];
+    }
+
+    public float kcal(int id) {
+        return kcal[id];
+    }
+
+    public float protein(int id) {
+        return protein[id];
+    }
+
+    public float carbs(int id) {
+        return carbs[id];
+    }
+
+    public float fat(int id) {
+        return fat[id];
+    }
+
+    public long tagMask(int id) {
+        return tagMasks[id];
+    }
+
+    // Initialization-on-demand holder: the bundled file is parsed once, on first use
+    private static final class Bundled {
+        private static final FoodCatalog INSTANCE = new FoodCatalog(CatalogCsv.readBundled(BUNDLED_RESOURCE, COLUMNS));
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.backend.planning;
+
+/**
+ * The role a food plays in a meal. MealComposer fills each meal with one food per group.
+ */
+public enum FoodGroup {
+    GRAIN,
+    PROTEIN,
+    DAIRY,
+    VEGETABLE,
+    FRUIT,
+    FAT,
+    DRINK
+}
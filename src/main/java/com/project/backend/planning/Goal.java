@@ -0,0 +1,11 @@
+package com.project.backend.planning;
+
+/**
+ * Fitness goal derived from the difference between desired and current weight.
+ * The names are what ExercisePlan.goal stores.
+ */
+public enum Goal {
+    LOSE_WEIGHT,
+    GAIN_WEIGHT,
+    MAINTAIN
+}
@@ -0,0 +1,191 @@
+package com.project.backend.planning;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks foods from a FoodCatalog so that each meal of a day lands on its calorie target.
+ * 
+ * A meal gets one food per group of its MealSlot: for every group the composer takes the
+ * non-excluded food whose whole number of half servings comes closest to the group's share
+ * of the target, then moves single half servings up or down until the meal total is within
+ * the tolerance (or no step gets closer). All work is on the catalog's primitive arrays and
+ * a few small int arrays, so a full day takes microseconds and the composer can run on the
+ * request path as well as in batch regeneration.
+ * 
+ * Targets are rounded to 25 kcal steps before composing, and ties are broken by catalog order,
+ * so users with similar targets and the same exclusions get the identical (shared) meal template.
+ */
+public final class MealComposer {
+
+    // Granularity of the calorie targets meals are composed for
+    static final double TARGET_STEP_KCAL = 25;
+
+    // A meal is on target when it is within 5% of the target, but never closer than 20 kcal is required
+    static final double TOLERANCE_RATIO = 0.05;
+    static final double MIN_TOLERANCE_KCAL = 20;
+
+    // Portions are whole half servings between half a serving and four servings
+    private static final int MIN_HALF_SERVINGS = 1;
+    private static final int MAX_HALF_SERVINGS = 8;
+
+    // Foods below this (black coffee, tea) are always one serving; more cups would only pad the meal total
+    private static final float NEGLIGIBLE_KCAL = 10;
+
+    private final FoodCatalog catalog;
+
+    public MealComposer(FoodCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * @return A composer over the bundled food catalog
+     */
+    public static MealComposer bundled() {
+        return Bundled.INSTANCE;
+    }
+
+    /**
+     * Composes all meals of a day.
+     * 
+     * @param excludedTags DietaryTag mask of the ingredients to leave out
+     * @return The food lists, one line per food with its portion and calories
+     */
+    public MealTemplate composeDay(double breakfastCalories, double lunchCalories, double dinnerCalories,
+                                   double preWorkoutCalories, double postWorkoutCalories, long excludedTags) {
+        return new MealTemplate(
+                compose(MealSlot.BREAKFAST, breakfastCalories, excludedTags),
+                compose(MealSlot.LUNCH, lunchCalories, excludedTags),
+                compose(MealSlot.DINNER, dinnerCalories, excludedTags),
+                compose(MealSlot.PRE_WORKOUT, preWorkoutCalories, excludedTags),
+                compose(MealSlot.POST_WORKOUT, postWorkoutCalories, excludedTags));
+    }
+
+    /**
+     * Composes a single meal. Groups in which every food is excluded are left out, the
+     * remaining foods still aim at the full target.
+     * 
+     * @param slot           The meal time
+     * @param targetCalories The calories the meal should supply
+     * @param excludedTags   DietaryTag mask of the ingredients to leave out
+     * @return One line per food, e.g. "Oats (60 g) - 225 kcal, 8 g protein"
+     */
+    public List<String> compose(MealSlot slot, double targetCalories, long excludedTags) {
+        double target = Math.max(TARGET_STEP_KCAL, Math.round(targetCalories / TARGET_STEP_KCAL) * TARGET_STEP_KCAL);
+        int groupCount = slot.groupCount();
+        int[] foods = new int[groupCount];
+        int[] halves = new int[groupCount];
+        int chosen = 0;
+
+        int coveredPercent = 0;
+        for (int i = 0; i < groupCount; i++) {
+            coveredPercent += hasCandidate(slot, slot.group(i), excludedTags) ? slot.sharePercent(i) : 0;
+        }
+
+        double total = 0;
+        for (int i = 0; i < groupCount; i++) {
+            foods[i] = -1;
+            if (coveredPercent == 0) {
+                break;
+            }
+            double groupTarget = target * slot.sharePercent(i) / coveredPercent;
+            double bestError = Double.MAX_VALUE;
+            for (int id : catalog.candidates(slot, slot.group(i))) {
+                if ((catalog.tagMask(id) & excludedTags) != 0) {
+                    continue;
+                }
+                int portion = halfServingsFor(groupTarget, catalog.kcal(id));
+                double error = Math.abs(portion * catalog.kcal(id) / 2 - groupTarget);
+                if (error < bestError) {
+                    bestError = error;
+                    foods[i] = id;
+                    halves[i] = portion;
+                }
+            }
+            if (foods[i] >= 0) {
+                total += halves[i] * catalog.kcal(foods[i]) / 2;
+                chosen++;
+            }
+        }
+
+        // Close the remaining gap one half serving at a time, always taking the step that gets closest
+        double tolerance = Math.max(MIN_TOLERANCE_KCAL, target * TOLERANCE_RATIO);
+        while (Math.abs(total - target) > tolerance) {
+            int bestIndex = -1;
+            int bestStep = 0;
+            double bestGap = Math.abs(total - target);
+            for (int i = 0; i < groupCount; i++) {
+                if (foods[i] < 0 || catalog.kcal(foods[i]) < NEGLIGIBLE_KCAL) {
+                    continue;
+                }
+                double half = catalog.kcal(foods[i]) / 2;
+                for (int step = -1; step <= 1; step += 2) {
+                    int portion = halves[i] + step;
+                    double gap = Math.abs(total + step * half - target);
+                    if (portion >= MIN_HALF_SERVINGS && portion <= MAX_HALF_SERVINGS && gap < bestGap) {
+                        bestGap = gap;
+                        bestIndex = i;
+                        bestStep = step;
+                    }
+                }
+            }
+            if (bestIndex < 0) {
+                break;
+            }
+            halves[bestIndex] += bestStep;
+            total += bestStep * catalog.kcal(foods[bestIndex]) / 2;
+        }
+
+        List<String> lines = new ArrayList<>(chosen);
+        for (int i = 0; i < groupCount; i++) {
+            if (foods[i] >= 0) {
+                lines.add(describe(foods[i], halves[i]));
+            }
+        }
+        return List.copyOf(lines);
+    }
+
+    private boolean hasCandidate(MealSlot slot, FoodGroup group, long excludedTags) {
+        for (int id : catalog.candidates(slot, group)) {
+            if ((catalog.tagMask(id) & excludedTags) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int halfServingsFor(double calories, float kcalPerServing) {
+        if (kcalPerServing < NEGLIGIBLE_KCAL) {
+            return 2;
+        }
+        int portion = (int) Math.round(calories * 2 / kcalPerServing);
+        return Math.clamp(portion, MIN_HALF_SERVINGS, MAX_HALF_SERVINGS);
+    }
+
+    private String describe(int id, int halfServings) {
+        StringBuilder line = new StringBuilder(48)
+                .append(catalog.name(id))
+                .append(" (");
+        appendAmount(line, catalog.servingSize(id) * halfServings / 2);
+        return line.append(' ').append(catalog.unit(id))
+                .append(") - ")
+                .append(Math.round(catalog.kcal(id) * halfServings / 2))
+                .append(" kcal, ")
+                .append(Math.round(catalog.protein(id) * halfServings / 2))
+                .append(" g protein")
+                .toString();
+    }
+
+    // Whole amounts without decimals (60 g, 2 pcs), half units with one (1.5 scoop)
+    private static void appendAmount(StringBuilder line, float amount) {
+        long whole = (long) amount;
+        line.append(whole);
+        if (amount != whole) {
+            line.append('.').append(Math.round((amount - whole) * 10));
+        }
+    }
+
+    private static final class Bundled {
+        private static final MealComposer INSTANCE = new MealComposer(FoodCatalog.bundled());
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.backend.planning;
+
+/**
+ * The meal times of a day, with the food groups a meal at that time is built from and the
+ * share of the meal's calories each group should supply (percent, summing to 100).
+ */
+public enum MealSlot {
+    BREAKFAST("B", new FoodGroup[]{FoodGroup.GRAIN, FoodGroup.PROTEIN, FoodGroup.FRUIT}, new int[]{45, 35, 20}),
+    LUNCH("L", new FoodGroup[]{FoodGroup.GRAIN, FoodGroup.PROTEIN, FoodGroup.VEGETABLE, FoodGroup.DAIRY},
+            new int[]{40, 35, 12, 13}),
+    DINNER("D", new FoodGroup[]{FoodGroup.PROTEIN, FoodGroup.GRAIN, FoodGroup.VEGETABLE}, new int[]{45, 35, 20}),
+    PRE_WORKOUT("PRE", new FoodGroup[]{FoodGroup.FRUIT, FoodGroup.DRINK}, new int[]{80, 20}),
+    POST_WORKOUT("POST", new FoodGroup[]{FoodGroup.PROTEIN, FoodGroup.DAIRY}, new int[]{60, 40});
+
+    // Code used in the slots column of foods/catalog.csv
+    private final String code;
+    private final FoodGroup[] groups;
+    private final int[] sharePercents;
+
+    MealSlot(String code, FoodGroup[] groups, int[] sharePercents) {
+        this.code = code;
+        this.groups = groups;
+        this.sharePercents = sharePercents;
+    }
+
+    /**
+     * @return The bit of this slot in FoodCatalog's per-food slot mask
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    int groupCount() {
+        return groups.length;
+    }
+
+    FoodGroup group(int index) {
+        return groups[index];
+    }
+
+    int sharePercent(int index) {
+        return sharePercents[index];
+    }
+
+    static MealSlot fromCode(String code) {
+        for (MealSlot slot : values()) {
+            if (slot.code.equals(code)) {
+                return slot;
+            }
+        }
+        throw new IllegalArgumentException("Unknown meal slot code: " + code);
+    }
+}
@@ -0,0 +1,13 @@
+package com.project.backend.planning;
+
+import java.util.List;
+
+/**
+ * Recommended foods for each meal time of a day. Lists are immutable and shared between plans.
+ */
+public record MealTemplate(List<String> breakfastFoods,
+                           List<String> lunchFoods,
+                           List<String> dinnerFoods,
+                           List<String> preWorkoutFoods,
+                           List<String> postWorkoutFoods) {
+}
@@ -0,0 +1,57 @@
+package com.project.backend.planning;
+
+import java.util.List;
+
+/**
+ * The fixed exercise and meal recommendations of every plan created before plans were
+ * scheduled and composed from the exercise and food catalogs. PlanTemplateStore stores them
+ * at startup so db/manual/plan-templates.sql can point those older plans at them.
+ */
+public final class PlanTemplates {
+
+    // Cardio-focused exercises for weight loss
+    public static final List<ExerciseTemplate> LOSE_WEIGHT_EXERCISES = List.of(
+            new ExerciseTemplate("Brisk Walking", "None", 30, 5),
+            new ExerciseTemplate("Jumping Jacks", "Bodyweight", 15, 4),
+            new ExerciseTemplate("Bodyweight Squats", "Bodyweight", 15, 4),
+            new ExerciseTemplate("Plank", "Mat", 5, 5)
+    );
+
+    // Strength-focused exercises for muscle gain
+    public static final List<ExerciseTemplate> GAIN_WEIGHT_EXERCISES = List.of(
+            new ExerciseTemplate("Push Ups", "Bodyweight", 15, 4),
+            new ExerciseTemplate("Squats", "Bodyweight", 15, 4),
+            new ExerciseTemplate("Resistance Band Rows", "Band", 15, 3),
+            new ExerciseTemplate("Plank", "Mat", 5, 5)
+    );
+
+    // Light exercises for maintaining current weight
+    public static final List<ExerciseTemplate> MAINTAIN_EXERCISES = List.of(
+            new ExerciseTemplate("Walking", "None", 30, 4),
+            new ExerciseTemplate("Stretching", "Mat", 15, 5)
+    );
+
+    // The food lists of every plan created before meals were composed from the food catalog
+    public static final MealTemplate DEFAULT_MEALS = new MealTemplate(
+            List.of("Oats", "Boiled Eggs / Paneer", "Fruit"),
+            List.of("Rice / Roti", "Dal / Chicken", "Vegetables", "Curd"),
+            List.of("Grilled Paneer / Chicken", "Salad"),
+            List.of("Banana", "Black Coffee"),
+            List.of("Protein Shake", "Milk / Boiled Eggs")
+    );
+
+    private PlanTemplates() {
+    }
+
+    /**
+     * @param goal The fitness goal
+     * @return The shared exercise list for the goal
+     */
+    public static List<ExerciseTemplate> exercisesFor(Goal goal) {
+        return switch (goal) {
+            case LOSE_WEIGHT -> LOSE_WEIGHT_EXERCISES;
+            case GAIN_WEIGHT -> GAIN_WEIGHT_EXERCISES;
+            case MAINTAIN -> MAINTAIN_EXERCISES;
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.backend.planning;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Content addresses of plan templates: the SHA-256 (hex) of a canonical text form of the
+ * template. Equal contents always give the same hash, so a template is stored once no matter
+ * how many plans use it, and a changed template gets a new hash instead of altering old plans.
+ */
+public final class TemplateHashes {
+
+    // Bump when the canonical form changes. v1 (no schedule) is kept for the fixed PlanTemplates
+    // exercises, so templates stored before weekly schedules keep their hashes.
+    private static final String EXERCISE_PREFIX = "exercise-template:v1\n";
+    private static final String SCHEDULED_EXERCISE_PREFIX = "exercise-template:v2\n";
+    private static final String MEAL_PREFIX = "meal-template:v1\n";
+
+    private static final char FIELD_SEPARATOR = '\u001f';
+    private static final char RECORD_SEPARATOR = '\u001e';
+
+    private TemplateHashes() {
+    }
+
+    public static String exerciseHash(List<ExerciseTemplate> exercises) {
+        boolean scheduled = exercises.stream().anyMatch(exercise -> exercise.days() != null);
+        StringBuilder canonical = new StringBuilder(scheduled ? SCHEDULED_EXERCISE_PREFIX : EXERCISE_PREFIX);
+        for (ExerciseTemplate exercise : exercises) {
+            canonical.append(exercise.name()).append(FIELD_SEPARATOR)
+                    .append(exercise.equipment()).append(FIELD_SEPARATOR)
+                    .append(exercise.durationMinutes()).append(FIELD_SEPARATOR)
+                    .append(exercise.sessionsPerWeek());
+            if (scheduled) {
+                canonical.append(FIELD_SEPARATOR).append(exercise.days())
+                        .append(FIELD_SEPARATOR).append(exercise.caloriesPerSession());
+            }
+            canonical.append(RECORD_SEPARATOR);
+        }
+        return sha256(canonical.toString());
+    }
+
+    public static String mealHash(MealTemplate meals) {
+        StringBuilder canonical = new StringBuilder(MEAL_PREFIX);
+        for (List<String> foods : List.of(meals.breakfastFoods(), meals.lunchFoods(), meals.dinnerFoods(),
+                meals.preWorkoutFoods(), meals.postWorkoutFoods())) {
+            for (String food : foods) {
+                canonical.append(food).append(FIELD_SEPARATOR);
+            }
+            canonical.append(RECORD_SEPARATOR);
+        }
+        return sha256(canonical.toString());
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
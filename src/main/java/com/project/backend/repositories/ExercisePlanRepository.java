@@ -3,15 +3,31 @@ package com.project.backend.repositories;
 import com.project.backend.model.ExercisePlan;
 import com.project.backend.model.UserInfo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface ExercisePlanRepository extends JpaRepository<ExercisePlan, Long> {
     List<ExercisePlan> findByUser(UserInfo user);
-    List<ExercisePlan> findByUser_UserId(String userId);
-    Optional<ExercisePlan> findFirstByUser_UserIdOrderByCreatedAtDesc(String userId);
+    List<ExercisePlan> findByUser_UserId(UUID userId);
+    Optional<ExercisePlan> findFirstByUser_UserIdOrderByCreatedAtDesc(UUID userId);
+
+    // Latest plan; its exercise sets come from the shared template (PlanTemplateStore).
+    // Returns more than one plan only if several share the latest createdAt; newest id comes first.
+    @Query("select p from ExercisePlan p " +
+            "where p.user.userId = :userId and p.createdAt = " +
+            "(select max(p2.createdAt) from ExercisePlan p2 where p2.user.userId = :userId) " +
+            "order by p.id desc")
+    List<ExercisePlan> findLatestByUserId(@Param("userId") UUID userId);
+
+    // The user's current plan (UserInfo.currentExercisePlanId); primary-key lookups only
+    @Query("select p from ExercisePlan p where p.id = " +
+            "(select u.currentExercisePlanId from UserInfo u where u.userId = :userId)")
+    Optional<ExercisePlan> findCurrentByUserId(@Param("userId") UUID userId);
 }
 
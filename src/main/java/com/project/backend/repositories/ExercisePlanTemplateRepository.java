@@ -0,0 +1,28 @@
+package com.project.backend.repositories;
+
+import com.project.backend.model.ExercisePlanTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ExercisePlanTemplateRepository extends JpaRepository<ExercisePlanTemplate, String> {
+
+    @Query("select t from ExercisePlanTemplate t left join fetch t.exerciseSets where t.hash = :hash")
+    Optional<ExercisePlanTemplate> findWithSetsByHash(@Param("hash") String hash);
+
+    /**
+     * Inserts a template row (without its sets) unless one with the hash exists. Exercises are
+     * scheduled per weight band and calorie target, so two requests can store the same new template
+     * at once; the loser's insert waits for the winner and then becomes a no-op.
+     *
+     * @return 1 if the row was inserted (the caller then stores the sets), 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO exercise_plan_template (hash, goal) VALUES (:hash, :goal)", nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash, @Param("goal") String goal);
+}
@@ -0,0 +1,31 @@
+package com.project.backend.repositories;
+
+import com.project.backend.model.MealPlanTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MealPlanTemplateRepository extends JpaRepository<MealPlanTemplate, String> {
+
+    /**
+     * Inserts a template unless a row with its hash exists. Meals are composed per calorie target,
+     * so two requests can store the same new template at once; the loser's insert is a no-op
+     * instead of a duplicate-key error that would roll back its plan.
+     * Food columns are in StringListConverter format.
+     *
+     * @return 1 if the row was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO meal_plan_template "
+            + "(hash, breakfast_foods, lunch_foods, dinner_foods, pre_workout_foods, post_workout_foods) "
+            + "VALUES (:hash, :breakfast, :lunch, :dinner, :preWorkout, :postWorkout)", nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash,
+                       @Param("breakfast") String breakfastFoods,
+                       @Param("lunch") String lunchFoods,
+                       @Param("dinner") String dinnerFoods,
+                       @Param("preWorkout") String preWorkoutFoods,
+                       @Param("postWorkout") String postWorkoutFoods);
+}
@@ -3,15 +3,23 @@ package com.project.backend.repositories;
 import com.project.backend.model.NutritionPlan;
 import com.project.backend.model.UserInfo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface NutritionPlanRepository extends JpaRepository<NutritionPlan, Long> {
     List<NutritionPlan> findByUser(UserInfo user);
-    List<NutritionPlan> findByUser_UserId(String userId);
-    Optional<NutritionPlan> findFirstByUser_UserIdOrderByCreatedAtDesc(String userId);
+    List<NutritionPlan> findByUser_UserId(UUID userId);
+    Optional<NutritionPlan> findFirstByUser_UserIdOrderByCreatedAtDesc(UUID userId);
+
+    // The user's current plan (UserInfo.currentNutritionPlanId); primary-key lookups only
+    @Query("select p from NutritionPlan p where p.id = " +
+            "(select u.currentNutritionPlanId from UserInfo u where u.userId = :userId)")
+    Optional<NutritionPlan> findCurrentByUserId(@Param("userId") UUID userId);
 }
 
@@ -0,0 +1,144 @@
+package com.project.backend.repositories;
+
+import com.project.backend.model.Uuids;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access used by the plan history compactor and the user reaper: finds
+ * superseded plans (or all plans of deleted users) and deletes them by primary key, so each delete touches a bounded set
+ * of rows and holds its locks only briefly.
+ */
+@Repository
+public class PlanHistoryRepository {
+
+    private static final String SELECT_USER_IDS =
+            "SELECT user_id FROM user_info WHERE user_id > :after AND deleted_at IS NULL ORDER BY user_id LIMIT :limit";
+
+    // Ranks each user's plans newest first (served by the (user_id, created_at) index) and
+    // never returns the plan the user row currently points at, nor the user's newest plan
+    // (the current one while the pointer is NULL: not yet backfilled, or the profile just changed)
+    private static final String SELECT_EXPIRED_PLAN_IDS =
+            "SELECT r.id FROM (" +
+            "SELECT p.id, p.created_at, " +
+            "ROW_NUMBER() OVER (PARTITION BY p.user_id ORDER BY p.created_at DESC, p.id DESC) AS rn " +
+            "FROM %1$s p WHERE p.user_id IN (:userIds)) r " +
+            "WHERE r.rn > 1 AND (r.rn > :keepLast OR r.created_at < :cutoff) " +
+            "AND r.id NOT IN (SELECT u.%2$s FROM user_info u " +
+            "WHERE u.user_id IN (:userIds) AND u.%2$s IS NOT NULL)";
+
+    private static final String SELECT_EXERCISE_PLAN_IDS_OF_USERS =
+            "SELECT id FROM exercise_plan WHERE user_id IN (:userIds) LIMIT :limit";
+
+    private static final String SELECT_NUTRITION_PLAN_IDS_OF_USERS =
+            "SELECT id FROM nutrition_plan WHERE user_id IN (:userIds) LIMIT :limit";
+
+    private static final String DELETE_EXERCISE_PLANS = "DELETE FROM exercise_plan WHERE id IN (:ids)";
+    private static final String DELETE_NUTRITION_PLANS = "DELETE FROM nutrition_plan WHERE id IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the next page of user ids in userId order.
+     *
+     * @param afterUserId Keyset cursor: only ids greater than this one are returned
+     * @param limit       Maximum number of ids
+     * @return The user ids
+     */
+    public List<UUID> findUserIdsAfter(UUID afterUserId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("after", Uuids.toBytes(afterUserId))
+                .addValue("limit", limit);
+        return jdbcTemplate.query(SELECT_USER_IDS, params,
+                (rs, rowNum) -> Uuids.fromBytes(rs.getBytes("user_id")));
+    }
+
+    /**
+     * Finds exercise plans of the given users that fall outside the retention policy.
+     *
+     * @param userIds  The users to look at
+     * @param keepLast Number of newest plans kept per user
+     * @param cutoff   Plans created before this are removed even if among the newest keepLast
+     * @return Ids of plans that can be deleted; never a user's current or newest plan
+     */
+    public List<Long> findExpiredExercisePlanIds(List<UUID> userIds, int keepLast, LocalDateTime cutoff) {
+        return findExpiredPlanIds("exercise_plan", "current_exercise_plan_id", userIds, keepLast, cutoff);
+    }
+
+    /**
+     * Finds nutrition plans of the given users that fall outside the retention policy.
+     *
+     * @param userIds  The users to look at
+     * @param keepLast Number of newest plans kept per user
+     * @param cutoff   Plans created before this are removed even if among the newest keepLast
+     * @return Ids of plans that can be deleted; never a user's current or newest plan
+     */
+    public List<Long> findExpiredNutritionPlanIds(List<UUID> userIds, int keepLast, LocalDateTime cutoff) {
+        return findExpiredPlanIds("nutrition_plan", "current_nutrition_plan_id", userIds, keepLast, cutoff);
+    }
+
+    /**
+     * Returns up to limit exercise plan ids of the given users, whatever their age.
+     *
+     * @param userIds The users
+     * @param limit   Maximum number of ids
+     * @return The plan ids
+     */
+    public List<Long> findExercisePlanIdsOfUsers(List<UUID> userIds, int limit) {
+        return jdbcTemplate.queryForList(SELECT_EXERCISE_PLAN_IDS_OF_USERS, userPlansParams(userIds, limit), Long.class);
+    }
+
+    /**
+     * Returns up to limit nutrition plan ids of the given users, whatever their age.
+     *
+     * @param userIds The users
+     * @param limit   Maximum number of ids
+     * @return The plan ids
+     */
+    public List<Long> findNutritionPlanIdsOfUsers(List<UUID> userIds, int limit) {
+        return jdbcTemplate.queryForList(SELECT_NUTRITION_PLAN_IDS_OF_USERS, userPlansParams(userIds, limit), Long.class);
+    }
+
+    /**
+     * Deletes the exercise plans (their exercise sets belong to shared templates and stay).
+     *
+     * @param ids The exercise plan ids
+     * @return The number of deleted exercise plans
+     */
+    public int deleteExercisePlans(List<Long> ids) {
+        return jdbcTemplate.update(DELETE_EXERCISE_PLANS, new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * Deletes the nutrition plans (their food lists are stored inline).
+     *
+     * @param ids The nutrition plan ids
+     * @return The number of deleted nutrition plans
+     */
+    public int deleteNutritionPlans(List<Long> ids) {
+        return jdbcTemplate.update(DELETE_NUTRITION_PLANS, new MapSqlParameterSource("ids", ids));
+    }
+
+    private MapSqlParameterSource userPlansParams(List<UUID> userIds, int limit) {
+        return new MapSqlParameterSource()
+                .addValue("userIds", userIds.stream().map(Uuids::toBytes).toList())
+                .addValue("limit", limit);
+    }
+
+    private List<Long> findExpiredPlanIds(String table, String currentColumn, List<UUID> userIds,
+                                          int keepLast, LocalDateTime cutoff) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userIds", userIds.stream().map(Uuids::toBytes).toList())
+                .addValue("keepLast", keepLast)
+                .addValue("cutoff", Timestamp.valueOf(cutoff));
+        return jdbcTemplate.queryForList(SELECT_EXPIRED_PLAN_IDS.formatted(table, currentColumn), params, Long.class);
+    }
+}
@@ -0,0 +1,165 @@
+package com.project.backend.repositories;
+
+import com.project.backend.model.DietPlanResponse;
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.Uuids;
+import com.project.backend.model.WeighIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plain JDBC writes of many users at once. Unlike UserInfoRepository.save, which first
+ * SELECTs each row because the userId is assigned up front, this sends one batched
+ * INSERT per chunk (rewritten into multi-row INSERTs by rewriteBatchedStatements).
+ */
+@Repository
+public class UserInfoBatchRepository {
+
+    private static final String INSERT_USER =
+            "INSERT INTO user_info (user_id, name, email, age, gender, height, curr_weight, desired_weight, target_days, " +
+            "dietary_exclusions) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_EXISTING_EMAILS = "SELECT email FROM user_info WHERE email IN (:emails)";
+
+    private static final String MARK_DELETED =
+            "UPDATE user_info SET deleted_at = ? WHERE user_id = ? AND deleted_at IS NULL";
+
+    private static final String SELECT_DELETED_USER_IDS =
+            "SELECT user_id FROM user_info WHERE deleted_at IS NOT NULL ORDER BY deleted_at LIMIT ?";
+
+    private static final String DELETE_DELETED_USER =
+            "DELETE FROM user_info WHERE user_id = ? AND deleted_at IS NOT NULL";
+
+    // Skipped when a later weigh-in is already stored (e.g. a back-dated entry)
+    private static final String UPDATE_CURR_WEIGHT =
+            "UPDATE user_info SET curr_weight = ? WHERE user_id = ? AND NOT EXISTS " +
+            "(SELECT 1 FROM weigh_in w WHERE w.user_id = ? AND w.measured_at > ?)";
+
+    private static final String UPDATE_CURRENT_PLANS =
+            "UPDATE user_info SET current_exercise_plan_id = ?, current_nutrition_plan_id = ? WHERE user_id = ?";
+
+    private static final String CLEAR_CURRENT_PLANS =
+            "UPDATE user_info SET current_exercise_plan_id = NULL, current_nutrition_plan_id = NULL WHERE user_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Inserts the users; each must already have its userId assigned.
+     *
+     * @param users The users to insert
+     */
+    public void insertAll(List<UserInfo> users) {
+        jdbcTemplate.batchUpdate(INSERT_USER, users, users.size(), (ps, user) -> {
+            ps.setBytes(1, Uuids.toBytes(user.getUserId()));
+            ps.setString(2, user.getName());
+            ps.setString(3, user.getEmail());
+            ps.setInt(4, user.getAge());
+            ps.setString(5, user.getGender());
+            ps.setDouble(6, user.getHeight());
+            ps.setDouble(7, user.getCurrWeight());
+            ps.setDouble(8, user.getDesiredWeight());
+            ps.setInt(9, user.getTargetDays());
+            ps.setString(10, user.getDietaryExclusions());
+        });
+    }
+
+    /**
+     * Looks up which of the emails are already taken, with one query on uk_user_info_email.
+     *
+     * @param emails The emails to check
+     * @return Those of the emails that are stored, as stored
+     */
+    public List<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.queryForList(SELECT_EXISTING_EMAILS,
+                new MapSqlParameterSource("emails", emails), String.class);
+    }
+
+    /**
+     * Marks the user deleted with a single-row UPDATE. From then on the user is invisible
+     * to all entity loads and queries; its rows are removed later by UserReaper.
+     *
+     * @param userId The user to delete
+     * @return true if the user existed and was not already deleted
+     */
+    public boolean markDeleted(UUID userId) {
+        return jdbcTemplate.update(MARK_DELETED, Timestamp.valueOf(LocalDateTime.now()), Uuids.toBytes(userId)) > 0;
+    }
+
+    /**
+     * Returns users marked deleted, oldest deletion first.
+     *
+     * @param limit Maximum number of ids
+     * @return The user ids
+     */
+    public List<UUID> findDeletedUserIds(int limit) {
+        return jdbcTemplate.query(SELECT_DELETED_USER_IDS,
+                (rs, rowNum) -> Uuids.fromBytes(rs.getBytes("user_id")), limit);
+    }
+
+    /**
+     * Removes the rows of users marked deleted; their plans must already be gone.
+     *
+     * @param userIds The users to remove
+     */
+    public void deleteDeletedUsers(List<UUID> userIds) {
+        jdbcTemplate.batchUpdate(DELETE_DELETED_USER, userIds, userIds.size(),
+                (ps, userId) -> ps.setBytes(1, Uuids.toBytes(userId)));
+    }
+
+    /**
+     * Sets each user's current weight to their latest weigh-in, in one batched UPDATE.
+     * Must run in the transaction that inserted the weigh-ins.
+     *
+     * @param latestWeighIns The newest of the just inserted weigh-ins, one per user
+     */
+    public void updateCurrWeights(List<WeighIn> latestWeighIns) {
+        jdbcTemplate.batchUpdate(UPDATE_CURR_WEIGHT, latestWeighIns, latestWeighIns.size(), (ps, weighIn) -> {
+            byte[] userId = Uuids.toBytes(weighIn.getUserId());
+            ps.setDouble(1, weighIn.getWeight());
+            ps.setBytes(2, userId);
+            ps.setBytes(3, userId);
+            ps.setTimestamp(4, Timestamp.valueOf(weighIn.getMeasuredAt()));
+        });
+    }
+
+    /**
+     * Points each plan's user at the plan pair as its current plans, in one batched UPDATE.
+     * Must run in the transaction that saved the plans, after their ids were assigned.
+     *
+     * @param dietPlans The newly saved plan pairs
+     */
+    public void updateCurrentPlans(List<DietPlanResponse> dietPlans) {
+        jdbcTemplate.batchUpdate(UPDATE_CURRENT_PLANS, dietPlans, dietPlans.size(), (ps, dietPlan) -> {
+            ps.setLong(1, dietPlan.getExercisePlan().getId());
+            ps.setLong(2, dietPlan.getNutritionPlan().getId());
+            ps.setBytes(3, Uuids.toBytes(dietPlan.getExercisePlan().getUser().getUserId()));
+        });
+    }
+
+    /**
+     * Marks the user's plans as out of date: the user has no current plans until new ones are
+     * saved, so the next diet-plan read generates them if the background generation did not.
+     * Locks the user row until the transaction ends.
+     *
+     * @param userId The user whose profile changed
+     */
+    public void clearCurrentPlans(UUID userId) {
+        jdbcTemplate.update(CLEAR_CURRENT_PLANS, (Object) Uuids.toBytes(userId));
+    }
+}
@@ -1,12 +1,51 @@
 package com.project.backend.repositories;
 
+import com.project.backend.model.CurrentPlanTarget;
 import com.project.backend.model.UserInfo;
+import com.project.backend.model.UserSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
 @Repository
-public interface UserInfoRepository extends JpaRepository<UserInfo, String> {
-    public UserInfo findByUserId(String userId);
+public interface UserInfoRepository extends JpaRepository<UserInfo, UUID> {
+    public UserInfo findByUserId(UUID userId);
     UserInfo findByEmail(String email);
-}
+    // Email check across shards, where uk_user_info_email only covers one shard
+    boolean existsByEmailAndUserIdNot(String email, UUID userId);
+
+    // Keyset pagination: seeks past the last userId of the previous page using the primary key index,
+    // so every page costs the same no matter how deep the client has scrolled
+    @Query("select new com.project.backend.model.UserSummary(u.userId, u.name, u.email, u.age, u.gender, " +
+            "u.height, u.currWeight, u.desiredWeight, u.targetDays, u.dietaryExclusions) " +
+            "from UserInfo u where u.userId > :afterUserId order by u.userId")
+    List<UserSummary> findPageAfter(@Param("afterUserId") UUID afterUserId, Limit limit);
+
+    // SELECT ... FOR UPDATE on the user row; serializes plan generation for one user across app instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from UserInfo u where u.userId = :userId")
+    Optional<UserInfo> findByIdForUpdate(@Param("userId") UUID userId);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from UserInfo u where u.userId in :userIds")
+    List<UserInfo> findAllByIdForUpdate(@Param("userIds") List<UUID> userIds);
+
+    @Query("select new com.project.backend.model.UserSummary(u.userId, u.name, u.email, u.age, u.gender, " +
+            "u.height, u.currWeight, u.desiredWeight, u.targetDays, u.dietaryExclusions) " +
+            "from UserInfo u where u.userId in :userIds")
+    List<UserSummary> findSummariesByIds(@Param("userIds") List<UUID> userIds);
+
+    // Goal and calorie target of the users' current plans; users without current plans are left out
+    @Query("select new com.project.backend.model.CurrentPlanTarget(u.userId, e.goal, n.dailyCaloriesToEat) " +
+            "from UserInfo u, ExercisePlan e, NutritionPlan n " +
+            "where e.id = u.currentExercisePlanId and n.id = u.currentNutritionPlanId and u.userId in :userIds")
+    List<CurrentPlanTarget> findCurrentPlanTargets(@Param("userIds") List<UUID> userIds);
+}
@@ -0,0 +1,60 @@
+package com.project.backend.repositories;
+
+import com.project.backend.model.UserSummary;
+import com.project.backend.model.Uuids;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access for reading the whole user table without materializing it.
+ * Rows are pulled through a forward-only, read-only cursor in fetchSize chunks
+ * and handed to the consumer one at a time, so memory use does not grow with the table.
+ */
+@Repository
+public class UserInfoStreamRepository {
+
+    private static final String SELECT_USERS =
+            "SELECT user_id, name, email, age, gender, height, curr_weight, desired_weight, target_days, " +
+            "dietary_exclusions " +
+            "FROM user_info WHERE deleted_at IS NULL ORDER BY user_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams every user in userId order.
+     *
+     * @param fetchSize Number of rows the driver fetches per round trip
+     *                  (requires useCursorFetch=true on the MySQL connection URL)
+     * @param consumer  Receives each row as soon as it is read
+     */
+    public void streamAll(int fetchSize, Consumer<UserSummary> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_USERS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapSummary(rs)));
+    }
+
+    static UserSummary mapSummary(ResultSet rs) throws SQLException {
+        return new UserSummary(
+                Uuids.fromBytes(rs.getBytes("user_id")),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getInt("age"),
+                rs.getString("gender"),
+                rs.getDouble("height"),
+                rs.getDouble("curr_weight"),
+                rs.getDouble("desired_weight"),
+                rs.getInt("target_days"),
+                rs.getString("dietary_exclusions"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.project.backend.repositories;
+
+import com.project.backend.model.ExercisePlanDto;
+import com.project.backend.model.NutritionPlanDto;
+import com.project.backend.model.StringListConverter;
+import com.project.backend.model.UserPlanExport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+/**
+ * Plain JDBC access for exporting every user together with its current plan pair.
+ * One row per user: the current plans are joined through user_info.current_*_plan_id and the
+ * food lists through the meal template, so nothing fans out. Exercise sets are left to the
+ * caller (they are shared templates, cached by PlanTemplateStore).
+ */
+@Repository
+public class UserPlanExportRepository {
+
+    private static final StringListConverter FOODS = new StringListConverter();
+
+    private static final String SELECT_USER_PLANS =
+            "SELECT u.user_id, u.name, u.email, u.age, u.gender, u.height, u.curr_weight, u.desired_weight, " +
+            "u.target_days, u.dietary_exclusions, " +
+            "e.id AS exercise_plan_id, e.daily_calorie_change, e.goal, e.template_hash, e.created_at AS exercise_created_at, " +
+            "n.id AS nutrition_plan_id, n.daily_calories_to_eat, n.breakfast_calories, n.lunch_calories, " +
+            "n.dinner_calories, n.pre_workout_calories, n.post_workout_calories, n.created_at AS nutrition_created_at, " +
+            "m.breakfast_foods, m.lunch_foods, m.dinner_foods, m.pre_workout_foods, m.post_workout_foods " +
+            "FROM user_info u " +
+            "LEFT JOIN exercise_plan e ON e.id = u.current_exercise_plan_id " +
+            "LEFT JOIN nutrition_plan n ON n.id = u.current_nutrition_plan_id " +
+            "LEFT JOIN meal_plan_template m ON m.hash = n.meal_template_hash " +
+            "WHERE u.deleted_at IS NULL ORDER BY u.user_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams every user with its current plans in userId order, through a forward-only cursor.
+     * The exercise plan of each row has no exercise sets; the consumer gets the template hash
+     * to fill them in (null when the user has no exercise plan).
+     *
+     * @param fetchSize Number of rows the driver fetches per round trip
+     *                  (requires useCursorFetch=true on the MySQL connection URL)
+     * @param consumer  Receives each row and its exercise template hash as soon as it is read
+     */
+    public void streamAll(int fetchSize, BiConsumer<UserPlanExport, String> consumer) {
+        jdbcTemplate.query(connection -> {
+            // Marked read-only before the first statement, so with a replica configured
+            // (DataSourceRoutingConfig) the lazy connection is taken from the replica pool
+            connection.setReadOnly(true);
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_USER_PLANS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs), rs.getString("template_hash")));
+    }
+
+    private static UserPlanExport mapRow(ResultSet rs) throws SQLException {
+        ExercisePlanDto exercisePlan = null;
+        long exercisePlanId = rs.getLong("exercise_plan_id");
+        if (!rs.wasNull()) {
+            exercisePlan = new ExercisePlanDto(
+                    exercisePlanId,
+                    rs.getDouble("daily_calorie_change"),
+                    rs.getString("goal"),
+                    null,
+                    toLocalDateTime(rs.getTimestamp("exercise_created_at")));
+        }
+
+        NutritionPlanDto nutritionPlan = null;
+        long nutritionPlanId = rs.getLong("nutrition_plan_id");
+        if (!rs.wasNull()) {
+            nutritionPlan = new NutritionPlanDto(
+                    nutritionPlanId,
+                    rs.getDouble("daily_calories_to_eat"),
+                    rs.getDouble("breakfast_calories"),
+                    rs.getDouble("lunch_calories"),
+                    rs.getDouble("dinner_calories"),
+                    rs.getObject("pre_workout_calories", Double.class),
+                    rs.getObject("post_workout_calories", Double.class),
+                    FOODS.convertToEntityAttribute(rs.getString("breakfast_foods")),
+                    FOODS.convertToEntityAttribute(rs.getString("lunch_foods")),
+                    FOODS.convertToEntityAttribute(rs.getString("dinner_foods")),
+                    FOODS.convertToEntityAttribute(rs.getString("pre_workout_foods")),
+                    FOODS.convertToEntityAttribute(rs.getString("post_workout_foods")),
+                    toLocalDateTime(rs.getTimestamp("nutrition_created_at")));
+        }
+        return new UserPlanExport(UserInfoStreamRepository.mapSummary(rs), exercisePlan, nutritionPlan);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
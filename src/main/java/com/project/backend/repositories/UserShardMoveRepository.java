@@ -0,0 +1,189 @@
+package com.project.backend.repositories;
+
+import com.project.backend.model.Uuids;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+ * Plain JDBC copy of users with everything stored for them, used by ShardRebalancer to move
+ * users between shards. Rows are copied column for column (SELECT *), keeping their ids:
+ * plan and exercise set ids come from per-shard id ranges and are unique across shards.
+ * Weigh-ins get new auto-increment ids on the target.
+ *
+ * Every method runs on the shard (and in the transaction) of the calling thread.
+ */
+@Repository
+public class UserShardMoveRepository {
+
+    // Tables keyed by user_id, parents first
+    private static final List<String> USER_TABLES =
+            List.of("user_info", "exercise_plan", "nutrition_plan", "weigh_in", "weigh_in_aggregate");
+
+    // Unlike PlanHistoryRepository's, includes users marked deleted: they move too
+    private static final String SELECT_USER_IDS =
+            "SELECT user_id FROM user_info WHERE user_id > :after ORDER BY user_id LIMIT :limit";
+
+    private static final String LOCK_USERS =
+            "SELECT user_id FROM user_info WHERE user_id IN (:userIds) FOR UPDATE";
+
+    private static final String SELECT_EXISTING_USER_IDS =
+            "SELECT user_id FROM user_info WHERE user_id IN (:userIds)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * The rows of some users, plus the shared templates their plans reference, per table.
+     */
+    public record UserRows(List<UUID> userIds, Map<String, List<Map<String, Object>>> tables) {
+
+        private List<Map<String, Object>> rows(String table) {
+            return tables.getOrDefault(table, List.of());
+        }
+    }
+
+    /**
+     * Returns the next page of user ids in userId order, including users marked deleted.
+     *
+     * @param afterUserId Keyset cursor: only ids greater than this one are returned
+     * @param limit       Maximum number of ids
+     * @return The user ids
+     */
+    public List<UUID> findUserIdsAfter(UUID afterUserId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("after", Uuids.toBytes(afterUserId))
+                .addValue("limit", limit);
+        return jdbcTemplate.query(SELECT_USER_IDS, params, (rs, rowNum) -> Uuids.fromBytes(rs.getBytes("user_id")));
+    }
+
+    /**
+     * Locks the user rows (SELECT ... FOR UPDATE) until the transaction ends, so no plan or
+     * profile change of these users can commit on this shard meanwhile.
+     *
+     * @param userIds The users to lock
+     * @return The ids that exist
+     */
+    public List<UUID> lockUsers(List<UUID> userIds) {
+        return jdbcTemplate.query(LOCK_USERS, userIdParams(userIds),
+                (rs, rowNum) -> Uuids.fromBytes(rs.getBytes("user_id")));
+    }
+
+    /**
+     * @param userIds The users to look for
+     * @return The ids that exist on this shard, including users marked deleted
+     */
+    public List<UUID> findExistingUserIds(List<UUID> userIds) {
+        return jdbcTemplate.query(SELECT_EXISTING_USER_IDS, userIdParams(userIds),
+                (rs, rowNum) -> Uuids.fromBytes(rs.getBytes("user_id")));
+    }
+
+    /**
+     * Reads every row stored for the users and the templates referenced by their plans.
+     *
+     * @param userIds The users to read
+     * @return The rows per table
+     */
+    public UserRows read(List<UUID> userIds) {
+        Map<String, List<Map<String, Object>>> tables = new HashMap<>();
+        for (String table : USER_TABLES) {
+            tables.put(table, jdbcTemplate.queryForList(
+                    "SELECT * FROM " + table + " WHERE user_id IN (:userIds)", userIdParams(userIds)));
+        }
+
+        Set<Object> exerciseHashes = columnValues(tables.get("exercise_plan"), "template_hash");
+        if (!exerciseHashes.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource("hashes", exerciseHashes);
+            tables.put("exercise_plan_template", jdbcTemplate.queryForList(
+                    "SELECT * FROM exercise_plan_template WHERE hash IN (:hashes)", params));
+            tables.put("exercise_set", jdbcTemplate.queryForList(
+                    "SELECT * FROM exercise_set WHERE template_hash IN (:hashes)", params));
+        }
+        Set<Object> mealHashes = columnValues(tables.get("nutrition_plan"), "meal_template_hash");
+        if (!mealHashes.isEmpty()) {
+            tables.put("meal_plan_template", jdbcTemplate.queryForList(
+                    "SELECT * FROM meal_plan_template WHERE hash IN (:hashes)",
+                    new MapSqlParameterSource("hashes", mealHashes)));
+        }
+        return new UserRows(List.copyOf(userIds), tables);
+    }
+
+    /**
+     * Writes the rows read on another shard, replacing whatever is stored here for these users
+     * (left by an earlier, interrupted move). Templates missing here are stored as
+     * PlanTemplateStore does: the template row only if absent, its exercise sets only if it was.
+     *
+     * @param rows The rows returned by read
+     */
+    public void write(UserRows rows) {
+        delete(rows.userIds());
+
+        for (Map<String, Object> template : rows.rows("exercise_plan_template")) {
+            if (insert("INSERT IGNORE INTO", "exercise_plan_template", List.of(template), Set.of()) == 1) {
+                Object hash = template.get("hash");
+                insert("INSERT INTO", "exercise_set", rows.rows("exercise_set").stream()
+                        .filter(set -> hash.equals(set.get("template_hash")))
+                        .toList(), Set.of());
+            }
+        }
+        insert("INSERT IGNORE INTO", "meal_plan_template", rows.rows("meal_plan_template"), Set.of());
+
+        for (String table : USER_TABLES) {
+            // weigh_in.id is an auto-increment column, counted per shard
+            Set<String> generated = table.equals("weigh_in") ? Set.of("id") : Set.of();
+            insert("INSERT INTO", table, rows.rows(table), generated);
+        }
+    }
+
+    /**
+     * Deletes the users and everything stored for them (but not the shared templates).
+     *
+     * @param userIds The users to delete
+     */
+    public void delete(List<UUID> userIds) {
+        for (String table : USER_TABLES.reversed()) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id IN (:userIds)", userIdParams(userIds));
+        }
+    }
+
+    /**
+     * Inserts the rows in one batch, with the columns of the first row minus the skipped ones.
+     *
+     * @return The number of rows inserted (as reported by a single-row statement)
+     */
+    private int insert(String insertInto, String table, List<Map<String, Object>> rows, Set<String> skippedColumns) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<String> columns = rows.get(0).keySet().stream()
+                .filter(column -> !skippedColumns.contains(column.toLowerCase(Locale.ROOT)))
+                .toList();
+        String sql = insertInto + " " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        if (rows.size() == 1) {
+            return jdbcTemplate.getJdbcTemplate().update(sql, columns.stream().map(rows.get(0)::get).toArray());
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(sql, rows.stream()
+                .map(row -> columns.stream().map(row::get).toArray())
+                .toList());
+        return rows.size();
+    }
+
+    private static Set<Object> columnValues(List<Map<String, Object>> rows, String column) {
+        Set<Object> values = new LinkedHashSet<>();
+        for (Map<String, Object> row : rows) {
+            Object value = row.get(column);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private static MapSqlParameterSource userIdParams(List<UUID> userIds) {
+        return new MapSqlParameterSource("userIds", userIds.stream().map(Uuids::toBytes).toList());
+    }
+}
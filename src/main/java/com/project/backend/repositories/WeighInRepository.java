@@ -0,0 +1,147 @@
+package com.project.backend.repositories;
+
+import com.project.backend.model.Uuids;
+import com.project.backend.model.WeighIn;
+import com.project.backend.model.WeighInAggregate;
+import com.project.backend.model.WeighInPeriod;
+import com.project.backend.model.WeighInSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access to the weigh-in time series. Entries are appended in batched INSERTs
+ * (rewritten into multi-row INSERTs by rewriteBatchedStatements) and folded into the
+ * daily/weekly aggregates with one batched upsert per flush.
+ */
+@Repository
+public class WeighInRepository {
+
+    private static final String INSERT_WEIGH_IN =
+            "INSERT INTO weigh_in (user_id, weight, measured_at) VALUES (?, ?, ?)";
+
+    // Adds a pre-aggregated bucket to the stored one. MySQL evaluates the assignments left
+    // to right, so last_weight must be compared before last_measured_at is overwritten.
+    private static final String UPSERT_AGGREGATE =
+            "INSERT INTO weigh_in_aggregate (user_id, period_type, period_start, entries, weight_sum, " +
+            "weight_min, weight_max, last_weight, last_measured_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "entries = entries + VALUES(entries), " +
+            "weight_sum = weight_sum + VALUES(weight_sum), " +
+            "weight_min = LEAST(weight_min, VALUES(weight_min)), " +
+            "weight_max = GREATEST(weight_max, VALUES(weight_max)), " +
+            "last_weight = CASE WHEN VALUES(last_measured_at) >= last_measured_at " +
+            "THEN VALUES(last_weight) ELSE last_weight END, " +
+            "last_measured_at = GREATEST(last_measured_at, VALUES(last_measured_at))";
+
+    private static final String SELECT_AGGREGATES =
+            "SELECT period_type, period_start, entries, weight_sum, weight_min, weight_max, last_weight, last_measured_at " +
+            "FROM weigh_in_aggregate WHERE user_id = ? AND period_type = ? AND period_start BETWEEN ? AND ? " +
+            "ORDER BY period_start";
+
+    private static final String SELECT_WEIGH_IN_IDS_OF_USERS =
+            "SELECT id FROM weigh_in WHERE user_id IN (:userIds) LIMIT :limit";
+
+    private static final String DELETE_WEIGH_INS = "DELETE FROM weigh_in WHERE id IN (:ids)";
+
+    private static final String DELETE_AGGREGATES_OF_USERS = "DELETE FROM weigh_in_aggregate WHERE user_id IN (:userIds)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Appends the weigh-ins.
+     *
+     * @param weighIns The entries to insert
+     */
+    public void insertAll(List<WeighIn> weighIns) {
+        jdbcTemplate.batchUpdate(INSERT_WEIGH_IN, weighIns, weighIns.size(), (ps, weighIn) -> {
+            ps.setBytes(1, Uuids.toBytes(weighIn.getUserId()));
+            ps.setDouble(2, weighIn.getWeight());
+            ps.setTimestamp(3, Timestamp.valueOf(weighIn.getMeasuredAt()));
+        });
+    }
+
+    /**
+     * Adds each bucket's entries, sum, min, max and latest weight to the stored aggregate,
+     * creating it if needed.
+     *
+     * @param buckets Aggregates of the newly inserted weigh-ins, at most one per key
+     */
+    public void upsertAggregates(List<WeighInAggregate> buckets) {
+        jdbcTemplate.batchUpdate(UPSERT_AGGREGATE, buckets, buckets.size(), (ps, bucket) -> {
+            ps.setBytes(1, Uuids.toBytes(bucket.getUserId()));
+            ps.setString(2, bucket.getPeriod().name());
+            ps.setDate(3, Date.valueOf(bucket.getPeriodStart()));
+            ps.setInt(4, bucket.getEntries());
+            ps.setDouble(5, bucket.getWeightSum());
+            ps.setDouble(6, bucket.getWeightMin());
+            ps.setDouble(7, bucket.getWeightMax());
+            ps.setDouble(8, bucket.getLastWeight());
+            ps.setTimestamp(9, Timestamp.valueOf(bucket.getLastMeasuredAt()));
+        });
+    }
+
+    /**
+     * Returns the user's aggregates of one period type whose period starts within [from, to].
+     *
+     * @param userId The user
+     * @param period DAY or WEEK
+     * @param from   First period start (inclusive)
+     * @param to     Last period start (inclusive)
+     * @return The aggregates in chronological order
+     */
+    public List<WeighInSummary> findAggregates(UUID userId, WeighInPeriod period, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SELECT_AGGREGATES, (rs, rowNum) -> {
+            int entries = rs.getInt("entries");
+            return new WeighInSummary(
+                    WeighInPeriod.valueOf(rs.getString("period_type")),
+                    rs.getDate("period_start").toLocalDate(),
+                    entries,
+                    rs.getDouble("weight_sum") / entries,
+                    rs.getDouble("weight_min"),
+                    rs.getDouble("weight_max"),
+                    rs.getDouble("last_weight"),
+                    rs.getTimestamp("last_measured_at").toLocalDateTime());
+        }, Uuids.toBytes(userId), period.name(), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Deletes up to limit weigh-ins of the given users. Must run in a transaction.
+     *
+     * @param userIds The users
+     * @param limit   Maximum number of weigh-in rows deleted
+     * @return The number of deleted weigh-ins; 0 once the users have none left
+     */
+    public int deleteWeighInsOfUsers(List<UUID> userIds, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userIds", userIds.stream().map(Uuids::toBytes).toList())
+                .addValue("limit", limit);
+        List<Long> ids = namedParameterJdbcTemplate.queryForList(SELECT_WEIGH_IN_IDS_OF_USERS, params, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update(DELETE_WEIGH_INS, new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * Deletes the daily and weekly aggregates of the given users.
+     *
+     * @param userIds The users
+     */
+    public void deleteAggregatesOfUsers(List<UUID> userIds) {
+        namedParameterJdbcTemplate.update(DELETE_AGGREGATES_OF_USERS,
+                new MapSqlParameterSource("userIds", userIds.stream().map(Uuids::toBytes).toList()));
+    }
+}
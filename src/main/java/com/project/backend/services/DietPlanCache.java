@@ -0,0 +1,112 @@
+package com.project.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project.backend.model.CacheStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of assembled and encoded diet plans, keyed by userId.
+ * Bounded both by entry count and by time since write, so memory stays capped
+ * and an entry is eventually refreshed even if an invalidation is missed.
+ *
+ * A plan loaded from the database may be outdated by the time it is cached: a profile save can
+ * commit and invalidate in between. Loaders therefore take the user's generation before reading
+ * and cache the plan only if no invalidation happened since (putIfCurrent). Generations come from
+ * one counter and are never reused; a user whose generation was evicted is simply not cached
+ * until the next read.
+ */
+@Component
+public class DietPlanCache {
+
+    private final Cache<UUID, EncodedDietPlan> cache;
+    private final Cache<UUID, Long> generations;
+    private final AtomicLong nextGeneration = new AtomicLong();
+
+    public DietPlanCache(@Value("${app.cache.diet-plan.max-size:10000}") long maxSize,
+                         @Value("${app.cache.diet-plan.ttl:10m}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Outlives the plans, so a loader slower than the TTL still finds its generation
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maxSize * 2)
+                .expireAfterAccess(ttl.multipliedBy(2))
+                .build();
+        // Publishes the same counters as cache.gets / cache.evictions / cache.size{cache="dietPlan"}
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dietPlan");
+    }
+
+    /**
+     * @param userId The unique identifier of the user
+     * @return The cached diet plan, or null on a miss
+     */
+    public EncodedDietPlan get(UUID userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    /**
+     * Must be taken before the plan is read from the database.
+     *
+     * @param userId The unique identifier of the user
+     * @return The user's current generation, to be passed to putIfCurrent
+     */
+    public long generation(UUID userId) {
+        return generations.get(userId, id -> nextGeneration.incrementAndGet());
+    }
+
+    /**
+     * Caches the plan unless the user was invalidated after the generation was taken.
+     *
+     * @param userId     The unique identifier of the user
+     * @param generation The generation taken before the plan was read
+     * @param dietPlan   The plan read
+     * @return Whether the plan was cached
+     */
+    public boolean putIfCurrent(UUID userId, long generation, EncodedDietPlan dietPlan) {
+        // Atomic per key with invalidate's removal, which runs after the generation is bumped
+        EncodedDietPlan cached = cache.asMap().compute(userId, (id, previous) ->
+                Long.valueOf(generation).equals(generations.getIfPresent(id)) ? dietPlan : previous);
+        return cached == dietPlan;
+    }
+
+    /**
+     * Drops the cached plan of a user, e.g. after the profile changed or the user was deleted.
+     * Plans read before this call are no longer cached by putIfCurrent.
+     *
+     * @param userId The unique identifier of the user
+     */
+    public void invalidate(UUID userId) {
+        generations.put(userId, nextGeneration.incrementAndGet());
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        generations.invalidateAll();
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return Hit, miss and eviction counters accumulated since startup
+     */
+    public CacheStatistics statistics() {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.hitRate());
+    }
+}
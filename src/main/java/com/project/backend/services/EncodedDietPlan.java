@@ -0,0 +1,62 @@
+package com.project.backend.services;
+
+import com.project.backend.model.DietPlanDto;
+import lombok.Getter;
+
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A diet plan ready to be sent: the DTO, its encoded bytes and an ETag derived from the plan ids
+ * and creation time. This is what DietPlanCache holds, so a cached plan is served without touching
+ * the database or the serializer. JSON is encoded up front; CBOR and Smile the first time a client
+ * asks for them, then kept alongside.
+ */
+public class EncodedDietPlan {
+
+    @Getter
+    private final DietPlanDto plan;
+    private final String version;
+    private final AtomicReferenceArray<byte[]> encodings = new AtomicReferenceArray<>(PayloadFormat.values().length);
+
+    public EncodedDietPlan(DietPlanDto plan, byte[] json) {
+        this.plan = plan;
+        this.version = versionOf(plan);
+        encodings.set(PayloadFormat.JSON.ordinal(), json);
+    }
+
+    public byte[] getJson() {
+        return encodings.get(PayloadFormat.JSON.ordinal());
+    }
+
+    /**
+     * @param format  The negotiated wire format
+     * @param encoder Encodes the plan if this format was not requested before
+     * @return The plan's bytes in that format
+     */
+    public byte[] encoded(PayloadFormat format, PayloadEncoder encoder) {
+        byte[] bytes = encodings.get(format.ordinal());
+        if (bytes == null) {
+            bytes = encoder.encode(plan, format); // a concurrent first request may encode it too; same bytes
+            encodings.set(format.ordinal(), bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * @param format The negotiated wire format
+     * @return The ETag of the plan in that format
+     */
+    public String etag(PayloadFormat format) {
+        return format.etag(version);
+    }
+
+    /**
+     * A new plan always gets new ids, so the version changes exactly when the user's plan changes.
+     */
+    private static String versionOf(DietPlanDto plan) {
+        long createdAt = plan.getNutritionPlan().getCreatedAt() == null ? 0
+                : plan.getNutritionPlan().getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+        return plan.getExercisePlan().getId() + "-" + plan.getNutritionPlan().getId() + "-" + createdAt;
+    }
+}
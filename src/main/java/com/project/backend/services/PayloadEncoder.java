@@ -0,0 +1,35 @@
+package com.project.backend.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Serializes API payloads in the negotiated PayloadFormat.
+ */
+@Component
+public class PayloadEncoder {
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private CBORMapper cborMapper;
+
+    private final SmileMapper smileMapper = SmileMapper.builder().build();
+
+    /**
+     * @param value  The payload (a DTO)
+     * @param format The wire format
+     * @return The encoded bytes
+     */
+    public byte[] encode(Object value, PayloadFormat format) {
+        return switch (format) {
+            case JSON -> jsonMapper.writeValueAsBytes(value);
+            case CBOR -> cborMapper.writeValueAsBytes(value);
+            case SMILE -> smileMapper.writeValueAsBytes(value);
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.project.backend.services;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Wire formats of the pre-encoded API payloads (diet plans, user profiles), chosen from the
+ * request's Accept header. CBOR and Smile carry the same data model as JSON in a binary form
+ * (shorter numbers, no quoting; Smile also back-references repeated field names and short strings).
+ */
+public enum PayloadFormat {
+
+    JSON(MediaType.APPLICATION_JSON, null),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor"),
+    SMILE(new MediaType("application", "x-jackson-smile"), "smile");
+
+    private final MediaType mediaType;
+    private final String etagSuffix;
+
+    PayloadFormat(MediaType mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Makes a representation-specific ETag: each format of the same resource version gets its own.
+     * 
+     * @param version Identifies the resource version (without quotes)
+     * @return A weak ETag, so the server may still gzip the body (Tomcat skips strong ETags)
+     */
+    public String etag(String version) {
+        return "W/\"" + version + (etagSuffix == null ? "" : "-" + etagSuffix) + "\"";
+    }
+
+    /**
+     * Picks the format with the highest quality in the Accept header. JSON is the default:
+     * for a missing or unparsable header, for wildcards and when no listed type is supported.
+     * 
+     * @param accept The Accept header value, or null
+     * @return The format to respond with
+     */
+    public static PayloadFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        PayloadFormat best = JSON;
+        double bestQuality = 0;
+        try {
+            for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+                double quality = accepted.getQualityValue();
+                if (quality <= bestQuality) {
+                    continue; // earlier types win ties
+                }
+                for (PayloadFormat format : values()) {
+                    if (accepted.includes(format.mediaType)) {
+                        best = format;
+                        bestQuality = quality;
+                        break;
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,124 @@
+package com.project.backend.services;
+
+import com.project.backend.model.ExercisePlan;
+import com.project.backend.model.ExercisePlanTemplate;
+import com.project.backend.model.ExerciseSet;
+import com.project.backend.model.MealPlanTemplate;
+import com.project.backend.model.NutritionPlan;
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.UserSummary;
+import com.project.backend.planning.ComputedPlan;
+import com.project.backend.planning.DietPlanEngine;
+import com.project.backend.planning.DietaryTag;
+import com.project.backend.planning.ExerciseTemplate;
+import com.project.backend.planning.Goal;
+import com.project.backend.planning.MealTemplate;
+import com.project.backend.planning.TemplateHashes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps the persistence-free ComputedPlan of the planning engine to new
+ * ExercisePlan / NutritionPlan entities ready to be saved for a user, and the
+ * shared exercise / meal templates to and from their template entities.
+ */
+public final class PlanEntityMapper {
+
+    private PlanEntityMapper() {
+    }
+
+    /**
+     * @param template The stored template matching plan.exercises() (see PlanTemplateStore)
+     */
+    public static ExercisePlan toExercisePlan(UserInfo user, ComputedPlan plan, ExercisePlanTemplate template) {
+        ExercisePlan exercisePlan = new ExercisePlan();
+        exercisePlan.setUser(user);
+        exercisePlan.setGoal(plan.goal().name());
+        exercisePlan.setDailyCalorieChange(plan.dailyCalorieChange());
+        exercisePlan.setTemplate(template);
+        return exercisePlan;
+    }
+
+    /**
+     * @param mealTemplate The stored template matching plan.meals() (see PlanTemplateStore)
+     */
+    public static NutritionPlan toNutritionPlan(UserInfo user, ComputedPlan plan, MealPlanTemplate mealTemplate) {
+        NutritionPlan nutritionPlan = new NutritionPlan();
+        nutritionPlan.setUser(user);
+        nutritionPlan.setDailyCaloriesToEat(plan.dailyCaloriesToEat());
+        nutritionPlan.setBreakfastCalories(plan.breakfastCalories());
+        nutritionPlan.setLunchCalories(plan.lunchCalories());
+        nutritionPlan.setDinnerCalories(plan.dinnerCalories());
+        nutritionPlan.setPreWorkoutCalories(plan.preWorkoutCalories());
+        nutritionPlan.setPostWorkoutCalories(plan.postWorkoutCalories());
+        nutritionPlan.setMealTemplate(mealTemplate);
+        return nutritionPlan;
+    }
+
+    public static ExercisePlanTemplate toExercisePlanTemplate(Goal goal, List<ExerciseTemplate> exercises) {
+        ExercisePlanTemplate template = new ExercisePlanTemplate();
+        template.setHash(TemplateHashes.exerciseHash(exercises));
+        template.setGoal(goal.name());
+
+        List<ExerciseSet> exerciseSets = new ArrayList<>(exercises.size());
+        for (ExerciseTemplate exercise : exercises) {
+            exerciseSets.add(toExerciseSet(template, exercise));
+        }
+        template.setExerciseSets(exerciseSets);
+        return template;
+    }
+
+    public static ExerciseSet toExerciseSet(ExercisePlanTemplate template, ExerciseTemplate exercise) {
+        return new ExerciseSet(null, template, exercise.name(), exercise.equipment(),
+                exercise.durationMinutes(), exercise.sessionsPerWeek(), exercise.days(),
+                exercise.days() == null ? null : exercise.caloriesPerSession());
+    }
+
+    public static MealPlanTemplate toMealPlanTemplate(MealTemplate meals) {
+        // Entities get their own mutable copies of the shared template lists
+        return new MealPlanTemplate(TemplateHashes.mealHash(meals),
+                new ArrayList<>(meals.breakfastFoods()),
+                new ArrayList<>(meals.lunchFoods()),
+                new ArrayList<>(meals.dinnerFoods()),
+                new ArrayList<>(meals.preWorkoutFoods()),
+                new ArrayList<>(meals.postWorkoutFoods()));
+    }
+
+    public static MealTemplate toMealTemplate(MealPlanTemplate template) {
+        return new MealTemplate(
+                List.copyOf(template.getBreakfastFoods()),
+                List.copyOf(template.getLunchFoods()),
+                List.copyOf(template.getDinnerFoods()),
+                List.copyOf(template.getPreWorkoutFoods()),
+                List.copyOf(template.getPostWorkoutFoods()));
+    }
+
+    /**
+     * Runs the planning engine on the user's current profile.
+     */
+    public static ComputedPlan computePlan(UserInfo user) {
+        return DietPlanEngine.compute(
+                user.getCurrWeight(),
+                user.getDesiredWeight(),
+                user.getTargetDays(),
+                user.getHeight(),
+                user.getAge(),
+                "MALE".equalsIgnoreCase(user.getGender()),
+                DietaryTag.parseMask(user.getDietaryExclusions()));
+    }
+
+    /**
+     * Runs the planning engine on a user row read by the listing / batch paths.
+     */
+    public static ComputedPlan computePlan(UserSummary user) {
+        return DietPlanEngine.compute(
+                user.getCurrWeight(),
+                user.getDesiredWeight(),
+                user.getTargetDays(),
+                user.getHeight(),
+                user.getAge(),
+                "MALE".equalsIgnoreCase(user.getGender()),
+                DietaryTag.parseMask(user.getDietaryExclusions()));
+    }
+}
@@ -0,0 +1,155 @@
+package com.project.backend.services;
+
+import com.project.backend.model.PlanCompactionResult;
+import com.project.backend.model.Uuids;
+import com.project.backend.repositories.PlanHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToIntFunction;
+
+/**
+ * Background task that enforces the plan history retention policy. A plan is deleted when
+ * it is neither its user's current plan nor the user's newest plan, and it is either beyond
+ * the newest keep-last plans of the user or older than max-age (each rule is off when set to 0).
+ * Keeping the newest plan means max-age never leaves a user without any plan, even while
+ * the user row has no current plan id.
+ * 
+ * Users are walked in keyset-ordered pages; the expired plans of a page are deleted by
+ * primary key in batches of at most batch-size rows, each batch in its own short transaction,
+ * so no long-running locks are held on the plan tables. With several shards they are
+ * compacted one after the other.
+ */
+@Service
+public class PlanHistoryCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanHistoryCompactor.class);
+
+    // Used as the age cutoff when max-age is off; no plan is older than this
+    private static final LocalDateTime NO_CUTOFF = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private PlanHistoryRepository planHistoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${app.plan-history.compaction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.plan-history.keep-last:5}")
+    private int keepLast;
+
+    @Value("${app.plan-history.max-age:0d}")
+    private Duration maxAge;
+
+    @Value("${app.plan-history.compaction.user-page-size:500}")
+    private int userPageSize;
+
+    @Value("${app.plan-history.compaction.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private Counter exercisePlansDeleted;
+    private Counter nutritionPlansDeleted;
+
+    @PostConstruct
+    void registerMetrics() {
+        exercisePlansDeleted = Counter.builder("plan.history.deleted").tag("plan", "exercise").register(meterRegistry);
+        nutritionPlansDeleted = Counter.builder("plan.history.deleted").tag("plan", "nutrition").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.plan-history.compaction.interval:1h}",
+            initialDelayString = "${app.plan-history.compaction.initial-delay:10m}")
+    void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            PlanCompactionResult result = compact();
+            if (result != null) {
+                log.info("Plan history compaction deleted {} exercise plans and {} nutrition plans of {} users",
+                        result.getExercisePlansDeleted(), result.getNutritionPlansDeleted(), result.getUsersScanned());
+            }
+        } catch (RuntimeException e) {
+            log.error("Plan history compaction failed", e);
+        }
+    }
+
+    /**
+     * Runs one compaction pass over all users on the calling thread.
+     * 
+     * @return The number of users scanned and plans deleted, or null if a pass is already running
+     *         (or both retention rules are off)
+     */
+    public PlanCompactionResult compact() {
+        if ((keepLast <= 0 && maxAge.isZero()) || !running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            int keep = keepLast > 0 ? keepLast : Integer.MAX_VALUE;
+            LocalDateTime cutoff = maxAge.isZero() ? NO_CUTOFF : LocalDateTime.now().minus(maxAge);
+            PlanCompactionResult result = new PlanCompactionResult(0, 0, 0, Instant.now(), null);
+            shardRouter.forEachShard(shard -> compactShard(keep, cutoff, result));
+            result.setFinishedAt(Instant.now());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Compacts the plans on the calling thread's shard, adding the counts to the result.
+     */
+    private void compactShard(int keep, LocalDateTime cutoff, PlanCompactionResult result) {
+        UUID lastUserId = Uuids.MIN;
+        List<UUID> userIds;
+        do {
+            userIds = planHistoryRepository.findUserIdsAfter(lastUserId, userPageSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            List<Long> exercisePlanIds = planHistoryRepository.findExpiredExercisePlanIds(userIds, keep, cutoff);
+            List<Long> nutritionPlanIds = planHistoryRepository.findExpiredNutritionPlanIds(userIds, keep, cutoff);
+            int exerciseDeleted = deleteInBatches(exercisePlanIds, planHistoryRepository::deleteExercisePlans);
+            int nutritionDeleted = deleteInBatches(nutritionPlanIds, planHistoryRepository::deleteNutritionPlans);
+
+            exercisePlansDeleted.increment(exerciseDeleted);
+            nutritionPlansDeleted.increment(nutritionDeleted);
+            result.setUsersScanned(result.getUsersScanned() + userIds.size());
+            result.setExercisePlansDeleted(result.getExercisePlansDeleted() + exerciseDeleted);
+            result.setNutritionPlansDeleted(result.getNutritionPlansDeleted() + nutritionDeleted);
+            lastUserId = userIds.get(userIds.size() - 1);
+        } while (userIds.size() == userPageSize);
+    }
+
+    private int deleteInBatches(List<Long> ids, ToIntFunction<List<Long>> delete) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            deleted += transactionTemplate.execute(status -> delete.applyAsInt(batch));
+        }
+        return deleted;
+    }
+}
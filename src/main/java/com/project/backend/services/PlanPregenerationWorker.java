@@ -0,0 +1,199 @@
+package com.project.backend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Regenerates a user's diet plan in the background after their profile changed,
+ * so the next GET /{userId}/diet-plan is a lookup instead of a synchronous generation
+ * (and no longer returns the plan computed from the old profile).
+ * 
+ * Repeated edits of the same user while it is still queued are coalesced into one job.
+ * Workers drain several queued users at a time and persist their plans in one batched
+ * transaction. If the batch fails, its users are retried one at a time, and a user that
+ * still fails is queued again after a backoff, up to app.pregeneration.max-attempts.
+ * 
+ * Saving the profile already unset the user's current plans, so an event dropped because
+ * the bounded queue is full, or a user given up on, is not served the old plan: the next
+ * diet-plan read generates the new one on demand.
+ */
+@Component
+public class PlanPregenerationWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanPregenerationWorker.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.pregeneration.workers:2}")
+    private int workers;
+
+    @Value("${app.pregeneration.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.pregeneration.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.pregeneration.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.pregeneration.retry-backoff:1s}")
+    private Duration retryBackoff;
+
+    // userId -> System.nanoTime() when it was queued; a user is in here at most once
+    private final ConcurrentHashMap<UUID, Long> pending = new ConcurrentHashMap<>();
+    // userId -> failed attempts so far; cleared once its plan is generated
+    private final ConcurrentHashMap<UUID, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private BlockingQueue<UUID> queue;
+    private ExecutorService executor;
+    private ScheduledExecutorService retryScheduler;
+
+    private Timer lagTimer;
+    private Counter droppedCounter;
+    private Counter retriedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        Gauge.builder("plan.pregeneration.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        lagTimer = Timer.builder("plan.pregeneration.lag")
+                .description("Time from profile change to the start of its plan generation")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("plan.pregeneration.dropped").register(meterRegistry);
+        retriedCounter = Counter.builder("plan.pregeneration.retried").register(meterRegistry);
+        failedCounter = Counter.builder("plan.pregeneration.failed")
+                .description("Users given up on after max-attempts; their plan is generated on read")
+                .register(meterRegistry);
+
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                runnable -> new Thread(runnable, "plan-pregeneration-retry"));
+
+        executor = Executors.newFixedThreadPool(workers, runnable -> new Thread(runnable, "plan-pregeneration"));
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::work);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        retryScheduler.shutdownNow();
+    }
+
+    /**
+     * Queues the user for plan generation once the profile change has been committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        enqueue(event.userId());
+    }
+
+    /**
+     * Queues the user unless already queued.
+     * 
+     * @param userId The unique identifier of the user
+     */
+    public void enqueue(UUID userId) {
+        if (pending.putIfAbsent(userId, System.nanoTime()) != null) {
+            return; // coalesced with the queued job
+        }
+        if (!queue.offer(userId)) {
+            pending.remove(userId);
+            droppedCounter.increment();
+        }
+    }
+
+    /**
+     * @return Number of users waiting for plan generation
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void work() {
+        List<UUID> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+
+                long now = System.nanoTime();
+                for (UUID userId : batch) {
+                    // Removed before generating: an edit arriving from now on queues a new job
+                    Long queuedAt = pending.remove(userId);
+                    if (queuedAt != null) {
+                        lagTimer.record(now - queuedAt, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                regenerate(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Generates the plans of a batch; if that fails, generates them one user at a time so
+     * only the users that fail themselves are scheduled for a retry.
+     */
+    private void regenerate(List<UUID> batch) {
+        try {
+            userService.regenerateDietPlans(batch);
+            batch.forEach(failedAttempts::remove);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                retryLater(batch.get(0), e);
+                return;
+            }
+            log.warn("Plan pre-generation failed for a batch of {} users, retrying one by one", batch.size(), e);
+        }
+        for (UUID userId : batch) {
+            try {
+                userService.regenerateDietPlans(List.of(userId));
+                failedAttempts.remove(userId);
+            } catch (RuntimeException e) {
+                retryLater(userId, e);
+            }
+        }
+    }
+
+    private void retryLater(UUID userId, RuntimeException cause) {
+        int attempts = failedAttempts.merge(userId, 1, Integer::sum);
+        if (attempts >= maxAttempts) {
+            failedAttempts.remove(userId);
+            failedCounter.increment();
+            log.warn("Plan pre-generation failed for user {} after {} attempts", userId, attempts, cause);
+            return;
+        }
+        log.warn("Plan pre-generation failed for user {} (attempt {}), retrying", userId, attempts, cause);
+        retriedCounter.increment();
+        retryScheduler.schedule(() -> enqueue(userId),
+                retryBackoff.toMillis() << (attempts - 1), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,234 @@
+package com.project.backend.services;
+
+import com.project.backend.config.ReplicaRouting;
+import com.project.backend.model.*;
+import com.project.backend.planning.ComputedPlan;
+import com.project.backend.repositories.ExercisePlanRepository;
+import com.project.backend.repositories.JobCheckpointRepository;
+import com.project.backend.repositories.NutritionPlanRepository;
+import com.project.backend.repositories.UserInfoBatchRepository;
+import com.project.backend.repositories.UserInfoRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job that regenerates the diet plan of every user, e.g. after the planning
+ * formulas changed. Unlike generateDietPlan it always writes a new plan pair, which
+ * becomes the user's current plan.
+ * 
+ * Users are read from the primary in keyset-ordered chunks. Each chunk is handled in its own
+ * transaction: the user rows are locked as in generateDietPlan (so a concurrent generation
+ * either finishes first or waits for the chunk), the plans are computed from the locked
+ * profiles in parallel across cores and written with batched INSERTs, together with a
+ * JobCheckpoint so an interrupted run can resume after the last committed chunk. The
+ * checkpoint is marked completed at the end of a run; resuming a completed run starts over.
+ * With several shards they are processed one after the other, each with its own
+ * checkpoint stored on that shard (committed with the shard's chunks).
+ */
+@Service
+public class PlanRegenerationJob {
+
+    public static final String JOB_NAME = "plan-regeneration";
+
+    private static final Logger log = LoggerFactory.getLogger(PlanRegenerationJob.class);
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private ExercisePlanRepository exercisePlanRepository;
+
+    @Autowired
+    private NutritionPlanRepository nutritionPlanRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private UserInfoBatchRepository userInfoBatchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DietPlanCache dietPlanCache;
+
+    @Autowired
+    private PlanTemplateStore planTemplateStore;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.jobs.plan-regeneration.chunk-size:500}")
+    private int chunkSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, JOB_NAME));
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Progress of the current (or last) run, read by status requests from other threads
+    private volatile long processedThisRun;
+    private volatile long processedTotal;
+    private volatile UUID lastKey;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    /**
+     * Starts a run in the background unless one is already running.
+     * 
+     * @param resume true to continue an interrupted run after its last committed chunk (a
+     *               completed run is started over), false to start over
+     * @return The progress right after starting (or of the run already in progress)
+     */
+    public JobProgress start(boolean resume) {
+        if (running.compareAndSet(false, true)) {
+            processedThisRun = 0;
+            startedAt = Instant.now();
+            finishedAt = null;
+            error = null;
+            executor.submit(() -> run(resume));
+        }
+        return progress();
+    }
+
+    /**
+     * @return Progress and throughput of the current (or last) run
+     */
+    public JobProgress progress() {
+        Instant start = startedAt;
+        double itemsPerSecond = 0;
+        if (start != null) {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long elapsedMillis = Math.max(1, Duration.between(start, end).toMillis());
+            itemsPerSecond = processedThisRun * 1000.0 / elapsedMillis;
+        }
+        UUID key = lastKey;
+        return new JobProgress(JOB_NAME, running.get(), processedThisRun, processedTotal,
+                key == null ? null : key.toString(),
+                itemsPerSecond, start, finishedAt, error);
+    }
+
+    private void run(boolean resume) {
+        try {
+            processedTotal = 0;
+            shardRouter.forEachShard(shard -> regenerateShard(resume));
+            log.info("Plan regeneration finished: {} users", processedThisRun);
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            log.error("Plan regeneration stopped after key {}", lastKey, e);
+        } finally {
+            finishedAt = Instant.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Regenerates the plans of the users on the calling thread's shard, from its checkpoint.
+     */
+    private void regenerateShard(boolean resume) {
+        // The checkpoint was written by the previous run; read it where it was written
+        JobCheckpoint checkpoint = ReplicaRouting.onPrimary(() -> jobCheckpointRepository.findById(JOB_NAME))
+                .filter(existing -> resume && existing.getCompletedAt() == null)
+                .orElseGet(() -> new JobCheckpoint(JOB_NAME, null, 0, null, null));
+        lastKey = checkpoint.getLastKey() == null ? null : UUID.fromString(checkpoint.getLastKey());
+        processedTotal += checkpoint.getProcessed();
+
+        long processedOnShard = checkpoint.getProcessed();
+        List<UUID> chunk;
+        do {
+            UUID after = lastKey == null ? Uuids.MIN : lastKey;
+            // From the primary: the ids decide which users the locked chunk covers, a lagging replica could skip some
+            chunk = ReplicaRouting.onPrimary(() -> userInfoRepository.findPageAfter(after, Limit.of(chunkSize)))
+                    .stream()
+                    .map(UserSummary::getUserId)
+                    .toList();
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, processedOnShard);
+                processedOnShard += chunk.size();
+            }
+        } while (chunk.size() == chunkSize);
+
+        long processed = processedOnShard;
+        transactionTemplate.executeWithoutResult(status -> jobCheckpointRepository.save(new JobCheckpoint(JOB_NAME,
+                lastKey == null ? null : lastKey.toString(), processed, null, LocalDateTime.now())));
+    }
+
+    private List<ComputedPlan> computeChunk(List<UserInfo> users) {
+        // The engine is pure, so the chunk is computed in parallel on the common pool
+        return users.parallelStream()
+                .map(PlanEntityMapper::computePlan)
+                .toList();
+    }
+
+    /**
+     * Regenerates the plans of one chunk and saves them plus the shard's checkpoint in a single
+     * transaction. The user rows are locked first (users deleted meanwhile are skipped), so the
+     * plans are computed from the profiles as committed, and a plan written concurrently by
+     * generateDietPlan or the pre-generation worker is superseded by one at least as recent.
+     * New entities get their ids from the pooled sequences, so Hibernate sends the INSERTs in
+     * JDBC batches (hibernate.jdbc.batch_size).
+     */
+    private void writeChunk(List<UUID> chunk, long processedOnShard) {
+        UUID chunkLastKey = chunk.get(chunk.size() - 1);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<UserInfo> users = userInfoRepository.findAllByIdForUpdate(chunk);
+            List<ComputedPlan> plans = computeChunk(users);
+            List<ExercisePlan> exercisePlans = new ArrayList<>(users.size());
+            List<NutritionPlan> nutritionPlans = new ArrayList<>(users.size());
+            List<DietPlanResponse> dietPlans = new ArrayList<>(users.size());
+            for (int i = 0; i < users.size(); i++) {
+                UserInfo user = users.get(i);
+                ComputedPlan plan = plans.get(i);
+                ExercisePlan exercisePlan = PlanEntityMapper.toExercisePlan(user, plan,
+                        planTemplateStore.exerciseTemplate(plan.goal(), plan.exercises()));
+                NutritionPlan nutritionPlan = PlanEntityMapper.toNutritionPlan(user, plan,
+                        planTemplateStore.mealTemplate(plan.meals()));
+                exercisePlans.add(exercisePlan);
+                nutritionPlans.add(nutritionPlan);
+                dietPlans.add(new DietPlanResponse(exercisePlan, nutritionPlan));
+            }
+            exercisePlanRepository.saveAll(exercisePlans);
+            nutritionPlanRepository.saveAll(nutritionPlans);
+            userInfoBatchRepository.updateCurrentPlans(dietPlans);
+            jobCheckpointRepository.save(new JobCheckpoint(JOB_NAME, chunkLastKey.toString(),
+                    processedOnShard + chunk.size(), null, null));
+
+            // Keep the persistence context from growing across chunks
+            entityManager.flush();
+            entityManager.clear();
+        });
+
+        chunk.forEach(dietPlanCache::invalidate);
+        lastKey = chunkLastKey;
+        processedThisRun += chunk.size();
+        processedTotal += chunk.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
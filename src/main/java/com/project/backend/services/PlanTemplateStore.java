@@ -0,0 +1,192 @@
+package com.project.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.backend.config.ReplicaRouting;
+import com.project.backend.config.ShardRouting;
+import com.project.backend.model.*;
+import com.project.backend.planning.ExerciseTemplate;
+import com.project.backend.planning.Goal;
+import com.project.backend.planning.MealTemplate;
+import com.project.backend.planning.PlanTemplates;
+import com.project.backend.planning.TemplateHashes;
+import com.project.backend.repositories.ExercisePlanTemplateRepository;
+import com.project.backend.repositories.MealPlanTemplateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed storage of the exercise and meal templates that plans reference.
+ * 
+ * Writing a plan resolves its template by hash: a template already known to be stored is
+ * only referenced (no statement), an unknown one is inserted once. Reading a plan takes the
+ * template contents from an in-process cache; templates never change once stored, so the
+ * cache needs no invalidation.
+ * 
+ * With several shards each shard stores the templates its plans reference (the plans point
+ * at them by foreign key); the contents are the same everywhere, so the cache is shared.
+ */
+@Component
+public class PlanTemplateStore {
+
+    @Autowired
+    private ExercisePlanTemplateRepository exercisePlanTemplateRepository;
+
+    @Autowired
+    private MealPlanTemplateRepository mealPlanTemplateRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Cache<String, List<ExerciseSetDto>> exerciseSets;
+    private final Cache<String, MealTemplate> meals;
+
+    // "shard/hash" of template rows committed on that shard; these are referenced without any lookup
+    private final Set<String> storedHashes = ConcurrentHashMap.newKeySet();
+
+    public PlanTemplateStore(@Value("${app.cache.plan-templates.max-size:1000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+        this.exerciseSets = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+        this.meals = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, exerciseSets, "exerciseTemplates");
+        CaffeineCacheMetrics.monitor(meterRegistry, meals, "mealTemplates");
+    }
+
+    private static final StringListConverter FOODS = new StringListConverter();
+
+    /**
+     * Stores the fixed templates of plans created before exercises were scheduled and meals
+     * composed, so db/manual/plan-templates.sql can point those plans at them. Current templates
+     * depend on each user's weight and calorie targets and are inserted race-safely on first use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void storeBuiltInTemplates() {
+        shardRouter.forEachShard(shard -> {
+            for (Goal goal : Goal.values()) {
+                transactionTemplate.executeWithoutResult(status -> exerciseTemplate(goal, PlanTemplates.exercisesFor(goal)));
+            }
+            transactionTemplate.executeWithoutResult(status -> mealTemplate(PlanTemplates.DEFAULT_MEALS));
+        });
+    }
+
+    /**
+     * Returns the stored template with these exercises, inserting it if it does not exist yet
+     * on the transaction's shard. Must be called inside a transaction.
+     * 
+     * @param goal      The goal the exercises were chosen for
+     * @param exercises The exercises of a computed plan
+     * @return A reference usable as ExercisePlan.template
+     */
+    public ExercisePlanTemplate exerciseTemplate(Goal goal, List<ExerciseTemplate> exercises) {
+        String hash = TemplateHashes.exerciseHash(exercises);
+        if (!storedHashes.contains(storedKey(hash))) {
+            // find() answers from the persistence context when this transaction already stored it
+            if (entityManager.find(ExercisePlanTemplate.class, hash) == null
+                    && exercisePlanTemplateRepository.insertIfAbsent(hash, goal.name()) == 1) {
+                ExercisePlanTemplate template = entityManager.getReference(ExercisePlanTemplate.class, hash);
+                for (ExerciseTemplate exercise : exercises) {
+                    entityManager.persist(PlanEntityMapper.toExerciseSet(template, exercise));
+                }
+            }
+            markStoredAfterCommit(hash);
+        }
+        return entityManager.getReference(ExercisePlanTemplate.class, hash);
+    }
+
+    /**
+     * Returns the stored template with these food lists, inserting it if it does not exist yet
+     * on the transaction's shard. Must be called inside a transaction.
+     * 
+     * @param mealTemplate The food lists of a computed plan
+     * @return A reference usable as NutritionPlan.mealTemplate
+     */
+    public MealPlanTemplate mealTemplate(MealTemplate mealTemplate) {
+        String hash = TemplateHashes.mealHash(mealTemplate);
+        if (!storedHashes.contains(storedKey(hash))) {
+            if (entityManager.find(MealPlanTemplate.class, hash) == null) {
+                mealPlanTemplateRepository.insertIfAbsent(hash,
+                        FOODS.convertToDatabaseColumn(mealTemplate.breakfastFoods()),
+                        FOODS.convertToDatabaseColumn(mealTemplate.lunchFoods()),
+                        FOODS.convertToDatabaseColumn(mealTemplate.dinnerFoods()),
+                        FOODS.convertToDatabaseColumn(mealTemplate.preWorkoutFoods()),
+                        FOODS.convertToDatabaseColumn(mealTemplate.postWorkoutFoods()));
+            }
+            markStoredAfterCommit(hash);
+        }
+        return entityManager.getReference(MealPlanTemplate.class, hash);
+    }
+
+    /**
+     * Builds the API representation of a plan pair, taking the exercise sets and food lists
+     * from the template cache.
+     * 
+     * @param dietPlan The plan entities
+     * @return The DTO
+     */
+    public DietPlanDto toDto(DietPlanResponse dietPlan) {
+        ExercisePlan exercisePlan = dietPlan.getExercisePlan();
+        NutritionPlan nutritionPlan = dietPlan.getNutritionPlan();
+        if (exercisePlan.getTemplate() == null || nutritionPlan.getMealTemplate() == null) {
+            throw new IllegalStateException("Plan " + exercisePlan.getId() + "/" + nutritionPlan.getId()
+                    + " has no template; run db/manual/plan-templates.sql");
+        }
+        // getHash() on a lazy reference returns the id without loading the template row
+        return DietPlanDto.from(dietPlan,
+                exerciseSets(exercisePlan.getTemplate().getHash()),
+                meals(nutritionPlan.getMealTemplate().getHash()));
+    }
+
+    /**
+     * Returns the exercise sets of a stored template, from the cache when possible.
+     * 
+     * @param hash The template's content hash
+     * @return The sets, in template order
+     */
+    public List<ExerciseSetDto> exerciseSets(String hash) {
+        return exerciseSets.get(hash, key -> transactionTemplate.execute(status ->
+                exercisePlanTemplateRepository.findWithSetsByHash(key)
+                        .map(template -> template.getExerciseSets().stream().map(ExerciseSetDto::from).toList())
+                        .orElseThrow(() -> new IllegalStateException("Exercise template not found: " + key))));
+    }
+
+    private MealTemplate meals(String hash) {
+        // On the primary: a template referenced by a plan just written may not be on the replica yet
+        return meals.get(hash, key -> ReplicaRouting.onPrimary(() -> mealPlanTemplateRepository.findById(key))
+                .map(PlanEntityMapper::toMealTemplate)
+                .orElseThrow(() -> new IllegalStateException("Meal template not found: " + key)));
+    }
+
+    private void markStoredAfterCommit(String hash) {
+        String key = storedKey(hash);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                storedHashes.add(key);
+            }
+        });
+    }
+
+    private static String storedKey(String hash) {
+        return ShardRouting.currentShard() + "/" + hash;
+    }
+}
@@ -0,0 +1,118 @@
+package com.project.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.backend.config.ReplicaRouting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes protection for the read replica.
+ * Users written by this instance are remembered for a short window (longer than the expected
+ * replica lag); their reads run on the primary during that window, so a client never sees its
+ * own profile or plan change disappear. Other users' reads go to the replica as usual.
+ *
+ * The memory is per instance, so a write made during a request also hands the client a
+ * last-write cookie (the write time in epoch milliseconds, expiring with the window). Reads of
+ * a request that carries a recent one run on the primary whichever instance serves it, so the
+ * client's next request may go to any instance behind the load balancer.
+ * Bulk jobs (import, regeneration) do not record their users.
+ */
+@Component
+public class ReadYourWrites {
+
+    /**
+     * Name of the cookie carrying the time of the client's latest write.
+     */
+    public static final String COOKIE = "last-write";
+
+    // Set on a request once its response carries the cookie
+    private static final String COOKIE_SET = ReadYourWrites.class.getName() + ".cookieSet";
+
+    private final Duration window;
+    private final Cache<UUID, Boolean> recentWrites;
+    private final Counter primaryReads;
+
+    public ReadYourWrites(@Value("${app.datasource.read-your-writes.window:5s}") Duration window,
+                          @Value("${app.datasource.read-your-writes.max-users:100000}") long maxUsers,
+                          MeterRegistry meterRegistry) {
+        this.window = window;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(window)
+                .build();
+        this.primaryReads = meterRegistry.counter("datasource.read.your.writes.primary.reads");
+    }
+
+    /**
+     * Records that the user's data was just written on the primary. Within a request, also
+     * sets the last-write cookie on the response.
+     *
+     * @param userId The unique identifier of the user
+     */
+    public void recordWrite(UUID userId) {
+        recentWrites.put(userId, Boolean.TRUE);
+
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getResponse() != null
+                && attributes.getAttribute(COOKIE_SET, ServletRequestAttributes.SCOPE_REQUEST) == null) {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis()));
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            HttpServletResponse response = attributes.getResponse();
+            response.addCookie(cookie);
+            attributes.setAttribute(COOKIE_SET, Boolean.TRUE, ServletRequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Runs a read of the user's data, on the primary if the user was written within the window
+     * by this instance, or the current request's client wrote within the window.
+     *
+     * @param userId The user the read is about
+     * @param read   The read; it must start its own (read-only) transaction
+     * @return The read's result
+     */
+    public <T> T read(UUID userId, Supplier<T> read) {
+        if (recentWrites.getIfPresent(userId) == null && !clientWroteRecently()) {
+            return read.get();
+        }
+        primaryReads.increment();
+        return ReplicaRouting.onPrimary(read);
+    }
+
+    private boolean clientWroteRecently() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getCookies() == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    long writtenAt = Long.parseLong(cookie.getValue());
+                    // Tolerates a little clock skew between instances; ignores times in the future beyond that
+                    return writtenAt > now - window.toMillis() && writtenAt < now + window.toMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,276 @@
+package com.project.backend.services;
+
+import com.project.backend.config.ShardRouting;
+import com.project.backend.model.JobCheckpoint;
+import com.project.backend.model.JobProgress;
+import com.project.backend.model.Uuids;
+import com.project.backend.repositories.JobCheckpointRepository;
+import com.project.backend.repositories.UserShardMoveRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Online resharding: moves the users that belong to shards added to app.sharding.shards
+ * (beyond app.sharding.active-shards) while the application keeps serving them.
+ *
+ * Each source shard is walked in userId order. For a page of users, the leaving users' rows
+ * are locked on the source, copied to their new shard and committed there; then the source's
+ * cursor is checkpointed (from then on ShardRouter sends those users to the new shard) and
+ * the rows are deleted from the source, which releases the locks. Requests for these users
+ * wait on the locks meanwhile rather than seeing a half-moved user. An interrupted run
+ * resumes from the checkpoints.
+ *
+ * When all sources are walked, every cursor is set to the end, so all users are routed by the
+ * new ring, and after grace-period (for other instances to reload the cursors) each source is
+ * scanned once more for users created there during the move (moved now) and for copies left
+ * behind by an interrupted run (deleted). Afterwards set app.sharding.active-shards to the
+ * number of shards (or remove it) for the next start.
+ *
+ * Only one instance should run a rebalance at a time. Shards can be added, not removed.
+ */
+@Service
+public class ShardRebalancer {
+
+    public static final String JOB_NAME = "shard-rebalance";
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserShardMoveRepository userShardMoveRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.sharding.rebalance.page-size:500}")
+    private int pageSize;
+
+    @Value("${app.sharding.rebalance.grace-period:5s}")
+    private Duration gracePeriod;
+
+    // Writes to the target shard and the checkpoint while the source transaction holds its locks
+    private TransactionTemplate newTransaction;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, JOB_NAME));
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Progress of the current (or last) run, read by status requests from other threads
+    private volatile long movedThisRun;
+    private volatile long movedTotal;
+    private volatile UUID lastKey;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    @PostConstruct
+    void createTransactionTemplate() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Starts moving users in the background unless a run is already in progress.
+     *
+     * @return The progress right after starting (or of the run already in progress), or null
+     *         if no shards were added (app.sharding.active-shards equals the number of shards)
+     */
+    public JobProgress start() {
+        if (!shardRouter.rebalancing()) {
+            return null;
+        }
+        if (running.compareAndSet(false, true)) {
+            movedThisRun = 0;
+            startedAt = Instant.now();
+            finishedAt = null;
+            error = null;
+            executor.submit(this::run);
+        }
+        return progress();
+    }
+
+    /**
+     * @return Progress and throughput (users moved per second) of the current (or last) run
+     */
+    public JobProgress progress() {
+        Instant start = startedAt;
+        double usersPerSecond = 0;
+        if (start != null) {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long elapsedMillis = Math.max(1, Duration.between(start, end).toMillis());
+            usersPerSecond = movedThisRun * 1000.0 / elapsedMillis;
+        }
+        UUID key = lastKey;
+        return new JobProgress(JOB_NAME, running.get(), movedThisRun, movedTotal,
+                key == null ? null : key.toString(),
+                usersPerSecond, start, finishedAt, error);
+    }
+
+    private void run() {
+        try {
+            ShardRouter.Placement placement = shardRouter.placement();
+            int sources = placement.ring().shards();
+            ShardRing target = placement.target();
+
+            Map<Integer, JobCheckpoint> checkpoints = new HashMap<>();
+            for (int source = 0; source < sources; source++) {
+                String name = ShardRouter.checkpointName(target.shards(), source);
+                checkpoints.put(source, ShardRouting.onShard(ShardRouting.DEFAULT_SHARD,
+                                () -> jobCheckpointRepository.findById(name))
+                        .orElseGet(() -> new JobCheckpoint(name, null, 0, null, null)));
+            }
+            movedTotal = checkpoints.values().stream().mapToLong(JobCheckpoint::getProcessed).sum();
+
+            for (int source = 0; source < sources; source++) {
+                moveLeavingUsers(source, target, checkpoints.get(source));
+            }
+
+            // Route every user by the new ring, then give other instances time to reload the cursors
+            for (int source = 0; source < sources; source++) {
+                saveCheckpoint(checkpoints.get(source), Uuids.MAX, 0);
+                shardRouter.advance(source, Uuids.MAX);
+            }
+            Thread.sleep(gracePeriod.toMillis());
+            for (int source = 0; source < sources; source++) {
+                reconcile(source);
+            }
+
+            log.info("Shard rebalance finished: {} users moved; set app.sharding.active-shards={} (or remove it)",
+                    movedThisRun, target.shards());
+        } catch (InterruptedException e) {
+            error = "Interrupted";
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            log.error("Shard rebalance stopped after key {}", lastKey, e);
+        } finally {
+            finishedAt = Instant.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Walks the source shard from its checkpointed cursor and moves every user that belongs
+     * to another shard in the target ring.
+     */
+    private void moveLeavingUsers(int source, ShardRing target, JobCheckpoint checkpoint) {
+        UUID cursor = checkpoint.getLastKey() == null ? Uuids.MIN : UUID.fromString(checkpoint.getLastKey());
+        if (cursor.equals(Uuids.MAX)) {
+            return;
+        }
+        List<UUID> page;
+        do {
+            UUID after = cursor;
+            page = ShardRouting.onShard(source, () -> userShardMoveRepository.findUserIdsAfter(after, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<UUID> leaving = page.stream().filter(userId -> target.shardOf(userId) != source).toList();
+            cursor = page.get(page.size() - 1);
+            move(source, target, leaving, checkpoint, cursor);
+        } while (page.size() == pageSize);
+    }
+
+    /**
+     * Moves the users from the source shard to their shards in the target ring, in one source
+     * transaction holding their row locks. With a checkpoint, the source's cursor is advanced
+     * to the given key after the copies are committed and before the source rows are deleted.
+     */
+    private void move(int source, ShardRing target, List<UUID> userIds, JobCheckpoint checkpoint, UUID cursor) {
+        int moved = ShardRouting.onShard(source, () -> transactionTemplate.execute(status -> {
+            List<UUID> locked = userIds.isEmpty() ? List.of() : userShardMoveRepository.lockUsers(userIds);
+            Map<Integer, List<UUID>> byTarget = new TreeMap<>();
+            for (UUID userId : locked) {
+                byTarget.computeIfAbsent(target.shardOf(userId), shard -> new ArrayList<>()).add(userId);
+            }
+            for (Map.Entry<Integer, List<UUID>> group : byTarget.entrySet()) {
+                UserShardMoveRepository.UserRows rows = userShardMoveRepository.read(group.getValue());
+                ShardRouting.onShard(group.getKey(), () -> newTransaction.execute(copy -> {
+                    userShardMoveRepository.write(rows);
+                    return null;
+                }));
+            }
+            if (checkpoint != null) {
+                saveCheckpoint(checkpoint, cursor, locked.size());
+                shardRouter.advance(source, cursor);
+            }
+            if (!locked.isEmpty()) {
+                userShardMoveRepository.delete(locked);
+            }
+            return locked.size();
+        }));
+        movedThisRun += moved;
+        movedTotal += moved;
+        lastKey = cursor != null ? cursor : lastKey;
+    }
+
+    /**
+     * Final pass over a source shard, once every user is routed by the target ring: moves users
+     * created on the source while it was walked, and deletes copies whose move was interrupted
+     * after the target committed.
+     */
+    private void reconcile(int source) {
+        ShardRing target = shardRouter.placement().target();
+        UUID cursor = Uuids.MIN;
+        List<UUID> page;
+        do {
+            UUID after = cursor;
+            page = ShardRouting.onShard(source, () -> userShardMoveRepository.findUserIdsAfter(after, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<UUID> misplaced = page.stream().filter(userId -> target.shardOf(userId) != source).toList();
+            if (!misplaced.isEmpty()) {
+                Set<UUID> copied = new HashSet<>();
+                shardRouter.groupByShard(misplaced, userId -> userId).forEach((shard, userIds) ->
+                        copied.addAll(ShardRouting.onShard(shard,
+                                () -> userShardMoveRepository.findExistingUserIds(userIds))));
+                List<UUID> leftBehind = misplaced.stream().filter(copied::contains).toList();
+                if (!leftBehind.isEmpty()) {
+                    ShardRouting.onShard(source, () -> transactionTemplate.execute(status -> {
+                        userShardMoveRepository.delete(leftBehind);
+                        return null;
+                    }));
+                }
+                move(source, target, misplaced.stream().filter(userId -> !copied.contains(userId)).toList(), null, null);
+            }
+            cursor = page.get(page.size() - 1);
+        } while (page.size() == pageSize);
+    }
+
+    private void saveCheckpoint(JobCheckpoint checkpoint, UUID cursor, int moved) {
+        checkpoint.setLastKey(cursor.toString());
+        checkpoint.setProcessed(checkpoint.getProcessed() + moved);
+        ShardRouting.onShard(ShardRouting.DEFAULT_SHARD,
+                () -> newTransaction.execute(status -> jobCheckpointRepository.save(checkpoint)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,70 @@
+package com.project.backend.services;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Consistent hashing of userIds onto shards. Each shard owns VIRTUAL_NODES points on a 64-bit
+ * ring; a user belongs to the shard owning the first point at or after the user's hash.
+ *
+ * The points of shard i do not depend on the number of shards, so a ring with more shards only
+ * adds points: growing from N to N + k shards moves about k / (N + k) of the users, all of them
+ * to the new shards, and none between the existing ones.
+ */
+final class ShardRing {
+
+    private static final int VIRTUAL_NODES = 256;
+
+    private final int shards;
+    private final long[] points;
+    private final int[] owners;
+
+    ShardRing(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = shards;
+        int size = shards * VIRTUAL_NODES;
+        long[] unsortedPoints = new long[size];
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                unsortedPoints[shard * VIRTUAL_NODES + node] = mix(((long) shard << 32) | node);
+            }
+        }
+        // Sorted by point; equal points (practically impossible) are ordered by shard
+        int[] order = IntStream.range(0, size).boxed()
+                .sorted(Comparator.<Integer>comparingLong(i -> unsortedPoints[i]).thenComparingInt(i -> i))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = unsortedPoints[order[i]];
+            owners[i] = order[i] / VIRTUAL_NODES;
+        }
+    }
+
+    int shards() {
+        return shards;
+    }
+
+    int shardOf(UUID userId) {
+        long hash = mix(userId.getMostSignificantBits() ^ mix(userId.getLeastSignificantBits()));
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * SplitMix64 finalizer: spreads the time-ordered bits of version 7 UUIDs over the ring.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
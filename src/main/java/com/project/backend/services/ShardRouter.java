@@ -0,0 +1,290 @@
+package com.project.backend.services;
+
+import com.project.backend.config.ShardDataSources;
+import com.project.backend.config.ShardRouting;
+import com.project.backend.metrics.RequestQueryStats;
+import com.project.backend.model.JobCheckpoint;
+import com.project.backend.model.Uuids;
+import com.project.backend.repositories.JobCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard holds a user and runs work there (see ShardingDataSourceConfig).
+ * A user's row, plans and weigh-ins always live on the same shard, picked by consistent
+ * hashing (ShardRing) of the userId over the first app.sharding.active-shards shards.
+ * Without sharding there is one shard and every method runs its work directly.
+ *
+ * When more shards are configured than are active, ShardRebalancer moves the users that
+ * belong to the added shards. During the move the users of each source shard are routed
+ * by a cursor: users up to the cursor were moved (or belong to the added shards from now
+ * on), the others are still on the source. The cursors are checkpointed on the default
+ * shard; other instances reload them every app.sharding.rebalance.refresh-interval, and a
+ * user not found on its old shard is looked up again with fresh cursors.
+ *
+ * A write routed by cursors that are a moment old can reach the source shard of a user that is
+ * being moved. While a rebalance is running, writes therefore lock the user's row first (which
+ * waits for a move in progress) and treat a missing row as a sign to reload the cursors and
+ * retry on the user's new shard (forUser, moved), so they are never committed behind a move.
+ */
+@Component
+public class ShardRouter {
+
+    static final String REBALANCE_JOB_PREFIX = "shard-rebalance-";
+
+    @Autowired(required = false)
+    private ShardDataSources shardDataSources;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Value("${app.sharding.active-shards:0}")
+    private int activeShards;
+
+    private volatile Placement placement;
+
+    // Fan-out queries block on JDBC, one virtual thread per shard
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    void loadPlacement() {
+        int shards = shardCount();
+        int active = activeShards > 0 ? activeShards : shards;
+        if (active > shards) {
+            throw new IllegalStateException("app.sharding.active-shards=" + active
+                    + " but only " + shards + " shards are configured");
+        }
+        UUID[] cursors = new UUID[active];
+        Arrays.fill(cursors, Uuids.MIN);
+        placement = new Placement(new ShardRing(active), active < shards ? new ShardRing(shards) : null, cursors);
+        refresh();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return Number of configured shards (1 without sharding)
+     */
+    public int shardCount() {
+        return shardDataSources == null ? 1 : shardDataSources.count();
+    }
+
+    /**
+     * @param userId The unique identifier of the user
+     * @return The shard holding the user
+     */
+    public int shardOf(UUID userId) {
+        return placement.shardOf(userId);
+    }
+
+    /**
+     * @return true if the rows read on this shard for the user are the user's current ones
+     *         (false for a copy left behind or not yet removed by a rebalance)
+     */
+    public boolean owns(int shard, UUID userId) {
+        return shardOf(userId) == shard;
+    }
+
+    /**
+     * Runs the action on the user's shard. Transactions must start inside the action.
+     * If the user is not found and a rebalance may have just moved it, the placement is
+     * reloaded and the action retried once on the user's new shard.
+     *
+     * @param userId The unique identifier of the user
+     * @param action The work for this user
+     * @return The action's result
+     */
+    public <T> T forUser(UUID userId, Supplier<T> action) {
+        int shard = shardOf(userId);
+        try {
+            return ShardRouting.onShard(shard, action);
+        } catch (UserNotFoundException e) {
+            if (placement.target() == null) {
+                throw e;
+            }
+            refresh();
+            int movedTo = shardOf(userId);
+            if (movedTo == shard) {
+                throw e;
+            }
+            return ShardRouting.onShard(movedTo, action);
+        }
+    }
+
+    /**
+     * For a write that locked its users' rows on the shard and found some of them missing:
+     * reloads the cursors and groups the items of users a rebalance moved to another shard
+     * by that shard. Items of users still routed here (no such user) are left out.
+     *
+     * @param shard  The shard the write ran on
+     * @param items  The items whose user had no row there
+     * @param userId The user of an item
+     * @return The items to write again, per shard; empty unless a rebalance is running
+     */
+    public <T> SortedMap<Integer, List<T>> moved(int shard, Collection<T> items, Function<T, UUID> userId) {
+        if (items.isEmpty() || !rebalancing()) {
+            return new TreeMap<>();
+        }
+        refresh();
+        SortedMap<Integer, List<T>> groups = groupByShard(items, userId);
+        groups.remove(shard);
+        return groups;
+    }
+
+    /**
+     * Splits items by the shard of their user, preserving their order within each shard.
+     *
+     * @param items  The items
+     * @param userId The user of an item
+     * @return The items per shard, in shard order
+     */
+    public <T> SortedMap<Integer, List<T>> groupByShard(Collection<T> items, Function<T, UUID> userId) {
+        SortedMap<Integer, List<T>> groups = new TreeMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(shardOf(userId.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Runs the action on every shard at once, each on its own thread.
+     *
+     * @param action The work for one shard, given the shard index
+     * @return The results in shard order
+     */
+    public <T> List<T> fanOut(IntFunction<T> action) {
+        int shards = shardCount();
+        if (shards == 1) {
+            return List.of(ShardRouting.onShard(0, () -> action.apply(0)));
+        }
+        List<Future<T>> futures = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            futures.add(executor.submit(RequestQueryStats.propagate(
+                    () -> ShardRouting.onShard(target, () -> action.apply(target)))));
+        }
+        List<T> results = new ArrayList<>(shards);
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the shards", e);
+            } catch (ExecutionException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs the action on each shard in turn, on the calling thread.
+     *
+     * @param action The work for one shard, given the shard index
+     */
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < shardCount(); shard++) {
+            int target = shard;
+            ShardRouting.onShard(target, () -> {
+                action.accept(target);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * @return true if users still have to be moved to shards added to the configuration
+     */
+    public boolean rebalancing() {
+        return placement.target() != null;
+    }
+
+    Placement placement() {
+        return placement;
+    }
+
+    /**
+     * Records that the users of the source shard up to the cursor are routed by the target ring.
+     * Called by ShardRebalancer after the cursor's checkpoint was committed.
+     */
+    synchronized void advance(int source, UUID cursor) {
+        Placement current = placement;
+        UUID[] cursors = current.cursors().clone();
+        cursors[source] = cursor;
+        placement = new Placement(current.ring(), current.target(), cursors);
+    }
+
+    /**
+     * Reloads the rebalance cursors checkpointed by the instance running ShardRebalancer.
+     */
+    @Scheduled(fixedDelayString = "${app.sharding.rebalance.refresh-interval:1s}")
+    void refresh() {
+        Placement current = placement;
+        if (current.target() == null) {
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        for (int source = 0; source < current.ring().shards(); source++) {
+            names.add(checkpointName(current.target().shards(), source));
+        }
+        List<JobCheckpoint> checkpoints = ShardRouting.onShard(ShardRouting.DEFAULT_SHARD,
+                () -> jobCheckpointRepository.findAllById(names));
+        synchronized (this) {
+            UUID[] cursors = placement.cursors().clone();
+            for (JobCheckpoint checkpoint : checkpoints) {
+                int source = names.indexOf(checkpoint.getJobName());
+                UUID cursor = checkpoint.getLastKey() == null ? Uuids.MIN : UUID.fromString(checkpoint.getLastKey());
+                // Cursors only move forward; this instance may already be ahead of the committed state
+                if (Uuids.ORDER.compare(cursor, cursors[source]) > 0) {
+                    cursors[source] = cursor;
+                }
+            }
+            placement = new Placement(current.ring(), current.target(), cursors);
+        }
+    }
+
+    /**
+     * @return Name of the JobCheckpoint holding the cursor of one source shard while growing to targetShards
+     */
+    static String checkpointName(int targetShards, int source) {
+        return REBALANCE_JOB_PREFIX + targetShards + "-" + source;
+    }
+
+    /**
+     * The active ring and, while more shards are configured than active, the ring over all
+     * shards with the per-source-shard cursors of the move.
+     */
+    record Placement(ShardRing ring, ShardRing target, UUID[] cursors) {
+
+        int shardOf(UUID userId) {
+            int shard = ring.shardOf(userId);
+            if (target == null) {
+                return shard;
+            }
+            int targetShard = target.shardOf(userId);
+            return targetShard != shard && Uuids.ORDER.compare(userId, cursors[shard]) <= 0 ? targetShard : shard;
+        }
+    }
+}
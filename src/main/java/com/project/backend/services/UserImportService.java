@@ -0,0 +1,287 @@
+package com.project.backend.services;
+
+import com.project.backend.config.ShardRouting;
+import com.project.backend.model.ImportReport;
+import com.project.backend.model.ImportRowError;
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.Uuids;
+import com.project.backend.repositories.UserInfoBatchRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of users from partner files (CSV with a header row, or NDJSON).
+ * 
+ * The file is read line by line and processed in chunks: each chunk is parsed and
+ * Bean-Validated in parallel, checked for unique emails (within the chunk, then with one
+ * lookup of the chunk's emails per shard, which also covers earlier chunks of the file),
+ * and written with one batched INSERT in its own transaction. Memory therefore depends on
+ * the chunk size, not the file size. Invalid rows are reported, not imported.
+ * With several shards each chunk is written with one INSERT batch and transaction per shard.
+ * If such a batch fails (e.g. an email inserted concurrently), its rows are inserted one by
+ * one so that only the rows that fail themselves are rejected.
+ * 
+ * User ids are always assigned here (UUIDv7); a row that supplies one is rejected, so an
+ * import cannot write to ids chosen by the partner.
+ */
+@Service
+public class UserImportService {
+
+    @Autowired
+    private UserInfoBatchRepository userInfoBatchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Imports every row of the file.
+     * 
+     * @param in  The file contents (UTF-8)
+     * @param csv true for CSV with a header row (columns named like UserInfo's fields), false for NDJSON
+     * @return Counts and per-row errors
+     * @throws IOException if the input cannot be read
+     */
+    public ImportReport importUsers(InputStream in, boolean csv) throws IOException {
+        long startNanos = System.nanoTime();
+        ImportRun run = new ImportRun();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String[] header = null;
+        if (csv) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                return run.report(startNanos);
+            }
+            header = parseCsvLine(headerLine);
+        }
+
+        List<RawRow> chunk = new ArrayList<>(chunkSize);
+        long rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(new RawRow(++rowNumber, line));
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, header, run);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, header, run);
+        }
+        return run.report(startNanos);
+    }
+
+    private void importChunk(List<RawRow> chunk, String[] header, ImportRun run) {
+        // Parsing and validation are independent per row, so they run in parallel (order preserved)
+        List<ParsedRow> parsedRows = chunk.parallelStream()
+                .map(row -> parseAndValidate(row, header))
+                .toList();
+
+        // Keyed by normalized email, so the first row with an email wins within the chunk
+        Map<String, ParsedRow> candidates = new LinkedHashMap<>();
+        for (ParsedRow row : parsedRows) {
+            run.totalRows++;
+            if (row.error() != null) {
+                run.reject(row.rowNumber(), row.user() == null ? null : row.user().getEmail(), row.error());
+            } else if (row.user().getUserId() != null) {
+                run.reject(row.rowNumber(), row.user().getEmail(), "userId must not be set; it is assigned on import");
+            } else if (candidates.putIfAbsent(normalizeEmail(row.user().getEmail()), row) != null) {
+                run.reject(row.rowNumber(), row.user().getEmail(), "Email already exists");
+            }
+        }
+
+        Set<String> existingEmails = findExistingEmails(candidates.keySet());
+        List<ParsedRow> rowsToInsert = new ArrayList<>(candidates.size());
+        candidates.forEach((email, row) -> {
+            if (existingEmails.contains(email)) {
+                run.reject(row.rowNumber(), row.user().getEmail(), "Email already exists");
+            } else {
+                row.user().setUserId(Uuids.v7());
+                rowsToInsert.add(row);
+            }
+        });
+
+        shardRouter.groupByShard(rowsToInsert, row -> row.user().getUserId())
+                .forEach((shard, shardRows) -> insertRows(shard, shardRows, run));
+    }
+
+    /**
+     * @return Those of the (normalized) emails that are stored on any shard, normalized
+     */
+    private Set<String> findExistingEmails(Set<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> existing = new HashSet<>();
+        for (List<String> shardEmails : shardRouter.fanOut(shard -> userInfoBatchRepository.findExistingEmails(emails))) {
+            shardEmails.forEach(email -> existing.add(normalizeEmail(email)));
+        }
+        return existing;
+    }
+
+    private void insertRows(int shard, List<ParsedRow> rows, ImportRun run) {
+        try {
+            insertUsers(shard, rows.stream().map(ParsedRow::user).toList());
+            run.imported += rows.size();
+        } catch (DataAccessException e) {
+            // The whole batch was rolled back (e.g. an email inserted concurrently): find the rows at fault
+            for (ParsedRow row : rows) {
+                try {
+                    insertUsers(shard, List.of(row.user()));
+                    run.imported++;
+                } catch (DataAccessException rowException) {
+                    run.reject(row.rowNumber(), row.user().getEmail(),
+                            "Insert failed: " + rowException.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void insertUsers(int shard, List<UserInfo> users) {
+        ShardRouting.onShard(shard, () -> transactionTemplate.execute(status -> {
+            userInfoBatchRepository.insertAll(users);
+            return null;
+        }));
+    }
+
+    private ParsedRow parseAndValidate(RawRow row, String[] header) {
+        UserInfo user;
+        try {
+            user = header != null ? parseCsvUser(header, parseCsvLine(row.line())) : jsonMapper.readValue(row.line(), UserInfo.class);
+        } catch (JacksonException | IllegalArgumentException e) {
+            return new ParsedRow(row.rowNumber(), null, "Unreadable row: " + e.getMessage());
+        }
+
+        Set<ConstraintViolation<UserInfo>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return new ParsedRow(row.rowNumber(), user, message);
+        }
+        return new ParsedRow(row.rowNumber(), user, null);
+    }
+
+    private static UserInfo parseCsvUser(String[] header, String[] fields) {
+        if (fields.length != header.length) {
+            throw new IllegalArgumentException("expected " + header.length + " columns but found " + fields.length);
+        }
+        UserInfo user = new UserInfo();
+        for (int i = 0; i < header.length; i++) {
+            String value = fields[i].trim();
+            switch (header[i].trim()) {
+                case "userId" -> user.setUserId(value.isEmpty() ? null : UUID.fromString(value));
+                case "name" -> user.setName(value);
+                case "email" -> user.setEmail(value);
+                case "age" -> user.setAge(Integer.parseInt(value));
+                case "gender" -> user.setGender(value);
+                case "height" -> user.setHeight(Double.parseDouble(value));
+                case "currWeight" -> user.setCurrWeight(Double.parseDouble(value));
+                case "desiredWeight" -> user.setDesiredWeight(Double.parseDouble(value));
+                case "targetDays" -> user.setTargetDays(Integer.parseInt(value));
+                case "dietaryExclusions" -> user.setDietaryExclusions(value.isEmpty() ? null : value);
+                default -> throw new IllegalArgumentException("unknown column '" + header[i] + "'");
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Splits one CSV line on commas, honouring double-quoted fields ("" is an escaped quote).
+     */
+    static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record RawRow(long rowNumber, String line) {
+    }
+
+    private record ParsedRow(long rowNumber, UserInfo user, String error) {
+    }
+
+    /**
+     * Mutable state of one import call (only touched by the calling thread).
+     */
+    private class ImportRun {
+
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private long rejected;
+
+        private void reject(long rowNumber, String email, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowError(rowNumber, email, message));
+            }
+        }
+
+        private ImportReport report(long startNanos) {
+            double seconds = Math.max(Duration.ofNanos(System.nanoTime() - startNanos).toMillis(), 1) / 1000.0;
+            return new ImportReport(totalRows, imported, rejected, totalRows / seconds, errors);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.project.backend.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/**
+ * Thrown when a user does not exist or has been deleted; answered with 404.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class UserNotFoundException extends RuntimeException {
+
+    public UserNotFoundException(UUID userId) {
+        super("User not found: " + userId);
+    }
+}
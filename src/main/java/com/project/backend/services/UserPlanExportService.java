@@ -0,0 +1,129 @@
+package com.project.backend.services;
+
+import com.project.backend.model.ExportResult;
+import com.project.backend.repositories.UserPlanExportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export of every user with its current exercise and nutrition plan, for analytics, as
+ * gzip-compressed newline-delimited JSON (one UserPlanExport per line).
+ * 
+ * Rows come from one forward-only JDBC cursor and are serialized straight into the compressor,
+ * so memory stays flat however many users exist; the shared exercise sets come from the
+ * template cache instead of one query per user. Compression defaults to the fastest level,
+ * which keeps the export close to disk/network speed rather than CPU bound.
+ * With several shards they are read one shard after the other; run it when no shard
+ * rebalance is in progress, since a user moved meanwhile may be exported twice or not at all.
+ */
+@Service
+public class UserPlanExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPlanExportService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    @Autowired
+    private UserPlanExportRepository userPlanExportRepository;
+
+    @Autowired
+    private PlanTemplateStore planTemplateStore;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${app.export.directory:exports}")
+    private String directory;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.export.compression-level:1}")
+    private int compressionLevel;
+
+    /**
+     * Writes the export to a stream. The stream is not closed.
+     * 
+     * @param out The stream to write to (typically the HTTP response body)
+     * @return The number of users written
+     * @throws IOException if writing fails
+     */
+    public long export(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(compressionLevel);
+            }
+        };
+        long[] rows = {0};
+        try (SequenceWriter writer = jsonMapper.writer()
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(gzip)) {
+            shardRouter.forEachShard(shard -> userPlanExportRepository.streamAll(fetchSize, (row, exerciseTemplateHash) -> {
+                if (!shardRouter.owns(shard, row.getUser().getUserId())) {
+                    return;
+                }
+                if (exerciseTemplateHash != null) {
+                    row.getExercisePlan().setExerciseSets(planTemplateStore.exerciseSets(exerciseTemplateHash));
+                }
+                writer.write(row);
+                rows[0]++;
+            }));
+        }
+        if (rows[0] > 0) {
+            gzip.write('\n');
+        }
+        gzip.finish();
+        return rows[0];
+    }
+
+    /**
+     * Writes the export to a new file in app.export.directory. The file is written under a
+     * temporary name and renamed when complete, so readers never see a partial export.
+     * 
+     * @return The file written, with row count and size
+     * @throws IOException if the file cannot be written
+     */
+    public ExportResult exportToFile() throws IOException {
+        Instant startedAt = Instant.now();
+        Path dir = Files.createDirectories(Path.of(directory));
+        Path target = dir.resolve("user-plans-" + FILE_TIMESTAMP.format(startedAt) + ".ndjson.gz");
+        Path partial = dir.resolve(target.getFileName() + ".part");
+
+        long rows;
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            rows = export(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+
+        Instant finishedAt = Instant.now();
+        double seconds = Math.max(Duration.between(startedAt, finishedAt).toNanos() / 1e9, 1e-9);
+        long bytes = Files.size(target);
+        log.info("Exported {} users with their plans to {} ({} bytes) in {} s", rows, target, bytes, seconds);
+        return new ExportResult(target.toAbsolutePath().toString(), rows, bytes, rows / seconds, startedAt, finishedAt);
+    }
+}
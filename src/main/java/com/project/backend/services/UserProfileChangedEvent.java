@@ -0,0 +1,12 @@
+package com.project.backend.services;
+
+import java.util.UUID;
+
+/**
+ * Published by UserService.saveUser when a user's profile was created or updated.
+ * Listeners registered for AFTER_COMMIT only see it once the new profile is visible.
+ *
+ * @param userId The unique identifier of the user
+ */
+public record UserProfileChangedEvent(UUID userId) {
+}
@@ -0,0 +1,124 @@
+package com.project.backend.services;
+
+import com.project.backend.repositories.PlanHistoryRepository;
+import com.project.backend.repositories.UserInfoBatchRepository;
+import com.project.backend.repositories.WeighInRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Background task that physically removes users marked deleted by UserService.deleteUser.
+ * 
+ * For a batch of deleted users it deletes their exercise plans, nutrition plans and
+ * weigh-ins by primary key, at most batch-size rows per statement and transaction, and finally
+ * their weigh-in aggregates and the user rows. Nothing is loaded into the persistence context, so the cost is a few
+ * set-based statements per batch instead of one DELETE per entity.
+ * With several shards each shard is reaped in turn.
+ */
+@Service
+public class UserReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(UserReaper.class);
+
+    @Autowired
+    private UserInfoBatchRepository userInfoBatchRepository;
+
+    @Autowired
+    private PlanHistoryRepository planHistoryRepository;
+
+    @Autowired
+    private WeighInRepository weighInRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${app.user-reaper.users-per-pass:100}")
+    private int usersPerPass;
+
+    @Value("${app.user-reaper.batch-size:500}")
+    private int batchSize;
+
+    private Counter usersReaped;
+    private Counter plansReaped;
+
+    @PostConstruct
+    void registerMetrics() {
+        usersReaped = Counter.builder("user.reaper.users").register(meterRegistry);
+        plansReaped = Counter.builder("user.reaper.plans").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-reaper.interval:30s}")
+    void scheduledRun() {
+        try {
+            shardRouter.forEachShard(shard -> {
+                int reaped;
+                do {
+                    reaped = reap();
+                } while (reaped == usersPerPass);
+            });
+        } catch (RuntimeException e) {
+            log.error("User reaper failed", e);
+        }
+    }
+
+    /**
+     * Removes up to users-per-pass deleted users with all their plans from the calling
+     * thread's shard.
+     * 
+     * @return The number of users removed
+     */
+    public int reap() {
+        List<UUID> userIds = userInfoBatchRepository.findDeletedUserIds(usersPerPass);
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        long plans = deleteAll(userIds, planHistoryRepository::findExercisePlanIdsOfUsers,
+                planHistoryRepository::deleteExercisePlans);
+        plans += deleteAll(userIds, planHistoryRepository::findNutritionPlanIdsOfUsers,
+                planHistoryRepository::deleteNutritionPlans);
+        int weighInsDeleted;
+        do {
+            weighInsDeleted = transactionTemplate.execute(
+                    status -> weighInRepository.deleteWeighInsOfUsers(userIds, batchSize));
+        } while (weighInsDeleted > 0);
+        transactionTemplate.executeWithoutResult(status -> {
+            weighInRepository.deleteAggregatesOfUsers(userIds);
+            userInfoBatchRepository.deleteDeletedUsers(userIds);
+        });
+
+        usersReaped.increment(userIds.size());
+        plansReaped.increment(plans);
+        log.debug("Reaped {} deleted users and {} plans", userIds.size(), plans);
+        return userIds.size();
+    }
+
+    private long deleteAll(List<UUID> userIds, BiFunction<List<UUID>, Integer, List<Long>> findIds,
+                           ToIntFunction<List<Long>> delete) {
+        long deleted = 0;
+        List<Long> ids;
+        while (!(ids = findIds.apply(userIds, batchSize)).isEmpty()) {
+            List<Long> batch = ids;
+            deleted += transactionTemplate.execute(status -> delete.applyAsInt(batch));
+        }
+        return deleted;
+    }
+}
@@ -1,20 +1,44 @@
 package com.project.backend.services;
 
+import com.project.backend.config.ShardRouting;
+import com.project.backend.metrics.DietPlanMetrics;
 import com.project.backend.model.*;
+import com.project.backend.planning.ComputedPlan;
 import com.project.backend.repositories.ExercisePlanRepository;
 import com.project.backend.repositories.NutritionPlanRepository;
+import com.project.backend.repositories.UserInfoBatchRepository;
 import com.project.backend.repositories.UserInfoRepository;
+import com.project.backend.repositories.UserInfoStreamRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.util.Arrays;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Service class for handling user-related business logic including
  * user CRUD operations and diet plan generation.
+ * Each user's reads and writes run on the user's shard (ShardRouter); listing all users
+ * queries every shard.
  */
 @Service
 public class UserService {
@@ -28,52 +52,242 @@ public class UserService {
     @Autowired
     private NutritionPlanRepository nutritionPlanRepository;
 
+    @Autowired
+    private UserInfoStreamRepository userInfoStreamRepository;
+
+    @Autowired
+    private UserInfoBatchRepository userInfoBatchRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private PayloadEncoder payloadEncoder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("readOnlyTransactionTemplate")
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private DietPlanCache dietPlanCache;
+
+    @Autowired
+    private DietPlanMetrics dietPlanMetrics;
+
+    @Autowired
+    private PlanTemplateStore planTemplateStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // At most one plan generation per userId runs in this instance; concurrent callers share its result
+    private final SingleFlight<UUID, EncodedDietPlan> dietPlanGenerations = new SingleFlight<>();
+
+    @Value("${app.users.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${app.users.stream.fetch-size:500}")
+    private int streamFetchSize;
 
     /**
      * Saves a user to the database. If the user already exists (same userId),
      * it will update the existing record. Otherwise, it creates a new user.
+     * An existing user's current plans are unset in the same transaction, since they were
+     * computed from the old profile. After the commit a UserProfileChangedEvent triggers
+     * background generation of a plan matching the new profile; if that is dropped or fails,
+     * the next diet-plan read generates it.
      * 
      * @param userInfo The user information to be saved
      * @return The saved user with generated userId if it was null
+     * @throws DataIntegrityViolationException if another user has the email
      */
     public UserInfo saveUser(UserInfo userInfo) {
-        return userInfoRepository.save(userInfo);
+        boolean isNew = userInfo.getUserId() == null;
+        if (isNew) {
+            // Assigned here rather than in @PrePersist: the id decides the shard the user is written to
+            userInfo.setUserId(Uuids.v7());
+        }
+        checkEmailNotUsedOnOtherShards(userInfo);
+        UserInfo savedUser = shardRouter.forUser(userInfo.getUserId(), () -> transactionTemplate.execute(status -> {
+            UserInfo saved = userInfo;
+            if (isNew) {
+                entityManager.persist(userInfo);
+            } else {
+                // Waits for a rebalance moving the user; gone afterwards means forUser retries on the new shard
+                if (shardRouter.rebalancing() && userInfoRepository.findByIdForUpdate(userInfo.getUserId()).isEmpty()) {
+                    throw new UserNotFoundException(userInfo.getUserId());
+                }
+                saved = userInfoRepository.save(userInfo);
+                userInfoBatchRepository.clearCurrentPlans(saved.getUserId());
+            }
+            eventPublisher.publishEvent(new UserProfileChangedEvent(saved.getUserId()));
+            return saved;
+        }));
+        readYourWrites.recordWrite(savedUser.getUserId());
+        dietPlanCache.invalidate(savedUser.getUserId());
+        return savedUser;
     }
 
     /**
      * Retrieves a user by their unique user ID.
+     * Read from the replica if one is configured, or from the primary right after this
+     * instance wrote the user (see ReadYourWrites).
      * 
      * @param userId The unique identifier of the user
      * @return The user information
-     * @throws RuntimeException if user is not found
+     * @throws UserNotFoundException if user is not found
+     */
+    public UserInfo getUser(UUID userId) {
+        return shardRouter.forUser(userId, () -> readYourWrites.read(userId, () -> userInfoRepository.findById(userId))
+                .orElseThrow(() -> new UserNotFoundException(userId)));
+    }
+
+    /**
+     * The unique constraint on the email only covers one shard, so with several shards the
+     * others are checked before saving. Two new users saved at the same moment with the same
+     * email on different shards are not detected.
+     */
+    private void checkEmailNotUsedOnOtherShards(UserInfo userInfo) {
+        if (shardRouter.shardCount() == 1 || userInfo.getEmail() == null) {
+            return;
+        }
+        int ownShard = shardRouter.shardOf(userInfo.getUserId());
+        boolean used = shardRouter.fanOut(shard -> shard != ownShard
+                && userInfoRepository.existsByEmailAndUserIdNot(userInfo.getEmail(), userInfo.getUserId())).contains(true);
+        if (used) {
+            throw new DataIntegrityViolationException("Email already exists: " + userInfo.getEmail());
+        }
+    }
+
+    /**
+     * Retrieves a user's profile (without plans), encoded in the requested format.
+     * 
+     * @param userId The unique identifier of the user
+     * @param format The wire format (JSON, CBOR or Smile)
+     * @return The encoded UserSummary
+     * @throws UserNotFoundException if user is not found
+     */
+    public byte[] getEncodedUser(UUID userId, PayloadFormat format) {
+        return payloadEncoder.encode(UserSummary.from(getUser(userId)), format);
+    }
+
+    /**
+     * Retrieves one page of users, ordered by userId.
+     * Uses keyset pagination: the caller passes the last userId it has seen
+     * instead of an offset, so deep pages are as cheap as the first one.
+     * 
+     * With several shards the page is read from all of them in parallel and merged. A shard's
+     * page may end before the others' do, so only users up to the lowest last userId of the full
+     * shard pages are certainly complete; if fewer than limit remain, the shards are read again
+     * from there.
+     * 
+     * @param afterUserId The last userId of the previous page, or null for the first page
+     * @param limit The requested page size (capped at app.users.page.max-size)
+     * @return Up to pageSize(limit) users whose userId is greater than afterUserId (read from the
+     *         replica if one is configured, so very recent changes may be missing)
+     */
+    public List<UserSummary> getAllUsers(UUID afterUserId, int limit) {
+        int pageSize = pageSize(limit);
+        UUID cursor = afterUserId == null ? Uuids.MIN : afterUserId;
+        if (shardRouter.shardCount() == 1) {
+            return userInfoRepository.findPageAfter(cursor, Limit.of(pageSize));
+        }
+
+        List<UserSummary> page = new ArrayList<>(pageSize);
+        while (true) {
+            UUID after = cursor;
+            List<List<UserSummary>> shardPages = shardRouter.fanOut(
+                    shard -> userInfoRepository.findPageAfter(after, Limit.of(pageSize)));
+
+            UUID complete = Uuids.MAX;
+            for (List<UserSummary> shardPage : shardPages) {
+                if (shardPage.size() == pageSize) {
+                    UUID last = shardPage.get(pageSize - 1).getUserId();
+                    complete = Uuids.ORDER.compare(last, complete) < 0 ? last : complete;
+                }
+            }
+            List<UserSummary> merged = new ArrayList<>();
+            for (int shard = 0; shard < shardPages.size(); shard++) {
+                for (UserSummary user : shardPages.get(shard)) {
+                    // Skips copies of users a rebalance is moving to or from this shard
+                    if (Uuids.ORDER.compare(user.getUserId(), complete) <= 0 && shardRouter.owns(shard, user.getUserId())) {
+                        merged.add(user);
+                    }
+                }
+            }
+            merged.sort(Comparator.comparing(UserSummary::getUserId, Uuids.ORDER));
+            page.addAll(merged.subList(0, Math.min(merged.size(), pageSize - page.size())));
+            if (page.size() == pageSize || complete.equals(Uuids.MAX)) {
+                return page;
+            }
+            cursor = complete;
+        }
+    }
+
+    /**
+     * @param limit The requested page size
+     * @return The number of users getAllUsers returns for a full page: limit, capped at
+     *         app.users.page.max-size (and at least 1)
      */
-    public UserInfo getUser(String userId) {
-        return userInfoRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found: " + userId));
+    public int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
     }
 
     /**
-     * Retrieves all users from the database.
+     * Writes every user as newline-delimited JSON (one object per line).
+     * Rows are read through a forward-only JDBC cursor and written as they arrive,
+     * so memory stays constant regardless of how many users exist.
+     * With several shards they are read one shard after the other (in userId order per shard);
+     * a user moved by a rebalance running meanwhile may be written twice or not at all.
      * 
-     * @return A list of all users
+     * @param out The stream to write to (typically the HTTP response body)
      */
-    public List<UserInfo> getAllUsers() {
-        return userInfoRepository.findAll();
+    public void streamAllUsers(OutputStream out) {
+        shardRouter.forEachShard(shard -> userInfoStreamRepository.streamAll(streamFetchSize, summary -> {
+            if (!shardRouter.owns(shard, summary.getUserId())) {
+                return;
+            }
+            try {
+                out.write(jsonMapper.writeValueAsBytes(summary));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
     }
     
     /**
-     * Deletes a user from the database by their unique user ID.
-     * Due to cascade configuration, all associated exercise plans and nutrition plans
-     * will also be deleted automatically.
+     * Deletes a user by their unique user ID.
+     * The user is only marked deleted (one single-row UPDATE, however long the plan history),
+     * which makes it invisible to all reads right away. Its exercise plans, nutrition plans,
+     * weigh-ins and the user row itself are removed in the background by UserReaper.
      * 
      * @param userId The unique identifier of the user to be deleted
-     * @throws RuntimeException if user is not found
+     * @throws UserNotFoundException if user is not found or already deleted
      */
-    public void deleteUser(String userId) {
+    public void deleteUser(UUID userId) {
         try {
-            userInfoRepository.deleteById(userId);
-        } catch (Exception e) {
-            throw new RuntimeException("User not found: " + userId);
+            shardRouter.forUser(userId, () -> {
+                if (!userInfoBatchRepository.markDeleted(userId)) {
+                    throw new UserNotFoundException(userId);
+                }
+                return null;
+            });
+            readYourWrites.recordWrite(userId);
+        } finally {
+            dietPlanCache.invalidate(userId);
         }
     }
     
@@ -89,171 +303,184 @@ public class UserService {
      *    - User's age, gender, height (for BMR calculation)
      * 4. Saves the new plan to database and returns it
      * 
+     * Concurrent calls for the same user (double clicks, retries, several tabs) are coalesced:
+     * only one of them runs the lookup/generation and the others share its result.
+     * Across app instances the generation itself is guarded by a row lock on the user.
+     * 
+     * The plan is converted to a DTO and encoded to JSON once; the result is kept in the
+     * in-process DietPlanCache, so repeated reads of the same plan are answered without
+     * touching the database or the serializer. It is not cached if the profile was saved
+     * while it was being read, since it may then be the old plan.
+     * 
      * @param userId The unique identifier of the user
-     * @return DietPlanResponse containing both exercise plan and nutrition plan
+     * @return The encoded diet plan (exercise plan and nutrition plan) with its ETag
      */
-    public DietPlanResponse generateDietPlan(String userId) {
-        UserInfo user = getUser(userId);
-
-        // Check if diet plan already exists for this user (most recent one)
-        Optional<ExercisePlan> existingExercisePlan = exercisePlanRepository
-                .findFirstByUser_UserIdOrderByCreatedAtDesc(userId);
-        Optional<NutritionPlan> existingNutritionPlan = nutritionPlanRepository
-                .findFirstByUser_UserIdOrderByCreatedAtDesc(userId);
-
-        // If both plans exist, return the existing ones (avoid regenerating)
-        if (existingExercisePlan.isPresent() && existingNutritionPlan.isPresent()) {
-            return new DietPlanResponse(existingExercisePlan.get(), existingNutritionPlan.get());
+    public EncodedDietPlan generateDietPlan(UUID userId) {
+        EncodedDietPlan cachedPlan = dietPlanCache.get(userId);
+        if (cachedPlan != null) {
+            return cachedPlan;
         }
 
-        // Otherwise, create new plans based on user's profile and goals
-        /* ================= GOAL DETECTION ================= */
-        // Calculate the difference between desired and current weight
-        double weightDiff = user.getDesiredWeight() - user.getCurrWeight();
-
-        // Determine the fitness goal based on weight difference
-        // If difference is less than 0.5kg, maintain current weight
-        String goal;
-        if (Math.abs(weightDiff) < 0.5) {
-            goal = "MAINTAIN";
-        } else if (weightDiff < 0) {
-            goal = "LOSE_WEIGHT"; // Want to lose weight (desired < current)
-        } else {
-            goal = "GAIN_WEIGHT"; // Want to gain weight (desired > current)
-        }
+        return dietPlanGenerations.execute(userId, () -> shardRouter.forUser(userId, () -> {
+            // Taken before reading: a profile saved meanwhile keeps the plan read here out of the cache
+            long generation = dietPlanCache.generation(userId);
+            EncodedDietPlan dietPlan = encode(findOrCreateDietPlan(userId));
+            dietPlanCache.putIfCurrent(userId, generation, dietPlan);
+            return dietPlan;
+        }));
+    }
 
-        /* ================= CALORIE CALCULATION ================= */
-        // 1 kg of body weight = approximately 7700 calories
-        // Calculate total calories needed to change weight
-        double totalCaloriesChange = 7700 * Math.abs(weightDiff);
-        
-        // Calculate daily calorie change needed (divide total by target days)
-        double dailyCalorieChange =
-                user.getTargetDays() > 0 ? totalCaloriesChange / user.getTargetDays() : 0;
-
-        // For weight loss, calorie change should be negative (deficit)
-        // For weight gain, calorie change should be positive (surplus)
-        if ("LOSE_WEIGHT".equals(goal)) {
-            dailyCalorieChange = -dailyCalorieChange;
-        }
+    /**
+     * Converts the plan entities to DTOs and encodes them as JSON.
+     */
+    private EncodedDietPlan encode(DietPlanResponse dietPlan) {
+        return dietPlanMetrics.recordPhase("serialization", () -> {
+            DietPlanDto dto = planTemplateStore.toDto(dietPlan);
+            return new EncodedDietPlan(dto, jsonMapper.writeValueAsBytes(dto));
+        });
+    }
 
-        /* ================= EXERCISE PLAN ================= */
-        // Create exercise plan based on the determined goal
-        ExercisePlan exercisePlan = new ExercisePlan();
-        exercisePlan.setUser(user);
-        exercisePlan.setGoal(goal);
-        exercisePlan.setDailyCalorieChange(dailyCalorieChange);
-
-        // Define exercise sets based on the user's goal
-        // Each exercise set contains: name, equipment, duration (minutes), sessions per week
-        List<ExerciseSet> exerciseSets;
-
-        if ("LOSE_WEIGHT".equals(goal)) {
-            // Cardio-focused exercises for weight loss
-            exerciseSets = Arrays.asList(
-                    new ExerciseSet(null, exercisePlan, "Brisk Walking", "None", 30, 5),
-                    new ExerciseSet(null, exercisePlan, "Jumping Jacks", "Bodyweight", 15, 4),
-                    new ExerciseSet(null, exercisePlan, "Bodyweight Squats", "Bodyweight", 15, 4),
-                    new ExerciseSet(null, exercisePlan, "Plank", "Mat", 5, 5)
-            );
-        } else if ("GAIN_WEIGHT".equals(goal)) {
-            // Strength-focused exercises for muscle gain
-            exerciseSets = Arrays.asList(
-                    new ExerciseSet(null, exercisePlan, "Push Ups", "Bodyweight", 15, 4),
-                    new ExerciseSet(null, exercisePlan, "Squats", "Bodyweight", 15, 4),
-                    new ExerciseSet(null, exercisePlan, "Resistance Band Rows", "Band", 15, 3),
-                    new ExerciseSet(null, exercisePlan, "Plank", "Mat", 5, 5)
-            );
-        } else {
-            // Light exercises for maintaining current weight
-            exerciseSets = Arrays.asList(
-                    new ExerciseSet(null, exercisePlan, "Walking", "None", 30, 4),
-                    new ExerciseSet(null, exercisePlan, "Stretching", "Mat", 15, 5)
-            );
+    /**
+     * Returns the current diet plan of the user, creating it if none exists (a new user, or
+     * one whose profile changed since the plan was made).
+     * The existing-plan check is repeated after taking a pessimistic lock on the user row,
+     * so two instances racing on the same user write exactly one plan pair.
+     * Not coalesced or cached; package-private so tests can race it the way two instances do.
+     * 
+     * @param userId The unique identifier of the user
+     * @return DietPlanResponse containing both exercise plan and nutrition plan
+     */
+    DietPlanResponse findOrCreateDietPlan(UUID userId) {
+        // Fast path: the plan already exists, no lock needed (and no separate user lookup).
+        // Read-only, so it can use the replica; a miss there falls through to the locked re-check on the primary.
+        DietPlanResponse existingPlan = dietPlanMetrics.recordPhase("existing_plan_lookup",
+                () -> readYourWrites.read(userId,
+                        () -> readOnlyTransactionTemplate.execute(status -> findCurrentDietPlan(userId))));
+        if (existingPlan != null) {
+            return existingPlan;
         }
 
-        exercisePlan.setExerciseSets(exerciseSets);
-
-        /* ================= NUTRITION PLAN ================= */
-        // Create nutrition plan with personalized calorie recommendations
-        NutritionPlan nutritionPlan = new NutritionPlan();
-        nutritionPlan.setUser(user);
-
-        // Calculate BMR (Basal Metabolic Rate) using Mifflin-St Jeor Equation
-        // BMR represents the number of calories the body burns at rest
-        double bmr;
-        if ("MALE".equalsIgnoreCase(user.getGender())) {
-            // BMR formula for males: (10 × weight in kg) + (6.25 × height in cm) - (5 × age) + 5
-            bmr = (10 * user.getCurrWeight())
-                    + (6.25 * user.getHeight())
-                    - (5 * user.getAge()) + 5;
-        } else {
-            // BMR formula for females: (10 × weight in kg) + (6.25 × height in cm) - (5 × age) - 161
-            bmr = (10 * user.getCurrWeight())
-                    + (6.25 * user.getHeight())
-                    - (5 * user.getAge()) - 161;
+        dietPlanMetrics.recordPhase("user_lookup", () -> getUser(userId));
+        return transactionTemplate.execute(status -> {
+            // Blocks until any other instance generating a plan for this user has committed
+            DietPlanResponse planCreatedMeanwhile = dietPlanMetrics.recordPhase("lock_and_recheck", () -> {
+                userInfoRepository.findByIdForUpdate(userId)
+                        .orElseThrow(() -> new UserNotFoundException(userId));
+                return findCurrentDietPlan(userId);
+            });
+            if (planCreatedMeanwhile != null) {
+                return planCreatedMeanwhile;
+            }
+            DietPlanResponse dietPlan = createDietPlan(userInfoRepository.getReferenceById(userId));
+            savePlansToDatabase(List.of(dietPlan));
+            return dietPlan;
+        });
+    }
+
+    /**
+     * Looks up the current exercise and nutrition plan of the user through the plan ids
+     * stored on the user row. Costs two single-row primary-key statements; the exercise sets
+     * and food lists come from the shared templates (PlanTemplateStore).
+     * 
+     * @param userId The unique identifier of the user
+     * @return The current plans, or null if the user does not have both yet
+     */
+    private DietPlanResponse findCurrentDietPlan(UUID userId) {
+        Optional<ExercisePlan> currentExercisePlan = exercisePlanRepository.findCurrentByUserId(userId);
+        if (currentExercisePlan.isEmpty()) {
+            return null;
         }
 
-        // Calculate total daily calories: BMR + calorie change needed for goal
-        double dailyCaloriesToEat = bmr + dailyCalorieChange;
-        // Safety limit: minimum 1200 calories per day (below this is unsafe)
-        dailyCaloriesToEat = Math.max(dailyCaloriesToEat, 1200);
-
-        nutritionPlan.setDailyCaloriesToEat(dailyCaloriesToEat);
-
-        // Distribute calories across meals:
-        // Breakfast: 25% of daily calories
-        // Lunch: 35% of daily calories (largest meal)
-        // Dinner: 25% of daily calories
-        // Pre-workout: 7.5% of daily calories
-        // Post-workout: 7.5% of daily calories
-        nutritionPlan.setBreakfastCalories(dailyCaloriesToEat * 0.25);
-        nutritionPlan.setLunchCalories(dailyCaloriesToEat * 0.35);
-        nutritionPlan.setDinnerCalories(dailyCaloriesToEat * 0.25);
-        nutritionPlan.setPreWorkoutCalories(dailyCaloriesToEat * 0.075);
-        nutritionPlan.setPostWorkoutCalories(dailyCaloriesToEat * 0.075);
-
-        // Set recommended food items for each meal time
-        // These are general recommendations that align with the calorie distribution
-        nutritionPlan.setBreakfastFoods(Arrays.asList(
-                "Oats", "Boiled Eggs / Paneer", "Fruit"
-        ));
-
-        nutritionPlan.setLunchFoods(Arrays.asList(
-                "Rice / Roti", "Dal / Chicken", "Vegetables", "Curd"
-        ));
-
-        nutritionPlan.setDinnerFoods(Arrays.asList(
-                "Grilled Paneer / Chicken", "Salad"
-        ));
-
-        nutritionPlan.setPreWorkoutFoods(Arrays.asList(
-                "Banana", "Black Coffee"
-        ));
-
-        nutritionPlan.setPostWorkoutFoods(Arrays.asList(
-                "Protein Shake", "Milk / Boiled Eggs"
-        ));
-
-        // Save both plans to database
-        savePlansToDatabase(exercisePlan, nutritionPlan);
-        
-        return new DietPlanResponse(exercisePlan, nutritionPlan);
+        return nutritionPlanRepository.findCurrentByUserId(userId)
+                .map(nutritionPlan -> new DietPlanResponse(currentExercisePlan.get(), nutritionPlan))
+                .orElse(null);
     }
 
     /**
-     * Saves both exercise plan and nutrition plan to the database in a single transaction.
-     * Uses @Transactional to ensure both saves succeed or both fail (atomicity).
+     * Builds a new personalized exercise and nutrition plan for the user (not saved yet).
+     * The plan is based on:
+     *    - User's current weight vs desired weight (goal detection)
+     *    - Target days to achieve the goal
+     *    - User's age, gender, height (for BMR calculation)
      * 
-     * @param exercisePlan The exercise plan to be saved
-     * @param nutritionPlan The nutrition plan to be saved
+     * @param user The user to create the plan for
+     * @return DietPlanResponse containing the new plans
      */
-    @Transactional
-    private void savePlansToDatabase(ExercisePlan exercisePlan, NutritionPlan nutritionPlan) {
-        // Save ExercisePlan with all associated exercise sets (cascade save)
-        exercisePlanRepository.save(exercisePlan);
+    private DietPlanResponse createDietPlan(UserInfo user) {
+        // Goal detection, calorie math and meal split happen in the persistence-free engine
+        return dietPlanMetrics.recordPhase("computation", () -> {
+            ComputedPlan plan = PlanEntityMapper.computePlan(user);
+            return new DietPlanResponse(
+                    PlanEntityMapper.toExercisePlan(user, plan, planTemplateStore.exerciseTemplate(plan.goal(), plan.exercises())),
+                    PlanEntityMapper.toNutritionPlan(user, plan, planTemplateStore.mealTemplate(plan.meals())));
+        });
+    }
 
-        // Save NutritionPlan with all associated food lists (element collections)
-        nutritionPlanRepository.save(nutritionPlan);
+    /**
+     * Writes a new plan pair for each of the given users from their current profile,
+     * even if they already have a plan (which is then superseded as the current one).
+     * All plans are saved in one transaction, so the INSERTs go out in JDBC batches.
+     * The user rows are locked, so a concurrent generateDietPlan for one of these users
+     * waits and then returns the new plan instead of creating another one.
+     * 
+     * @param userIds The users to regenerate plans for; unknown ids are skipped
+     */
+    public void regenerateDietPlans(List<UUID> userIds) {
+        // One transaction per shard
+        shardRouter.groupByShard(userIds, userId -> userId).forEach((shard, shardUserIds) -> {
+            List<UUID> missing = ShardRouting.onShard(shard, () -> regenerateDietPlansOnShard(shardUserIds));
+            // Users a rebalance moved after they were routed are regenerated once more on their new shard
+            shardRouter.moved(shard, missing, userId -> userId).forEach((newShard, movedUserIds) ->
+                    ShardRouting.onShard(newShard, () -> regenerateDietPlansOnShard(movedUserIds)));
+        });
+    }
+
+    /**
+     * @return The users not found on the current shard
+     */
+    private List<UUID> regenerateDietPlansOnShard(List<UUID> userIds) {
+        Map<UUID, Long> generations = new HashMap<>();
+        for (UUID userId : userIds) {
+            generations.put(userId, dietPlanCache.generation(userId));
+        }
+        List<DietPlanResponse> dietPlans = transactionTemplate.execute(status -> {
+            List<UserInfo> users = userInfoRepository.findAllByIdForUpdate(userIds);
+            List<DietPlanResponse> created = new ArrayList<>(users.size());
+            for (UserInfo user : users) {
+                created.add(createDietPlan(user));
+            }
+            savePlansToDatabase(created);
+            return created;
+        });
+
+        Set<UUID> missing = new HashSet<>(userIds);
+        for (DietPlanResponse dietPlan : dietPlans) {
+            UUID userId = dietPlan.getExercisePlan().getUser().getUserId();
+            dietPlanCache.putIfCurrent(userId, generations.get(userId), encode(dietPlan));
+            missing.remove(userId);
+        }
+        return new ArrayList<>(missing);
+    }
+
+    /**
+     * Saves the exercise plans and nutrition plans and makes them the current plans of their users.
+     * Runs inside the caller's transaction, so all saves succeed or all fail (atomicity).
+     * 
+     * @param dietPlans The plan pairs to be saved
+     */
+    private void savePlansToDatabase(List<DietPlanResponse> dietPlans) {
+        dietPlanMetrics.recordPhase("save", () -> {
+            for (DietPlanResponse dietPlan : dietPlans) {
+                // One row each; exercise sets and food lists are referenced through the template hashes
+                exercisePlanRepository.save(dietPlan.getExercisePlan());
+                nutritionPlanRepository.save(dietPlan.getNutritionPlan());
+            }
+            // Ids come from the pooled sequences at save time, before the INSERTs are flushed
+            userInfoBatchRepository.updateCurrentPlans(dietPlans);
+            for (DietPlanResponse dietPlan : dietPlans) {
+                readYourWrites.recordWrite(dietPlan.getExercisePlan().getUser().getUserId());
+            }
+            return dietPlans;
+        });
     }
 }
@@ -0,0 +1,374 @@
+package com.project.backend.services;
+
+import com.project.backend.config.ReplicaRouting;
+import com.project.backend.config.ShardRouting;
+import com.project.backend.model.*;
+import com.project.backend.planning.ComputedPlan;
+import com.project.backend.repositories.UserInfoBatchRepository;
+import com.project.backend.repositories.UserInfoRepository;
+import com.project.backend.repositories.UserShardMoveRepository;
+import com.project.backend.repositories.WeighInRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weigh-in logging. Entries are accepted into an in-memory buffer and written by a single
+ * flusher thread in batches: one transaction appends the entries, folds them into the
+ * daily/weekly aggregates and moves each user's currWeight to their latest weigh-in.
+ * 
+ * After a flush the affected users' plans are recomputed in memory only; a user is queued
+ * for plan regeneration (PlanPregenerationWorker) only if the goal changed or the daily
+ * calorie target moved by at least the configured threshold, so daily logging does not
+ * write a new plan pair per entry.
+ * 
+ * Entries still in the buffer are not visible in the aggregates yet (at most flush-interval).
+ * With several shards a batch is written with one transaction per shard.
+ * 
+ * Accepted entries are not lost when a write fails: the rolled-back entries are written
+ * again after a backoff that doubles per attempt, up to flush.max-attempts. After the last
+ * attempt they are written one at a time, so only entries that fail on their own are
+ * dropped (logged with their values and counted in weigh.in.dropped).
+ * 
+ * While a shard rebalance runs, a flush locks its users' rows before writing; entries of users
+ * moved to another shard in the meantime are written there instead of being lost with the
+ * source rows.
+ */
+@Service
+public class WeighInService {
+
+    private static final Logger log = LoggerFactory.getLogger(WeighInService.class);
+
+    @Autowired
+    private WeighInRepository weighInRepository;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private UserInfoBatchRepository userInfoBatchRepository;
+
+    @Autowired
+    private UserShardMoveRepository userShardMoveRepository;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private PlanPregenerationWorker planPregenerationWorker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${app.weigh-ins.buffer-capacity:100000}")
+    private int bufferCapacity;
+
+    @Value("${app.weigh-ins.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.weigh-ins.flush-interval:1s}")
+    private Duration flushInterval;
+
+    @Value("${app.weigh-ins.recalculation.calorie-threshold:100}")
+    private double calorieThreshold;
+
+    @Value("${app.weigh-ins.flush.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.weigh-ins.flush.retry-backoff:1s}")
+    private Duration retryBackoff;
+
+    private BlockingQueue<WeighIn> buffer;
+    private Thread flusher;
+    private Counter recalculationCounter;
+    private Counter droppedCounter;
+
+    // Rolled-back entries waiting for their next attempt, earliest first; only touched by the flusher
+    private final PriorityQueue<FailedFlush> retries = new PriorityQueue<>(Comparator.comparingLong(FailedFlush::retryAt));
+    // Entries the flusher held when it was stopped; written by stop()
+    private final List<WeighIn> unflushed = new ArrayList<>();
+    private volatile int retryDepth;
+
+    @PostConstruct
+    void start() {
+        buffer = new LinkedBlockingQueue<>(bufferCapacity);
+        Gauge.builder("weigh.in.buffer.depth", buffer, BlockingQueue::size).register(meterRegistry);
+        recalculationCounter = Counter.builder("weigh.in.recalculations")
+                .description("Plan regenerations queued because a weigh-in moved the goal or calorie target")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("weigh.in.dropped")
+                .description("Accepted weigh-ins that could not be written after all attempts")
+                .register(meterRegistry);
+        Gauge.builder("weigh.in.retry.depth", this, service -> service.retryDepth).register(meterRegistry);
+
+        flusher = new Thread(this::flushLoop, "weigh-in-flusher");
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // Write whatever was accepted but not flushed yet, as its last attempt
+        List<WeighIn> remaining = new ArrayList<>(unflushed);
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining, maxAttempts - 1);
+        }
+    }
+
+    /**
+     * Accepts a weigh-in for asynchronous writing.
+     * 
+     * @param userId  The unique identifier of the user
+     * @param request The weight and optionally when it was measured (defaults to now)
+     * @throws UserNotFoundException if user is not found
+     * @throws ResponseStatusException (503) if the buffer is full
+     */
+    public void record(UUID userId, WeighInRequest request) {
+        shardRouter.forUser(userId, () -> {
+            if (!readYourWrites.read(userId, () -> userInfoRepository.existsById(userId))) {
+                throw new UserNotFoundException(userId);
+            }
+            return null;
+        });
+        LocalDateTime measuredAt = request.getMeasuredAt() != null ? request.getMeasuredAt() : LocalDateTime.now();
+        if (!buffer.offer(new WeighIn(null, userId, request.getWeight(), measuredAt))) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Weigh-in buffer is full");
+        }
+        // Written within flush-interval; from now on the client reads the aggregates from the primary
+        readYourWrites.recordWrite(userId);
+    }
+
+    /**
+     * Returns the user's precomputed daily or weekly weigh-in aggregates.
+     * 
+     * @param userId The unique identifier of the user
+     * @param period DAY or WEEK
+     * @param from   Earliest date to include
+     * @param to     Latest date to include
+     * @return The aggregates in chronological order
+     * @throws UserNotFoundException if user is not found
+     */
+    public List<WeighInSummary> getSummaries(UUID userId, WeighInPeriod period, LocalDate from, LocalDate to) {
+        return shardRouter.forUser(userId, () -> readYourWrites.read(userId, () -> {
+            if (!userInfoRepository.existsById(userId)) {
+                throw new UserNotFoundException(userId);
+            }
+            return weighInRepository.findAggregates(userId, period, period.startOf(from), to);
+        }));
+    }
+
+    private void flushLoop() {
+        List<WeighIn> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                retryDueFlushes();
+                WeighIn first = retries.isEmpty() ? buffer.take()
+                        : buffer.poll(retries.peek().retryAt() - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue; // a retry is due
+                }
+                batch.add(first);
+                // Linger up to flush-interval so a batch collects many entries under load
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    WeighIn next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch, 0);
+            } catch (InterruptedException e) {
+                unflushed.addAll(batch);
+                retries.forEach(retry -> unflushed.addAll(retry.entries()));
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+                retryDepth = retries.stream().mapToInt(retry -> retry.entries().size()).sum();
+            }
+        }
+    }
+
+    private void retryDueFlushes() {
+        while (!retries.isEmpty() && retries.peek().retryAt() - System.nanoTime() <= 0) {
+            FailedFlush retry = retries.poll();
+            flush(retry.entries(), retry.attempts());
+        }
+    }
+
+    /**
+     * Writes the entries, one transaction per shard. A shard whose transaction fails is
+     * scheduled for another attempt; the other shards' entries stay written.
+     *
+     * @param attempts Failed attempts of these entries so far
+     */
+    private void flush(List<WeighIn> batch, int attempts) {
+        shardRouter.groupByShard(batch, WeighIn::getUserId).forEach((shard, shardBatch) -> {
+            Set<UUID> userIds;
+            List<WeighIn> withoutUser = new ArrayList<>();
+            try {
+                userIds = ShardRouting.onShard(shard, () -> writeOnShard(shardBatch, withoutUser));
+            } catch (RuntimeException e) {
+                flushFailed(shard, shardBatch, attempts + 1, e);
+                return;
+            }
+            // Users a rebalance moved after the entries were routed
+            shardRouter.moved(shard, withoutUser, WeighIn::getUserId)
+                    .forEach((newShard, entries) -> flush(entries, attempts));
+            // Already committed: a failure from here on must not write the entries again
+            try {
+                userIds.forEach(readYourWrites::recordWrite);
+                ShardRouting.onShard(shard, () -> {
+                    queueSignificantPlanChanges(new ArrayList<>(userIds));
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Checking plan changes after {} weigh-ins failed", shardBatch.size(), e);
+            }
+        });
+    }
+
+    /**
+     * While a rebalance is running, the users' rows are locked first (waiting for a move in
+     * progress), and entries of users without a row on this shard are not written but added to
+     * withoutUser.
+     *
+     * @return The users whose weight was written
+     */
+    private Set<UUID> writeOnShard(List<WeighIn> batch, List<WeighIn> withoutUser) {
+        return transactionTemplate.execute(status -> {
+            List<WeighIn> entries = batch;
+            if (shardRouter.rebalancing()) {
+                Set<UUID> present = new HashSet<>(userShardMoveRepository.lockUsers(
+                        batch.stream().map(WeighIn::getUserId).distinct().toList()));
+                entries = new ArrayList<>(batch.size());
+                for (WeighIn weighIn : batch) {
+                    (present.contains(weighIn.getUserId()) ? entries : withoutUser).add(weighIn);
+                }
+                if (entries.isEmpty()) {
+                    return Set.of();
+                }
+            }
+
+            Map<UUID, WeighIn> latestPerUser = new HashMap<>();
+            for (WeighIn weighIn : entries) {
+                latestPerUser.merge(weighIn.getUserId(), weighIn,
+                        (a, b) -> b.getMeasuredAt().isAfter(a.getMeasuredAt()) ? b : a);
+            }
+            weighInRepository.insertAll(entries);
+            weighInRepository.upsertAggregates(aggregate(entries));
+            userInfoBatchRepository.updateCurrWeights(new ArrayList<>(latestPerUser.values()));
+            return latestPerUser.keySet();
+        });
+    }
+
+    private void flushFailed(int shard, List<WeighIn> entries, int attempts, RuntimeException cause) {
+        if (attempts < maxAttempts) {
+            Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 10));
+            log.warn("Flushing {} weigh-ins failed (attempt {}), retrying in {}", entries.size(), attempts, backoff, cause);
+            retries.add(new FailedFlush(entries, attempts, System.nanoTime() + backoff.toNanos()));
+            return;
+        }
+        if (entries.size() == 1) {
+            droppedCounter.increment();
+            log.error("Dropping weigh-in {} after {} attempts", entries.get(0), attempts, cause);
+            return;
+        }
+        log.warn("Flushing {} weigh-ins failed after {} attempts, writing them one by one", entries.size(), attempts, cause);
+        for (WeighIn weighIn : entries) {
+            try {
+                ShardRouting.onShard(shard, () -> writeOnShard(List.of(weighIn), new ArrayList<>()));
+                readYourWrites.recordWrite(weighIn.getUserId());
+            } catch (RuntimeException e) {
+                droppedCounter.increment();
+                log.error("Dropping weigh-in {} after {} attempts", weighIn, attempts + 1, e);
+            }
+        }
+    }
+
+    private record FailedFlush(List<WeighIn> entries, int attempts, long retryAt) {
+    }
+
+    /**
+     * Folds the entries into one bucket per user, period type and period start.
+     */
+    private static List<WeighInAggregate> aggregate(List<WeighIn> batch) {
+        Map<WeighInAggregate.Key, WeighInAggregate> buckets = new HashMap<>();
+        for (WeighIn weighIn : batch) {
+            for (WeighInPeriod period : WeighInPeriod.values()) {
+                LocalDate periodStart = period.startOf(weighIn.getMeasuredAt().toLocalDate());
+                WeighInAggregate bucket = buckets.computeIfAbsent(
+                        new WeighInAggregate.Key(weighIn.getUserId(), period, periodStart),
+                        key -> new WeighInAggregate(key.getUserId(), period, periodStart, 0, 0,
+                                Double.MAX_VALUE, -Double.MAX_VALUE, 0, weighIn.getMeasuredAt()));
+                bucket.setEntries(bucket.getEntries() + 1);
+                bucket.setWeightSum(bucket.getWeightSum() + weighIn.getWeight());
+                bucket.setWeightMin(Math.min(bucket.getWeightMin(), weighIn.getWeight()));
+                bucket.setWeightMax(Math.max(bucket.getWeightMax(), weighIn.getWeight()));
+                if (!weighIn.getMeasuredAt().isBefore(bucket.getLastMeasuredAt())) {
+                    bucket.setLastWeight(weighIn.getWeight());
+                    bucket.setLastMeasuredAt(weighIn.getMeasuredAt());
+                }
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * Recomputes the plans of the users from their updated profiles (in memory, no writes)
+     * and queues a regeneration for those whose goal or calorie target moved significantly.
+     */
+    private void queueSignificantPlanChanges(List<UUID> userIds) {
+        // On the primary: the replica may not have the weights written a moment ago
+        Map<UUID, CurrentPlanTarget> targets = new HashMap<>();
+        for (CurrentPlanTarget target : ReplicaRouting.onPrimary(() -> userInfoRepository.findCurrentPlanTargets(userIds))) {
+            targets.put(target.getUserId(), target);
+        }
+        if (targets.isEmpty()) {
+            return; // users without a plan get one computed from the new weight on first request
+        }
+
+        List<UserSummary> users = ReplicaRouting.onPrimary(
+                () -> userInfoRepository.findSummariesByIds(new ArrayList<>(targets.keySet())));
+        for (UserSummary user : users) {
+            CurrentPlanTarget target = targets.get(user.getUserId());
+            ComputedPlan plan = PlanEntityMapper.computePlan(user);
+            boolean goalChanged = !plan.goal().name().equals(target.getGoal());
+            if (goalChanged || Math.abs(plan.dailyCaloriesToEat() - target.getDailyCaloriesToEat()) >= calorieThreshold) {
+                recalculationCounter.increment();
+                planPregenerationWorker.enqueue(user.getUserId());
+            }
+        }
+    }
+}
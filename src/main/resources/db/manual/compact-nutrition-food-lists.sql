@@ -0,0 +1,22 @@
+-- One-off data migration for existing MySQL databases.
+-- Copies the food lists from the old @ElementCollection tables into the inline
+-- nutrition_plan.*_foods columns (one food per line) and drops the old tables.
+-- Run after the application has started once with the new mapping (ddl-auto adds the columns).
+
+UPDATE nutrition_plan n SET
+    breakfast_foods = COALESCE((SELECT GROUP_CONCAT(f.food SEPARATOR '\n')
+                                FROM nutrition_plan_breakfast_foods f WHERE f.nutrition_plan_id = n.id), ''),
+    lunch_foods = COALESCE((SELECT GROUP_CONCAT(f.food SEPARATOR '\n')
+                            FROM nutrition_plan_lunch_foods f WHERE f.nutrition_plan_id = n.id), ''),
+    dinner_foods = COALESCE((SELECT GROUP_CONCAT(f.food SEPARATOR '\n')
+                             FROM nutrition_plan_dinner_foods f WHERE f.nutrition_plan_id = n.id), ''),
+    pre_workout_foods = COALESCE((SELECT GROUP_CONCAT(f.food SEPARATOR '\n')
+                                  FROM nutrition_plan_pre_workout_foods f WHERE f.nutrition_plan_id = n.id), ''),
+    post_workout_foods = COALESCE((SELECT GROUP_CONCAT(f.food SEPARATOR '\n')
+                                   FROM nutrition_plan_post_workout_foods f WHERE f.nutrition_plan_id = n.id), '');
+
+DROP TABLE nutrition_plan_breakfast_foods;
+DROP TABLE nutrition_plan_lunch_foods;
+DROP TABLE nutrition_plan_dinner_foods;
+DROP TABLE nutrition_plan_pre_workout_foods;
+DROP TABLE nutrition_plan_post_workout_foods;
@@ -0,0 +1,49 @@
+-- One-off migration for existing MySQL databases (8.0+).
+-- Exercise sets and food lists move from per-plan rows/columns to shared, content-addressed
+-- templates (exercise_plan_template + exercise_set, meal_plan_template). Plans reference them
+-- through exercise_plan.template_hash and nutrition_plan.meal_template_hash.
+
+-- 1. Before deploying: exercise_set rows will belong to templates, not plans
+--    (template_hash is added nullable here; ddl-auto would not manage to add it as NOT NULL)
+ALTER TABLE exercise_set MODIFY exercise_plan_id BIGINT NULL, ADD COLUMN template_hash VARCHAR(64) NULL;
+
+-- 2. Deploy and start the application once. ddl-auto adds the new tables and columns, and
+--    PlanTemplateStore stores the built-in template of every goal at startup.
+
+-- 3. Point existing plans at the templates. Plans were built from the goal's template, so
+--    exercise plans are matched by goal and nutrition plans by identical food lists.
+--    Only the fixed (unscheduled) templates qualify; scheduled ones have days on their sets.
+UPDATE exercise_plan p
+JOIN exercise_plan_template t ON t.goal = p.goal
+ AND NOT EXISTS (SELECT 1 FROM exercise_set s WHERE s.template_hash = t.hash AND s.days IS NOT NULL)
+SET p.template_hash = t.hash
+WHERE p.template_hash IS NULL;
+
+UPDATE nutrition_plan n
+JOIN meal_plan_template t
+  ON t.breakfast_foods <=> n.breakfast_foods
+ AND t.lunch_foods <=> n.lunch_foods
+ AND t.dinner_foods <=> n.dinner_foods
+ AND t.pre_workout_foods <=> n.pre_workout_foods
+ AND t.post_workout_foods <=> n.post_workout_foods
+SET n.meal_template_hash = t.hash
+WHERE n.meal_template_hash IS NULL;
+
+-- Must both return 0 before continuing; other rows were built from an older template version
+-- and need their template inserted by hand (or the plan regenerated)
+SELECT COUNT(*) FROM exercise_plan WHERE template_hash IS NULL;
+SELECT COUNT(*) FROM nutrition_plan WHERE meal_template_hash IS NULL;
+
+-- 4. Drop the per-plan copies
+DELETE FROM exercise_set WHERE exercise_plan_id IS NOT NULL;
+ALTER TABLE exercise_set DROP FOREIGN KEY fk_exercise_set_exercise_plan; -- check the name with SHOW CREATE TABLE
+ALTER TABLE exercise_set DROP COLUMN exercise_plan_id;
+ALTER TABLE nutrition_plan
+    DROP COLUMN breakfast_foods,
+    DROP COLUMN lunch_foods,
+    DROP COLUMN dinner_foods,
+    DROP COLUMN pre_workout_foods,
+    DROP COLUMN post_workout_foods;
+ALTER TABLE exercise_plan MODIFY template_hash VARCHAR(64) NOT NULL;
+ALTER TABLE nutrition_plan MODIFY meal_template_hash VARCHAR(64) NOT NULL;
+ALTER TABLE exercise_set MODIFY template_hash VARCHAR(64) NOT NULL;
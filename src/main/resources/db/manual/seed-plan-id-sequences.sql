@@ -0,0 +1,9 @@
+-- One-off migration for existing MySQL databases.
+-- exercise_plan, exercise_set and nutrition_plan ids now come from pooled sequence tables
+-- (needed for JDBC insert batching). Start each sequence after the highest id assigned by
+-- AUTO_INCREMENT so new rows cannot collide with existing ones.
+-- Run after the application has started once with the new mapping (ddl-auto creates the tables).
+
+UPDATE exercise_plan_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM exercise_plan);
+UPDATE exercise_set_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM exercise_set);
+UPDATE nutrition_plan_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM nutrition_plan);
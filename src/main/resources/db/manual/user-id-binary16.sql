@@ -0,0 +1,32 @@
+-- One-off migration for existing MySQL databases (8.0+).
+-- user_info.user_id changes from a random UUID string (VARCHAR(255)) to BINARY(16). New ids are
+-- time-ordered UUIDv7 values, so inserts append to the clustered index instead of landing on
+-- random pages. Existing ids keep their value; only the storage format changes.
+-- Run with the application stopped. Check the generated foreign key names with
+-- SHOW CREATE TABLE exercise_plan / nutrition_plan and adjust the DROP statements below.
+
+ALTER TABLE exercise_plan DROP FOREIGN KEY fk_exercise_plan_user;
+ALTER TABLE nutrition_plan DROP FOREIGN KEY fk_nutrition_plan_user;
+
+ALTER TABLE user_info ADD COLUMN user_id_bin BINARY(16) NULL;
+UPDATE user_info SET user_id_bin = UUID_TO_BIN(user_id);
+ALTER TABLE user_info DROP PRIMARY KEY, DROP COLUMN user_id;
+ALTER TABLE user_info RENAME COLUMN user_id_bin TO user_id;
+ALTER TABLE user_info MODIFY user_id BINARY(16) NOT NULL, ADD PRIMARY KEY (user_id);
+
+ALTER TABLE exercise_plan ADD COLUMN user_id_bin BINARY(16) NULL;
+UPDATE exercise_plan SET user_id_bin = UUID_TO_BIN(user_id);
+ALTER TABLE exercise_plan DROP COLUMN user_id;
+ALTER TABLE exercise_plan RENAME COLUMN user_id_bin TO user_id;
+ALTER TABLE exercise_plan MODIFY user_id BINARY(16) NOT NULL;
+
+ALTER TABLE nutrition_plan ADD COLUMN user_id_bin BINARY(16) NULL;
+UPDATE nutrition_plan SET user_id_bin = UUID_TO_BIN(user_id);
+ALTER TABLE nutrition_plan DROP COLUMN user_id;
+ALTER TABLE nutrition_plan RENAME COLUMN user_id_bin TO user_id;
+ALTER TABLE nutrition_plan MODIFY user_id BINARY(16) NOT NULL;
+
+ALTER TABLE exercise_plan ADD CONSTRAINT fk_exercise_plan_user
+    FOREIGN KEY (user_id) REFERENCES user_info (user_id);
+ALTER TABLE nutrition_plan ADD CONSTRAINT fk_nutrition_plan_user
+    FOREIGN KEY (user_id) REFERENCES user_info (user_id);
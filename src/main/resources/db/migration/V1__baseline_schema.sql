@@ -0,0 +1,124 @@
+-- Baseline schema (MySQL 8.0+), matching the JPA mapping. Applied by Flyway under the prod profile,
+-- where Hibernate validates the mapping against it instead of running ddl-auto=update.
+-- Databases created by ddl-auto=update before migrations existed (with the db/manual upgrades
+-- applied) already have this schema and are baselined at this version (spring.flyway.baseline-*).
+
+CREATE TABLE user_info (
+    user_id BINARY(16) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    age INTEGER NOT NULL,
+    gender VARCHAR(255) NOT NULL,
+    height FLOAT(53) NOT NULL,
+    curr_weight FLOAT(53),
+    desired_weight FLOAT(53),
+    target_days INTEGER NOT NULL,
+    dietary_exclusions VARCHAR(100),
+    current_exercise_plan_id BIGINT,
+    current_nutrition_plan_id BIGINT,
+    deleted_at DATETIME(6),
+    PRIMARY KEY (user_id),
+    CHECK ((age <= 100) AND (age >= 1))
+) ENGINE = InnoDB;
+
+CREATE TABLE exercise_plan_template (
+    hash VARCHAR(64) NOT NULL,
+    goal VARCHAR(255) NOT NULL,
+    PRIMARY KEY (hash)
+) ENGINE = InnoDB;
+
+CREATE TABLE exercise_set (
+    id BIGINT NOT NULL,
+    template_hash VARCHAR(64) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    equipment VARCHAR(255),
+    duration_minutes INTEGER NOT NULL,
+    sessions_per_week INTEGER NOT NULL,
+    days VARCHAR(27),
+    calories_per_session INTEGER,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_exercise_set_template FOREIGN KEY (template_hash) REFERENCES exercise_plan_template (hash)
+) ENGINE = InnoDB;
+
+CREATE TABLE meal_plan_template (
+    hash VARCHAR(64) NOT NULL,
+    breakfast_foods VARCHAR(1000),
+    lunch_foods VARCHAR(1000),
+    dinner_foods VARCHAR(1000),
+    pre_workout_foods VARCHAR(1000),
+    post_workout_foods VARCHAR(1000),
+    PRIMARY KEY (hash)
+) ENGINE = InnoDB;
+
+CREATE TABLE exercise_plan (
+    id BIGINT NOT NULL,
+    user_id BINARY(16) NOT NULL,
+    daily_calorie_change FLOAT(53) NOT NULL,
+    goal VARCHAR(255) NOT NULL,
+    template_hash VARCHAR(64),
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_exercise_plan_user FOREIGN KEY (user_id) REFERENCES user_info (user_id),
+    CONSTRAINT fk_exercise_plan_template FOREIGN KEY (template_hash) REFERENCES exercise_plan_template (hash)
+) ENGINE = InnoDB;
+
+CREATE TABLE nutrition_plan (
+    id BIGINT NOT NULL,
+    user_id BINARY(16) NOT NULL,
+    daily_calories_to_eat FLOAT(53) NOT NULL,
+    breakfast_calories FLOAT(53) NOT NULL,
+    lunch_calories FLOAT(53) NOT NULL,
+    dinner_calories FLOAT(53) NOT NULL,
+    pre_workout_calories FLOAT(53),
+    post_workout_calories FLOAT(53),
+    meal_template_hash VARCHAR(64),
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_nutrition_plan_user FOREIGN KEY (user_id) REFERENCES user_info (user_id),
+    CONSTRAINT fk_nutrition_plan_meal_template FOREIGN KEY (meal_template_hash) REFERENCES meal_plan_template (hash)
+) ENGINE = InnoDB;
+
+-- Pooled id sequences (Hibernate's table-backed sequences on MySQL)
+CREATE TABLE exercise_plan_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO exercise_plan_seq (next_val) VALUES (1);
+CREATE TABLE exercise_set_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO exercise_set_seq (next_val) VALUES (1);
+CREATE TABLE nutrition_plan_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO nutrition_plan_seq (next_val) VALUES (1);
+
+CREATE TABLE weigh_in (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BINARY(16) NOT NULL,
+    weight FLOAT(53) NOT NULL,
+    measured_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE weigh_in_aggregate (
+    user_id BINARY(16) NOT NULL,
+    period_type ENUM ('DAY', 'WEEK') NOT NULL,
+    period_start DATE NOT NULL,
+    entries INTEGER NOT NULL,
+    weight_sum FLOAT(53) NOT NULL,
+    weight_min FLOAT(53) NOT NULL,
+    weight_max FLOAT(53) NOT NULL,
+    last_weight FLOAT(53) NOT NULL,
+    last_measured_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (period_start, user_id, period_type)
+) ENGINE = InnoDB;
+
+CREATE TABLE job_checkpoint (
+    job_name VARCHAR(100) NOT NULL,
+    last_key VARCHAR(255),
+    processed BIGINT NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (job_name)
+) ENGINE = InnoDB;
+
+-- Hot lookups: email uniqueness checks and findByEmail, the latest-plan fallback and history compaction by
+-- (user_id, created_at), the reaper by deleted_at and weigh-in history by (user_id, measured_at)
+CREATE UNIQUE INDEX uk_user_info_email ON user_info (email);
+CREATE INDEX idx_exercise_plan_user_created ON exercise_plan (user_id, created_at);
+CREATE INDEX idx_nutrition_plan_user_created ON nutrition_plan (user_id, created_at);
+CREATE INDEX idx_user_info_deleted_at ON user_info (deleted_at);
+CREATE INDEX idx_weigh_in_user_measured ON weigh_in (user_id, measured_at);
@@ -0,0 +1,7 @@
+-- Per-shard id ranges. With sharding (ShardingDataSourceConfig) every shard is migrated with
+-- id-range-start = shard index * 10^15 + 1, so the pooled sequences of different shards never hand out
+-- the same plan or exercise set id and users can move between shards with their ids. A single
+-- database uses id-range-start = 1 (spring.flyway.placeholders.id-range-start), which changes nothing.
+UPDATE exercise_plan_seq SET next_val = ${id-range-start} WHERE next_val < ${id-range-start};
+UPDATE exercise_set_seq SET next_val = ${id-range-start} WHERE next_val < ${id-range-start};
+UPDATE nutrition_plan_seq SET next_val = ${id-range-start} WHERE next_val < ${id-range-start};
@@ -0,0 +1,2 @@
+-- Set when a job walked all its keys, so a resumed run can tell a finished job from an interrupted one
+ALTER TABLE job_checkpoint ADD COLUMN completed_at DATETIME(6);
@@ -0,0 +1,17 @@
+-- Points users whose plans predate the current plan ids at their latest plans.
+-- The read path no longer falls back to the latest plan by created_at: a NULL pointer means
+-- the profile changed since the last plan, so the next read generates a new one.
+
+UPDATE user_info
+SET current_exercise_plan_id = (SELECT p.id FROM exercise_plan p
+                                WHERE p.user_id = user_info.user_id
+                                ORDER BY p.created_at DESC, p.id DESC
+                                LIMIT 1)
+WHERE current_exercise_plan_id IS NULL;
+
+UPDATE user_info
+SET current_nutrition_plan_id = (SELECT p.id FROM nutrition_plan p
+                                 WHERE p.user_id = user_info.user_id
+                                 ORDER BY p.created_at DESC, p.id DESC
+                                 LIMIT 1)
+WHERE current_nutrition_plan_id IS NULL;
@@ -0,0 +1,5 @@
+-- Key weigh_in_aggregate by (user_id, period_type, period_start): every read and upsert fixes the user and
+-- the period type. V1 (and ddl-auto, for databases baselined at V1) keyed it by period_start first, so a
+-- user's range read scanned every user's buckets of those days.
+ALTER TABLE weigh_in_aggregate DROP PRIMARY KEY;
+ALTER TABLE weigh_in_aggregate ADD PRIMARY KEY (user_id, period_type, period_start);
@@ -0,0 +1,44 @@
+package com.project.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(1, Duration.ofMillis(50));
+
+    @Test
+    void synchronousRequestReleasesItsPermitWhenTheChainReturns() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> {
+            assertThat(filter.inFlight()).isEqualTo(1);
+        });
+
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    void asynchronousRequestHoldsItsPermitUntilCompleted() throws Exception {
+        MockHttpServletRequest streaming = request();
+        filter.doFilter(streaming, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertThat(filter.inFlight()).isEqualTo(1);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request(), rejected, (req, res) -> {
+        });
+        assertThat(rejected.getStatus()).isEqualTo(503);
+
+        streaming.getAsyncContext().complete();
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/stream");
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package com.project.backend.controllers;
+
+import com.project.backend.model.UserInfo;
+import com.project.backend.repositories.UserInfoRepository;
+import com.project.backend.services.TestUsers;
+import com.project.backend.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The diet-plan ETag names the plan version: it is stable while the plan is, answers a matching
+ * If-None-Match with 304 and changes once a profile save replaces the plan.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DietPlanEtagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Test
+    void etagIsStableUntilTheProfileChanges() throws Exception {
+        // Saved through the repository: saveUser would also queue a background generation
+        UserInfo user = TestUsers.newUser("Etag");
+        userInfoRepository.save(user);
+
+        MockHttpServletResponse first = getDietPlan(user, null);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(etag).isNotBlank();
+        assertThat(first.getContentAsByteArray()).isNotEmpty();
+
+        MockHttpServletResponse second = getDietPlan(user, null);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+
+        MockHttpServletResponse notModified = getDietPlan(user, etag);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+
+        user.setCurrWeight(75);
+        userService.saveUser(user);
+
+        MockHttpServletResponse changed = getDietPlan(user, etag);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getHeader(HttpHeaders.ETAG)).isNotBlank().isNotEqualTo(etag);
+        assertThat(changed.getContentAsByteArray()).isNotEmpty();
+    }
+
+    private MockHttpServletResponse getDietPlan(UserInfo user, String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/user/{userId}/diet-plan", user.getUserId());
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,138 @@
+package com.project.backend.controllers;
+
+import com.project.backend.model.DietPlanDto;
+import com.project.backend.model.UserInfo;
+import com.project.backend.repositories.UserInfoRepository;
+import com.project.backend.services.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans are served as JSON, CBOR or Smile by Accept header, with the same content in each, and
+ * gzipped above server.compression.min-response-size. Runs on a real server: compression is
+ * Tomcat's, not visible to MockMvc.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class PayloadNegotiationTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private CBORMapper cborMapper;
+
+    private final SmileMapper smileMapper = SmileMapper.builder().build();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void binaryFormatsCarryTheSamePlanAsJson() throws Exception {
+        UserInfo user = newUser();
+        DietPlanDto json = jsonMapper.readValue(get(dietPlan(user), "application/json", null).body(), DietPlanDto.class);
+
+        HttpResponse<byte[]> cbor = get(dietPlan(user), "application/cbor", null);
+        assertThat(cbor.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue("application/cbor");
+        assertThat(variesByAccept(cbor)).isTrue();
+        assertThat(cborMapper.readValue(cbor.body(), DietPlanDto.class)).isEqualTo(json);
+
+        HttpResponse<byte[]> smile = get(dietPlan(user), SMILE + ", application/json;q=0.5", null);
+        assertThat(smile.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue(SMILE);
+        assertThat(variesByAccept(smile)).isTrue();
+        assertThat(smileMapper.readValue(smile.body(), DietPlanDto.class)).isEqualTo(json);
+
+        // Each format is its own representation
+        assertThat(cbor.headers().firstValue(HttpHeaders.ETAG)).isNotEqualTo(smile.headers().firstValue(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void wildcardsAndUnknownTypesGetJson() throws Exception {
+        UserInfo user = newUser();
+
+        for (String accept : new String[] {"*/*", "application/xml", "text/html, application/*;q=0.8", "not a media type"}) {
+            HttpResponse<byte[]> response = get(dietPlan(user), accept, null);
+            assertThat(response.statusCode()).as(accept).isEqualTo(200);
+            assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE)).as(accept).hasValue("application/json");
+            assertThat(variesByAccept(response)).as(accept).isTrue();
+            jsonMapper.readValue(response.body(), DietPlanDto.class);
+        }
+    }
+
+    @Test
+    void responsesAboveTheThresholdAreGzipped() throws Exception {
+        UserInfo user = newUser();
+
+        HttpResponse<byte[]> plain = get(dietPlan(user), "application/json", null);
+        assertThat(plain.body().length).isGreaterThan(1024);
+        assertThat(plain.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+
+        HttpResponse<byte[]> gzipped = get(dietPlan(user), "application/json", "gzip");
+        assertThat(gzipped.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(gzipped.body().length).isLessThan(plain.body().length);
+        assertThat(gunzip(gzipped.body())).isEqualTo(plain.body());
+
+        // The profile is below min-response-size
+        HttpResponse<byte[]> profile = get("/api/user/" + user.getUserId(), "application/json", "gzip");
+        assertThat(profile.statusCode()).isEqualTo(200);
+        assertThat(profile.body().length).isLessThan(1024);
+        assertThat(profile.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+    }
+
+    private UserInfo newUser() {
+        UserInfo user = TestUsers.newUser("Payload");
+        userInfoRepository.save(user);
+        return user;
+    }
+
+    private static String dietPlan(UserInfo user) {
+        return "/api/user/" + user.getUserId() + "/diet-plan";
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.ACCEPT, accept);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static boolean variesByAccept(HttpResponse<byte[]> response) {
+        // Tomcat joins and lower-cases the Vary values (e.g. "accept,accept-encoding")
+        return response.headers().allValues(HttpHeaders.VARY).stream()
+                .flatMap(vary -> Arrays.stream(vary.split(",")))
+                .anyMatch(name -> name.trim().equalsIgnoreCase(HttpHeaders.ACCEPT));
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.project.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidsTest {
+
+    @Test
+    void v7CarriesVersionVariantAndCreationTime() {
+        long before = System.currentTimeMillis();
+        UUID id = Uuids.v7();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after);
+    }
+
+    @Test
+    void v7IdsFromLaterMillisecondsSortAfterEarlierOnes() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(Uuids.v7());
+            Thread.sleep(2);
+        }
+
+        assertThat(ids).isSortedAccordingTo(Uuids.ORDER);
+    }
+
+    @Test
+    void bytesRoundTripAndOrderLikeTheBinaryColumn() {
+        List<UUID> ids = new ArrayList<>(List.of(Uuids.MIN, Uuids.MAX, UUID.randomUUID(),
+                new UUID(Long.MIN_VALUE, 0), new UUID(Long.MAX_VALUE, -1), new UUID(1, Long.MIN_VALUE)));
+        for (int i = 0; i < 100; i++) {
+            ids.add(Uuids.v7());
+        }
+
+        for (UUID id : ids) {
+            byte[] bytes = Uuids.toBytes(id);
+            assertThat(bytes).hasSize(16);
+            assertThat(Uuids.fromBytes(bytes)).isEqualTo(id);
+        }
+        for (UUID a : ids) {
+            for (UUID b : ids) {
+                assertThat(Integer.signum(Uuids.ORDER.compare(a, b)))
+                        .isEqualTo(Integer.signum(Arrays.compareUnsigned(Uuids.toBytes(a), Uuids.toBytes(b))));
+            }
+        }
+    }
+
+    @Test
+    void binary16ColumnStoresAndSortsIdsLikeOrder() throws Exception {
+        List<UUID> ids = new ArrayList<>(List.of(Uuids.MIN, Uuids.MAX, new UUID(Long.MIN_VALUE, 0), new UUID(-1, 0)));
+        for (int i = 0; i < 50; i++) {
+            ids.add(i % 2 == 0 ? Uuids.v7() : UUID.randomUUID());
+        }
+        Collections.shuffle(ids, new Random(42));
+
+        List<UUID> stored = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:uuids;MODE=MySQL");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE ids (id BINARY(16) PRIMARY KEY)");
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO ids VALUES (?)")) {
+                for (UUID id : ids) {
+                    insert.setBytes(1, Uuids.toBytes(id));
+                    insert.executeUpdate();
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT id FROM ids ORDER BY id")) {
+                while (rs.next()) {
+                    stored.add(Uuids.fromBytes(rs.getBytes(1)));
+                }
+            }
+        }
+
+        List<UUID> expected = new ArrayList<>(ids);
+        expected.sort(Uuids.ORDER);
+        assertThat(stored).containsExactlyElementsOf(expected);
+    }
+}
@@ -0,0 +1,108 @@
+package com.project.backend.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DietPlanEngineTest {
+
+    @Test
+    void detectsTheGoalOutsideHalfAKilo() {
+        assertThat(DietPlanEngine.detectGoal(80, 79.6)).isEqualTo(Goal.MAINTAIN);
+        assertThat(DietPlanEngine.detectGoal(80, 80.4)).isEqualTo(Goal.MAINTAIN);
+        assertThat(DietPlanEngine.detectGoal(80, 79.5)).isEqualTo(Goal.LOSE_WEIGHT);
+        assertThat(DietPlanEngine.detectGoal(80, 80.5)).isEqualTo(Goal.GAIN_WEIGHT);
+    }
+
+    @Test
+    void spreadsTheWeightChangeOverTheTargetDays() {
+        assertThat(DietPlanEngine.dailyCalorieChange(Goal.LOSE_WEIGHT, 80, 70, 100)).isEqualTo(-770);
+        assertThat(DietPlanEngine.dailyCalorieChange(Goal.GAIN_WEIGHT, 60, 65, 50)).isEqualTo(770);
+        assertThat(DietPlanEngine.dailyCalorieChange(Goal.LOSE_WEIGHT, 80, 70, 0)).isZero();
+    }
+
+    @Test
+    void computesBmrWithMifflinStJeor() {
+        assertThat(DietPlanEngine.bmr(80, 170, 30, true)).isEqualTo(1717.5);
+        assertThat(DietPlanEngine.bmr(80, 170, 30, false)).isEqualTo(1551.5);
+    }
+
+    @Test
+    void averagesTheWeeklyExerciseBurnOverSevenDays() {
+        // 3 x 200 + 4 x 100 + 2 x 0
+        assertThat(DietPlanEngine.dailyExerciseCalories(List.of(
+                new ExerciseTemplate("Running", "None", 30, 3, "MON,WED,FRI", 200),
+                new ExerciseTemplate("Squats", "Bodyweight", 20, 4, "MON,TUE,THU,SAT", 100),
+                new ExerciseTemplate("Push Ups", "Bodyweight", 10, 2)))).isCloseTo(1000.0 / 7, within(1e-9));
+        assertThat(DietPlanEngine.dailyExerciseCalories(List.of())).isZero();
+    }
+
+    @Test
+    void splitsTheDailyCaloriesOverTheMeals() {
+        ComputedPlan plan = DietPlanEngine.compute(80, 70, 200, 170, 30, true);
+        double burn = DietPlanEngine.dailyExerciseCalories(plan.exercises());
+
+        assertThat(plan.goal()).isEqualTo(Goal.LOSE_WEIGHT);
+        assertThat(plan.dailyCalorieChange()).isEqualTo(-385);
+        // 1717.5 BMR - 385 deficit, plus the burn the exercises take out again
+        assertThat(burn).isPositive();
+        assertThat(plan.dailyCaloriesToEat()).isCloseTo(1332.5 + burn, within(1e-9));
+        assertThat(plan.breakfastCalories()).isCloseTo(plan.dailyCaloriesToEat() * 0.25, within(1e-9));
+        assertThat(plan.lunchCalories()).isCloseTo(plan.dailyCaloriesToEat() * 0.35, within(1e-9));
+        assertThat(plan.dinnerCalories()).isCloseTo(plan.dailyCaloriesToEat() * 0.25, within(1e-9));
+        assertThat(plan.preWorkoutCalories()).isCloseTo(plan.dailyCaloriesToEat() * 0.075, within(1e-9));
+        assertThat(plan.postWorkoutCalories()).isCloseTo(plan.dailyCaloriesToEat() * 0.075, within(1e-9));
+    }
+
+    @Test
+    void maintainPlanEatsBackTheMinimumTraining() {
+        ComputedPlan plan = DietPlanEngine.compute(80, 80, 90, 170, 30, true);
+        double burn = DietPlanEngine.dailyExerciseCalories(plan.exercises());
+
+        assertThat(plan.goal()).isEqualTo(Goal.MAINTAIN);
+        assertThat(plan.dailyCalorieChange()).isZero();
+        // The scheduler still prescribes at least 800 kcal a week
+        assertThat(burn * 7).isGreaterThan(600);
+        // Energy balance: intake - BMR - burn is the planned change (none)
+        assertThat(plan.dailyCaloriesToEat() - 1717.5 - burn).isCloseTo(0, within(1e-9));
+    }
+
+    @Test
+    void gainPlanKeepsItsSurplusDespiteTheTraining() {
+        // 1551.5 BMR + 385 surplus
+        ComputedPlan plan = DietPlanEngine.compute(60, 70, 200, 170, 30, false);
+        double burn = DietPlanEngine.dailyExerciseCalories(plan.exercises());
+
+        assertThat(plan.goal()).isEqualTo(Goal.GAIN_WEIGHT);
+        assertThat(plan.dailyCalorieChange()).isEqualTo(385);
+        assertThat(burn).isPositive();
+        assertThat(plan.dailyCaloriesToEat() - DietPlanEngine.bmr(60, 170, 30, false) - burn)
+                .isCloseTo(385, within(1e-9));
+    }
+
+    @Test
+    void neverPlansBelow1200Calories() {
+        // 1551.5 BMR - 2566.7 deficit + at most 500 kcal of daily burn
+        ComputedPlan plan = DietPlanEngine.compute(80, 70, 30, 170, 30, false);
+
+        assertThat(plan.dailyCaloriesToEat()).isEqualTo(1200);
+        assertThat(plan.breakfastCalories()).isCloseTo(300, within(1e-9));
+        assertThat(plan.lunchCalories()).isCloseTo(420, within(1e-9));
+    }
+
+    @Test
+    void schedulesExercisesAndComposesMealsFromThePlanNumbers() {
+        long vegan = DietaryTag.parseMask("VEGAN");
+        ComputedPlan plan = DietPlanEngine.compute(80, 70, 200, 170, 30, true, vegan);
+
+        assertThat(plan.exercises()).isNotEmpty()
+                .isEqualTo(ExerciseScheduler.bundled().schedule(Goal.LOSE_WEIGHT, 80, -385));
+        assertThat(plan.meals()).isEqualTo(MealComposer.bundled().composeDay(plan.breakfastCalories(),
+                plan.lunchCalories(), plan.dinnerCalories(), plan.preWorkoutCalories(), plan.postWorkoutCalories(), vegan));
+        assertThat(DietPlanEngine.compute(80, 70, 200, 170, 30, true, vegan))
+                .isEqualTo(plan);
+    }
+}
@@ -0,0 +1,59 @@
+package com.project.backend.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExerciseSchedulerTest {
+
+    // At 62 kg (the 60-65 kg band) these burn 8.75, 4.375, 6.5625 and 2.1875 kcal per minute
+    private static final String CATALOG = """
+            name,equipment,kind,met,goals,min_minutes,max_minutes
+            Running,None,CARDIO,8,L;M;G,20,40
+            Walking,None,CARDIO,4,L;M,20,60
+            Squats,Bodyweight,STRENGTH,6,L;G;M,10,30
+            Stretching,Mat,FLEXIBILITY,2,L;G;M,10,20
+            """;
+
+    private final ExerciseScheduler scheduler = new ExerciseScheduler(catalog());
+
+    @Test
+    void weightLossWeekBurnsTheDeficitOnTheLeastBusyDays() {
+        // 3500 kcal a week: 2 x 1312.5 cardio, 700 strength, 175 flexibility
+        assertThat(scheduler.schedule(Goal.LOSE_WEIGHT, 62, -500)).containsExactly(
+                new ExerciseTemplate("Walking", "None", 60, 5, "MON,TUE,WED,THU,FRI", 263),
+                new ExerciseTemplate("Running", "None", 40, 4, "TUE,WED,FRI,SAT", 350),
+                // Cannot burn 700 kcal within 3 x 30 minutes, so it is capped there
+                new ExerciseTemplate("Squats", "Bodyweight", 30, 3, "TUE,THU,SAT", 197),
+                new ExerciseTemplate("Stretching", "Mat", 20, 4, "MON,WED,THU,SAT", 44));
+    }
+
+    @Test
+    void weightGainWeekIsCappedAndDoesNotRepeatAnExercise() {
+        // A 1000 kcal surplus still burns only 1500 kcal a week; the goal has one strength exercise
+        assertThat(scheduler.schedule(Goal.GAIN_WEIGHT, 62, 1000)).containsExactly(
+                new ExerciseTemplate("Squats", "Bodyweight", 30, 3, "MON,WED,FRI", 197),
+                new ExerciseTemplate("Running", "None", 25, 1, "TUE", 219),
+                new ExerciseTemplate("Stretching", "Mat", 15, 4, "MON,WED,THU,SAT", 33));
+    }
+
+    @Test
+    void similarPlansShareOneSchedule() {
+        assertThat(scheduler.schedule(Goal.LOSE_WEIGHT, 64, -510))
+                .isEqualTo(scheduler.schedule(Goal.LOSE_WEIGHT, 62, -500));
+        assertThat(scheduler.schedule(Goal.MAINTAIN, 62, 0))
+                .isEqualTo(scheduler.schedule(Goal.MAINTAIN, 62, 100));
+    }
+
+    private static ExerciseCatalog catalog() {
+        try {
+            return ExerciseCatalog.read(new ByteArrayInputStream(CATALOG.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
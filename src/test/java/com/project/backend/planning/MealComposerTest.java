@@ -0,0 +1,73 @@
+package com.project.backend.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MealComposerTest {
+
+    private static final String CATALOG = """
+            name,slots,group,serving,unit,kcal,protein_g,carbs_g,fat_g,tags
+            Oats,B,GRAIN,40,g,150,5,27,3,GLUTEN
+            Rice,B,GRAIN,50,g,180,4,40,1,
+            Eggs,B,PROTEIN,1,pcs,70,6,0,5,EGG
+            Yogurt,B,PROTEIN,150,g,100,10,6,3,DAIRY
+            Banana,B,FRUIT,1,pcs,100,1,27,0,
+            Shake,POST,PROTEIN,1,scoop,120,24,3,1,
+            Milk,POST,DAIRY,250,ml,160,8,12,8,DAIRY
+            """;
+
+    private final MealComposer composer = new MealComposer(catalog());
+
+    @Test
+    void picksTheFoodClosestToEachGroupsShare() {
+        // 500 kcal: grain 225, protein 175, fruit 100
+        assertThat(composer.compose(MealSlot.BREAKFAST, 500, 0)).containsExactly(
+                "Oats (60 g) - 225 kcal, 8 g protein",
+                "Eggs (2.5 pcs) - 175 kcal, 15 g protein",
+                "Banana (1 pcs) - 100 kcal, 1 g protein");
+    }
+
+    @Test
+    void leavesOutExcludedFoods() {
+        assertThat(composer.compose(MealSlot.BREAKFAST, 500, DietaryTag.EGG.mask())).containsExactly(
+                "Oats (60 g) - 225 kcal, 8 g protein",
+                "Yogurt (300 g) - 200 kcal, 20 g protein",
+                "Banana (1 pcs) - 100 kcal, 1 g protein");
+    }
+
+    @Test
+    void groupWithoutAllowedFoodsHandsItsShareToTheOthers() {
+        // No protein left: grain gets 45/65 and fruit 20/65 of the 500 kcal
+        assertThat(composer.compose(MealSlot.BREAKFAST, 500, DietaryTag.parseMask("VEGAN"))).containsExactly(
+                "Rice (100 g) - 360 kcal, 8 g protein",
+                "Banana (1.5 pcs) - 150 kcal, 2 g protein");
+    }
+
+    @Test
+    void addsHalfServingsUntilTheMealIsWithinTolerance() {
+        // Protein is capped at 4 servings (480 of 600 kcal), so the milk grows from 400 to 480 kcal
+        assertThat(composer.compose(MealSlot.POST_WORKOUT, 1000, 0)).containsExactly(
+                "Shake (4 scoop) - 480 kcal, 96 g protein",
+                "Milk (750 ml) - 480 kcal, 24 g protein");
+    }
+
+    @Test
+    void similarTargetsShareOneComposition() {
+        assertThat(composer.compose(MealSlot.BREAKFAST, 510, 0))
+                .isEqualTo(composer.compose(MealSlot.BREAKFAST, 490, 0))
+                .isEqualTo(composer.compose(MealSlot.BREAKFAST, 500, 0));
+    }
+
+    private static FoodCatalog catalog() {
+        try {
+            return FoodCatalog.read(new ByteArrayInputStream(CATALOG.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
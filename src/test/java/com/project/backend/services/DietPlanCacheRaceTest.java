@@ -0,0 +1,89 @@
+package com.project.backend.services;
+
+import com.project.backend.model.UserInfo;
+import com.project.backend.repositories.UserInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+
+/**
+ * A plan read before a profile save commits must not be cached after the save invalidated it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DietPlanCacheRaceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private DietPlanCache dietPlanCache;
+
+    // Converts the plan read from the database; the hook runs the save at that point
+    @MockitoSpyBean
+    private PlanTemplateStore planTemplateStore;
+
+    // Kept from generating the new plan in the background, which would replace a stale cache entry
+    @MockitoSpyBean
+    private PlanPregenerationWorker planPregenerationWorker;
+
+    @Test
+    void planReadBeforeAProfileSaveIsNotCached() {
+        UserInfo user = TestUsers.newUser("CacheRace");
+        userInfoRepository.save(user);
+        UUID userId = user.getUserId();
+        String oldEtag = userService.generateDietPlan(userId).etag(PayloadFormat.JSON);
+        dietPlanCache.invalidate(userId);
+        doNothing().when(planPregenerationWorker).enqueue(any());
+
+        // The reader has read the old plan; the save commits and invalidates before it caches it
+        Thread reader = Thread.currentThread();
+        AtomicBoolean saved = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Object plan = invocation.callRealMethod();
+            if (Thread.currentThread() == reader && saved.compareAndSet(false, true)) {
+                user.setCurrWeight(75);
+                CompletableFuture.runAsync(() -> userService.saveUser(user)).join();
+            }
+            return plan;
+        }).when(planTemplateStore).toDto(any());
+
+        EncodedDietPlan staleRead = userService.generateDietPlan(userId);
+
+        assertThat(saved).isTrue();
+        assertThat(staleRead.etag(PayloadFormat.JSON)).isEqualTo(oldEtag);
+        assertThat(dietPlanCache.get(userId)).isNull();
+        assertThat(userService.generateDietPlan(userId).etag(PayloadFormat.JSON)).isNotEqualTo(oldEtag);
+    }
+
+    @Test
+    void putIfCurrentIgnoresPlansReadBeforeAnInvalidation() {
+        UserInfo user = TestUsers.newUser("CacheGeneration");
+        userInfoRepository.save(user);
+        UUID userId = user.getUserId();
+        EncodedDietPlan plan = userService.generateDietPlan(userId);
+
+        long generation = dietPlanCache.generation(userId);
+        dietPlanCache.invalidate(userId);
+        assertThat(dietPlanCache.putIfCurrent(userId, generation, plan)).isFalse();
+        assertThat(dietPlanCache.get(userId)).isNull();
+
+        long current = dietPlanCache.generation(userId);
+        assertThat(dietPlanCache.putIfCurrent(userId, current, plan)).isTrue();
+        assertThat(dietPlanCache.get(userId)).isSameAs(plan);
+    }
+}
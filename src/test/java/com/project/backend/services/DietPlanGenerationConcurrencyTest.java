@@ -0,0 +1,121 @@
+package com.project.backend.services;
+
+import com.project.backend.model.DietPlanResponse;
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.Uuids;
+import com.project.backend.repositories.UserInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent first requests for a user's diet plan must store exactly one plan pair, whether
+ * they meet in one instance (SingleFlight) or only on the user's row lock.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DietPlanGenerationConcurrencyTest {
+
+    private static final int CALLERS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentGenerationsForANewUserStoreOnePlanPair() throws Exception {
+        // Saved through the repository: saveUser would also queue a background generation
+        UserInfo user = TestUsers.newUser("Concurrent");
+        userInfoRepository.save(user);
+        UUID userId = user.getUserId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<String> etags = new ArrayList<>();
+        try {
+            List<Future<EncodedDietPlan>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userService.generateDietPlan(userId);
+                }));
+            }
+            start.countDown();
+            for (Future<EncodedDietPlan> result : results) {
+                etags.add(result.get().etag(PayloadFormat.JSON));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(countRows("exercise_plan", userId)).isEqualTo(1);
+        assertThat(countRows("nutrition_plan", userId)).isEqualTo(1);
+        assertThat(etags).containsOnly(etags.get(0));
+    }
+
+    @Test
+    void concurrentGenerationsAcrossInstancesStoreOnePlanPair() throws Exception {
+        // Each caller runs its own transactions past SingleFlight and the cache, like separate instances
+        for (int round = 0; round < 5; round++) {
+            UserInfo user = TestUsers.newUser("Instances");
+            userInfoRepository.save(user);
+            UUID userId = user.getUserId();
+
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+            List<Long> exercisePlanIds = new ArrayList<>();
+            try {
+                List<Future<DietPlanResponse>> results = new ArrayList<>();
+                for (int i = 0; i < CALLERS; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return userService.findOrCreateDietPlan(userId);
+                    }));
+                }
+                start.countDown();
+                for (Future<DietPlanResponse> result : results) {
+                    exercisePlanIds.add(result.get().getExercisePlan().getId());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(countRows("exercise_plan", userId)).isEqualTo(1);
+            assertThat(countRows("nutrition_plan", userId)).isEqualTo(1);
+            assertThat(exercisePlanIds).containsOnly(exercisePlanIds.get(0));
+            Map<String, Object> pointers = jdbcTemplate.queryForMap(
+                    "SELECT current_exercise_plan_id, current_nutrition_plan_id FROM user_info WHERE user_id = ?",
+                    Uuids.toBytes(userId));
+            assertThat(((Number) pointers.get("current_exercise_plan_id")).longValue()).isEqualTo(exercisePlanIds.get(0));
+            assertThat(((Number) pointers.get("current_nutrition_plan_id")).longValue()).isEqualTo(planId("nutrition_plan", userId));
+        }
+    }
+
+    private long planId(String table, UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT id FROM " + table + " WHERE user_id = ?",
+                Long.class, Uuids.toBytes(userId));
+    }
+
+    private int countRows(String table, UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?",
+                Integer.class, Uuids.toBytes(userId));
+    }
+}
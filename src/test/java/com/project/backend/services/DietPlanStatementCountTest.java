@@ -0,0 +1,81 @@
+package com.project.backend.services;
+
+import com.project.backend.metrics.RequestQueryStats;
+import com.project.backend.model.UserInfo;
+import com.project.backend.repositories.UserInfoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SQL statement budgets of the diet-plan read and of saving plans, counted on the JDBC level
+ * like the per-request metric (RequestQueryStats), so an N+1 regression fails the build.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DietPlanStatementCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private DietPlanCache dietPlanCache;
+
+    @AfterEach
+    void stopCounting() {
+        RequestQueryStats.detach();
+    }
+
+    @Test
+    void existingPlanIsReadWithTwoStatements() {
+        UUID userId = saveUsers(1).get(0);
+        userService.generateDietPlan(userId);
+        dietPlanCache.invalidate(userId);
+
+        RequestQueryStats.start();
+        userService.generateDietPlan(userId);
+
+        // Current exercise plan and current nutrition plan by primary key; templates come from the cache
+        assertThat(RequestQueryStats.statements()).isEqualTo(2);
+    }
+
+    @Test
+    void savingPlansDoesNotGrowWithTheNumberOfUsers() {
+        List<UUID> userIds = saveUsers(20);
+        userService.regenerateDietPlans(userIds.subList(0, 1)); // templates stored and cached
+
+        RequestQueryStats.start();
+        userService.regenerateDietPlans(userIds.subList(0, 1));
+        int oneUser = RequestQueryStats.statements();
+
+        RequestQueryStats.start();
+        userService.regenerateDietPlans(userIds);
+        int twentyUsers = RequestQueryStats.statements();
+
+        // Lock SELECT, one batched INSERT per plan table, one batched current-plan UPDATE,
+        // at most one id-sequence call per plan table
+        assertThat(oneUser).isLessThanOrEqualTo(6);
+        assertThat(twentyUsers).isLessThanOrEqualTo(6);
+    }
+
+    private List<UUID> saveUsers(int count) {
+        List<UUID> userIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserInfo user = TestUsers.newUser("Statements");
+            userInfoRepository.save(user);
+            userIds.add(user.getUserId());
+        }
+        return userIds;
+    }
+}
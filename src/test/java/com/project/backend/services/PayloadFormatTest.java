@@ -0,0 +1,41 @@
+package com.project.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadFormatTest {
+
+    @Test
+    void negotiatesBinaryFormatsByMediaType() {
+        assertThat(PayloadFormat.negotiate("application/cbor")).isEqualTo(PayloadFormat.CBOR);
+        assertThat(PayloadFormat.negotiate("application/x-jackson-smile")).isEqualTo(PayloadFormat.SMILE);
+        assertThat(PayloadFormat.negotiate("application/json")).isEqualTo(PayloadFormat.JSON);
+    }
+
+    @Test
+    void highestQualityWinsAndEarlierTypesWinTies() {
+        assertThat(PayloadFormat.negotiate("application/json;q=0.5, application/cbor")).isEqualTo(PayloadFormat.CBOR);
+        assertThat(PayloadFormat.negotiate("application/cbor;q=0.2, application/x-jackson-smile;q=0.9"))
+                .isEqualTo(PayloadFormat.SMILE);
+        assertThat(PayloadFormat.negotiate("application/x-jackson-smile, application/cbor")).isEqualTo(PayloadFormat.SMILE);
+    }
+
+    @Test
+    void fallsBackToJson() {
+        assertThat(PayloadFormat.negotiate(null)).isEqualTo(PayloadFormat.JSON);
+        assertThat(PayloadFormat.negotiate(" ")).isEqualTo(PayloadFormat.JSON);
+        assertThat(PayloadFormat.negotiate("*/*")).isEqualTo(PayloadFormat.JSON);
+        assertThat(PayloadFormat.negotiate("application/*")).isEqualTo(PayloadFormat.JSON);
+        assertThat(PayloadFormat.negotiate("application/xml, text/html")).isEqualTo(PayloadFormat.JSON);
+        assertThat(PayloadFormat.negotiate("application/cbor;q=0")).isEqualTo(PayloadFormat.JSON);
+        assertThat(PayloadFormat.negotiate("not a media type")).isEqualTo(PayloadFormat.JSON);
+    }
+
+    @Test
+    void etagsDifferPerFormat() {
+        assertThat(PayloadFormat.JSON.etag("1-2-3")).isEqualTo("W/\"1-2-3\"");
+        assertThat(PayloadFormat.CBOR.etag("1-2-3")).isEqualTo("W/\"1-2-3-cbor\"");
+        assertThat(PayloadFormat.SMILE.etag("1-2-3")).isEqualTo("W/\"1-2-3-smile\"");
+    }
+}
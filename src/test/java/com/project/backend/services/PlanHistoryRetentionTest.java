@@ -0,0 +1,66 @@
+package com.project.backend.services;
+
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.Uuids;
+import com.project.backend.repositories.PlanHistoryRepository;
+import com.project.backend.repositories.UserInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The max-age rule must not delete a user's only remaining plan while the user row has no
+ * current plan id.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PlanHistoryRetentionTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private PlanHistoryRepository planHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void newestPlanIsKeptWhenTheCurrentPlanIdIsNull() {
+        UserInfo user = TestUsers.newUser("Retention");
+        userInfoRepository.save(user);
+        UUID userId = user.getUserId();
+        userService.generateDietPlan(userId);
+        Long olderPlanId = currentExercisePlanId(userId);
+        userService.regenerateDietPlans(List.of(userId));
+        Long newestPlanId = currentExercisePlanId(userId);
+        clearCurrentPlanIds(userId);
+
+        // Every plan is older than the cutoff
+        List<Long> expired = planHistoryRepository.findExpiredExercisePlanIds(
+                List.of(userId), Integer.MAX_VALUE, LocalDateTime.now().plusDays(1));
+
+        assertThat(expired).containsExactly(olderPlanId).doesNotContain(newestPlanId);
+    }
+
+    private Long currentExercisePlanId(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT current_exercise_plan_id FROM user_info WHERE user_id = ?",
+                Long.class, Uuids.toBytes(userId));
+    }
+
+    private void clearCurrentPlanIds(UUID userId) {
+        jdbcTemplate.update("UPDATE user_info SET current_exercise_plan_id = NULL, current_nutrition_plan_id = NULL " +
+                "WHERE user_id = ?", (Object) Uuids.toBytes(userId));
+    }
+}
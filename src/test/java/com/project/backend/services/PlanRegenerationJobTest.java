@@ -0,0 +1,52 @@
+package com.project.backend.services;
+
+import com.project.backend.model.JobCheckpoint;
+import com.project.backend.model.JobProgress;
+import com.project.backend.repositories.JobCheckpointRepository;
+import com.project.backend.repositories.UserInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PlanRegenerationJobTest {
+
+    @Autowired
+    private PlanRegenerationJob planRegenerationJob;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Test
+    void completedRunIsMarkedAndResumingItStartsOver() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            userInfoRepository.save(TestUsers.newUser("Regeneration"));
+        }
+        long users = userInfoRepository.count();
+
+        JobProgress first = awaitFinished(planRegenerationJob.start(false));
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(PlanRegenerationJob.JOB_NAME).orElseThrow();
+        assertThat(first.getError()).isNull();
+        assertThat(first.getProcessedThisRun()).isEqualTo(users);
+        assertThat(checkpoint.getCompletedAt()).isNotNull();
+
+        JobProgress resumed = awaitFinished(planRegenerationJob.start(true));
+        assertThat(resumed.getProcessedThisRun()).isEqualTo(users);
+        assertThat(resumed.getProcessedTotal()).isEqualTo(users);
+    }
+
+    private JobProgress awaitFinished(JobProgress progress) throws InterruptedException {
+        while (progress.isRunning()) {
+            Thread.sleep(20);
+            progress = planRegenerationJob.progress();
+        }
+        return progress;
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.backend.services;
+
+import com.project.backend.model.DietPlanResponse;
+import com.project.backend.model.UserInfo;
+import com.project.backend.repositories.ExercisePlanTemplateRepository;
+import com.project.backend.repositories.MealPlanTemplateRepository;
+import com.project.backend.repositories.UserInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Plans with the same contents share one template row, which is inserted once and read back
+ * from the template cache.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PlanTemplateStoreTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private PlanTemplateStore planTemplateStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private ExercisePlanTemplateRepository exercisePlanTemplateRepository;
+
+    @MockitoSpyBean
+    private MealPlanTemplateRepository mealPlanTemplateRepository;
+
+    @Test
+    void identicalPlansShareOneTemplateRowAndReadItFromTheCache() {
+        // Same profile, so the same exercises and food lists
+        UserInfo first = TestUsers.newUser("TemplateFirst");
+        UserInfo second = TestUsers.newUser("TemplateSecond");
+        userInfoRepository.save(first);
+        userInfoRepository.save(second);
+
+        DietPlanResponse firstPlan = userService.findOrCreateDietPlan(first.getUserId());
+        String exerciseHash = firstPlan.getExercisePlan().getTemplate().getHash();
+        String mealHash = firstPlan.getNutritionPlan().getMealTemplate().getHash();
+        assertThat(countRows("exercise_plan_template", "hash", exerciseHash)).isEqualTo(1);
+        assertThat(countRows("meal_plan_template", "hash", mealHash)).isEqualTo(1);
+        int exerciseSets = countRows("exercise_set", "template_hash", exerciseHash);
+        assertThat(exerciseSets).isPositive();
+
+        clearInvocations(exercisePlanTemplateRepository, mealPlanTemplateRepository);
+        DietPlanResponse secondPlan = userService.findOrCreateDietPlan(second.getUserId());
+
+        assertThat(secondPlan.getExercisePlan().getTemplate().getHash()).isEqualTo(exerciseHash);
+        assertThat(secondPlan.getNutritionPlan().getMealTemplate().getHash()).isEqualTo(mealHash);
+        verify(exercisePlanTemplateRepository, never()).insertIfAbsent(anyString(), anyString());
+        verify(mealPlanTemplateRepository, never()).insertIfAbsent(anyString(), anyString(), anyString(),
+                anyString(), anyString(), anyString());
+        assertThat(countRows("exercise_plan_template", "hash", exerciseHash)).isEqualTo(1);
+        assertThat(countRows("meal_plan_template", "hash", mealHash)).isEqualTo(1);
+        assertThat(countRows("exercise_set", "template_hash", exerciseHash)).isEqualTo(exerciseSets);
+
+        // The first plan's read loaded both templates; this one needs no template query
+        planTemplateStore.toDto(firstPlan);
+        clearInvocations(exercisePlanTemplateRepository, mealPlanTemplateRepository);
+        assertThat(planTemplateStore.toDto(secondPlan).getExercisePlan().getExerciseSets()).hasSize(exerciseSets);
+        verify(exercisePlanTemplateRepository, never()).findWithSetsByHash(anyString());
+        verify(mealPlanTemplateRepository, never()).findById(any());
+    }
+
+    private int countRows(String table, String column, String hash) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?",
+                Integer.class, hash);
+    }
+}
@@ -0,0 +1,55 @@
+package com.project.backend.services;
+
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.Uuids;
+import com.project.backend.repositories.UserInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * After a profile change the plan computed from the old profile must not be served again,
+ * whether or not the background generation got to the user.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProfileChangePlanTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void profileChangeRetiresTheCurrentPlan() {
+        UserInfo user = TestUsers.newUser("ProfileChange");
+        userInfoRepository.save(user);
+        UUID userId = user.getUserId();
+        userService.generateDietPlan(userId);
+        Long oldPlanId = currentExercisePlanId(userId);
+        assertThat(oldPlanId).isNotNull();
+
+        user.setCurrWeight(75);
+        userService.saveUser(user);
+        // Either still unset, or already replaced by the background generation
+        assertThat(currentExercisePlanId(userId)).isNotEqualTo(oldPlanId);
+
+        userService.generateDietPlan(userId);
+        assertThat(currentExercisePlanId(userId)).isNotNull().isNotEqualTo(oldPlanId);
+    }
+
+    private Long currentExercisePlanId(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT current_exercise_plan_id FROM user_info WHERE user_id = ?",
+                Long.class, Uuids.toBytes(userId));
+    }
+}
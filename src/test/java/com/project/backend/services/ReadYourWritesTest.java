@@ -0,0 +1,88 @@
+package com.project.backend.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    private final MeterRegistry writerRegistry = new SimpleMeterRegistry();
+    private final MeterRegistry readerRegistry = new SimpleMeterRegistry();
+    // Two instances behind a load balancer
+    private final ReadYourWrites writer = new ReadYourWrites(WINDOW, 100, writerRegistry);
+    private final ReadYourWrites reader = new ReadYourWrites(WINDOW, 100, readerRegistry);
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void writeHandsTheClientACookieThatPinsItsReadsOnOtherInstances() {
+        UUID userId = UUID.randomUUID();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        inRequest(new MockHttpServletRequest(), writeResponse);
+        writer.recordWrite(userId);
+        writer.recordWrite(userId);
+
+        Cookie cookie = writeResponse.getCookie(ReadYourWrites.COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+        assertThat(writeResponse.getHeaders("Set-Cookie")).hasSize(1);
+
+        MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+        nextRequest.setCookies(cookie);
+        inRequest(nextRequest, new MockHttpServletResponse());
+        reader.read(userId, () -> null);
+
+        assertThat(primaryReads(readerRegistry)).isEqualTo(1);
+    }
+
+    @Test
+    void staleOrMissingCookieReadsFromTheReplica() {
+        UUID userId = UUID.randomUUID();
+        MockHttpServletRequest staleRequest = new MockHttpServletRequest();
+        staleRequest.setCookies(new Cookie(ReadYourWrites.COOKIE,
+                Long.toString(System.currentTimeMillis() - WINDOW.toMillis() - 1000)));
+        inRequest(staleRequest, new MockHttpServletResponse());
+        reader.read(userId, () -> null);
+
+        inRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        reader.read(userId, () -> null);
+
+        assertThat(primaryReads(readerRegistry)).isZero();
+    }
+
+    @Test
+    void writesOutsideARequestArePinnedOnTheWritingInstance() {
+        UUID userId = UUID.randomUUID();
+        writer.recordWrite(userId);
+
+        writer.read(userId, () -> null);
+        reader.read(userId, () -> null);
+
+        assertThat(primaryReads(writerRegistry)).isEqualTo(1);
+        assertThat(primaryReads(readerRegistry)).isZero();
+    }
+
+    private static void inRequest(MockHttpServletRequest request, MockHttpServletResponse response) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+
+    private static double primaryReads(MeterRegistry registry) {
+        return registry.get("datasource.read.your.writes.primary.reads").counter().count();
+    }
+}
@@ -0,0 +1,87 @@
+package com.project.backend.services;
+
+import com.project.backend.model.Uuids;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ShardRingTest {
+
+    private static final int KEYS = 100_000;
+
+    private static List<UUID> keys() {
+        List<UUID> keys = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            keys.add(Uuids.v7());
+        }
+        return keys;
+    }
+
+    @Test
+    void placementIsTheSameForEveryRingOfTheSameSize() {
+        ShardRing ring = new ShardRing(4);
+        ShardRing other = new ShardRing(4);
+
+        for (UUID key : keys()) {
+            int shard = ring.shardOf(key);
+            assertThat(shard).isBetween(0, 3);
+            assertThat(ring.shardOf(key)).isEqualTo(shard);
+            assertThat(other.shardOf(key)).isEqualTo(shard);
+        }
+    }
+
+    @Test
+    void growingMovesAboutKOverNPlusKOfTheKeysAllToTheNewShards() {
+        ShardRing before = new ShardRing(3);
+        ShardRing after = new ShardRing(5);
+
+        int moved = 0;
+        for (UUID key : keys()) {
+            int oldShard = before.shardOf(key);
+            int newShard = after.shardOf(key);
+            if (oldShard != newShard) {
+                moved++;
+                assertThat(newShard).isIn(3, 4);
+            }
+        }
+
+        // 2 / (3 + 2)
+        assertThat((double) moved / KEYS).isCloseTo(0.4, within(0.06));
+    }
+
+    @Test
+    void spreadsKeysEvenlyOverTheShards() {
+        int shards = 4;
+        ShardRing ring = new ShardRing(shards);
+
+        int[] counts = new int[shards];
+        for (UUID key : keys()) {
+            counts[ring.shardOf(key)]++;
+        }
+
+        for (int count : counts) {
+            assertThat((double) count / KEYS).isCloseTo(1.0 / shards, within(0.04));
+        }
+    }
+
+    @Test
+    void singleShardOwnsEverything() {
+        ShardRing ring = new ShardRing(1);
+
+        assertThat(ring.shards()).isEqualTo(1);
+        assertThat(ring.shardOf(Uuids.MIN)).isZero();
+        assertThat(ring.shardOf(Uuids.MAX)).isZero();
+        assertThat(ring.shardOf(Uuids.v7())).isZero();
+    }
+
+    @Test
+    void rejectsAnEmptyRing() {
+        assertThatThrownBy(() -> new ShardRing(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,31 @@
+package com.project.backend.services;
+
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.Uuids;
+
+/**
+ * Valid user profiles for integration tests.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    /**
+     * @param name Name of the user, also used for a unique email address
+     * @return A new user (with userId set, not saved) who wants to lose 10 kg in 90 days
+     */
+    public static UserInfo newUser(String name) {
+        UserInfo user = new UserInfo();
+        user.setUserId(Uuids.v7());
+        user.setName(name);
+        user.setEmail(name.toLowerCase() + "-" + user.getUserId() + "@example.com");
+        user.setAge(35);
+        user.setGender("FEMALE");
+        user.setHeight(168);
+        user.setCurrWeight(80);
+        user.setDesiredWeight(70);
+        user.setTargetDays(90);
+        return user;
+    }
+}
@@ -0,0 +1,106 @@
+package com.project.backend.services;
+
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.Uuids;
+import com.project.backend.model.WeighInPeriod;
+import com.project.backend.model.WeighInRequest;
+import com.project.backend.repositories.UserInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A deleted user disappears from all reads at once; UserReaper later removes its rows.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserDeletionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private WeighInService weighInService;
+
+    @Autowired
+    private UserReaper userReaper;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletedUserIsGoneAtOnceAndReapedLater() throws Exception {
+        UserInfo before = TestUsers.newUser("BeforeDeleted");
+        userInfoRepository.save(before);
+        UserInfo user = TestUsers.newUser("Deleted");
+        userInfoRepository.save(user);
+        UUID userId = user.getUserId();
+        // Two plan pairs (the first one cached), a weigh-in and its aggregates
+        userService.generateDietPlan(userId);
+        userService.regenerateDietPlans(List.of(userId));
+        weighInService.record(userId, new WeighInRequest(79.5, LocalDateTime.now()));
+        LocalDate today = LocalDate.now();
+        assertThat(await(() -> !weighInService.getSummaries(userId, WeighInPeriod.DAY, today, today).isEmpty())).isTrue();
+
+        mockMvc.perform(delete("/api/user/{userId}", userId)).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/user/{userId}", userId)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/user/{userId}/diet-plan", userId)).andExpect(status().isNotFound());
+        String page = mockMvc.perform(get("/api/user").param("after", before.getUserId().toString()).param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(page).doesNotContain(userId.toString());
+        mockMvc.perform(delete("/api/user/{userId}", userId)).andExpect(status().isNotFound());
+        // Only marked so far
+        assertThat(countRows("user_info", userId)).isEqualTo(1);
+        assertThat(countRows("exercise_plan", userId)).isEqualTo(2);
+
+        assertThat(await(() -> {
+            userReaper.reap();
+            return countRows("user_info", userId) == 0;
+        })).isTrue();
+        assertThat(countRows("exercise_plan", userId)).isZero();
+        assertThat(countRows("nutrition_plan", userId)).isZero();
+        assertThat(countRows("weigh_in", userId)).isZero();
+        assertThat(countRows("weigh_in_aggregate", userId)).isZero();
+        assertThat(countRows("user_info", before.getUserId())).isEqualTo(1);
+    }
+
+    private int countRows(String table, UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?",
+                Integer.class, Uuids.toBytes(userId));
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(50);
+        }
+        return true;
+    }
+}
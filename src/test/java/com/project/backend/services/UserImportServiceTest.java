@@ -0,0 +1,73 @@
+package com.project.backend.services;
+
+import com.project.backend.model.ImportReport;
+import com.project.backend.model.ImportRowError;
+import com.project.backend.model.UserInfo;
+import com.project.backend.repositories.UserInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows of an import are rejected one by one: a bad row must not take the rest of its chunk down.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+    private static final String HEADER = "name,email,age,gender,height,currWeight,desiredWeight,targetDays,dietaryExclusions\n";
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Test
+    void rowFailingOnInsertIsTheOnlyOneRejected() throws Exception {
+        String prefix = "import-" + UUID.randomUUID();
+        // Valid, but longer than the dietary_exclusions column: passes validation and fails the INSERT
+        String tooLong = "NUTS,".repeat(30);
+        ImportReport report = importCsv(HEADER
+                + row(prefix + "-1@example.com", "")
+                + row(prefix + "-2@example.com", "\"" + tooLong + "\"")
+                + row(prefix + "-3@example.com", "VEGAN"));
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(ImportRowError::getRow).containsExactly(2L);
+        assertThat(userInfoRepository.findByEmail(prefix + "-1@example.com")).isNotNull();
+        assertThat(userInfoRepository.findByEmail(prefix + "-3@example.com")).isNotNull();
+    }
+
+    @Test
+    void rejectsSuppliedUserIdsAndTakenEmails() throws Exception {
+        UserInfo existing = TestUsers.newUser("Imported");
+        userInfoRepository.save(existing);
+        String prefix = "import-" + UUID.randomUUID();
+
+        ImportReport report = importCsv("userId," + HEADER
+                + UUID.randomUUID() + "," + row(prefix + "-1@example.com", "")
+                + "," + row(existing.getEmail().toUpperCase(), "")
+                + "," + row(prefix + "-2@example.com", "")
+                + "," + row(prefix + "-2@example.com", ""));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(ImportRowError::getRow).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(userInfoRepository.findByEmail(prefix + "-1@example.com")).isNull();
+    }
+
+    private ImportReport importCsv(String csv) throws Exception {
+        return userImportService.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true);
+    }
+
+    private static String row(String email, String dietaryExclusions) {
+        return "Imported," + email + ",35,FEMALE,168,80,70,90," + dietaryExclusions + "\n";
+    }
+}
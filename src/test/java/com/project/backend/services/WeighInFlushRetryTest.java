@@ -0,0 +1,74 @@
+package com.project.backend.services;
+
+import com.project.backend.model.UserInfo;
+import com.project.backend.model.WeighInPeriod;
+import com.project.backend.model.WeighInRequest;
+import com.project.backend.model.WeighInSummary;
+import com.project.backend.repositories.UserInfoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * An accepted weigh-in whose flush fails is written by a later attempt instead of being dropped.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WeighInFlushRetryTest {
+
+    @Autowired
+    private WeighInService weighInService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void failedFlushIsRetried() throws InterruptedException {
+        UserInfo user = TestUsers.newUser("WeighIn");
+        userInfoRepository.save(user);
+        LocalDate today = LocalDate.now();
+
+        jdbcTemplate.execute("ALTER TABLE weigh_in RENAME TO weigh_in_unavailable");
+        try {
+            weighInService.record(user.getUserId(), new WeighInRequest(79.5, LocalDateTime.now()));
+            assertThat(await(() -> meterRegistry.get("weigh.in.retry.depth").gauge().value() > 0)).isTrue();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE weigh_in_unavailable RENAME TO weigh_in");
+        }
+
+        assertThat(await(() -> !summaries(user, today).isEmpty())).isTrue();
+        assertThat(summaries(user, today)).singleElement()
+                .satisfies(summary -> assertThat(summary.getEntries()).isEqualTo(1));
+    }
+
+    private List<WeighInSummary> summaries(UserInfo user, LocalDate day) {
+        return weighInService.getSummaries(user.getUserId(), WeighInPeriod.DAY, day, day);
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(50);
+        }
+        return true;
+    }
+}